@@ -32,12 +32,13 @@ public class VoronoiExample {
 		Tick t = new Tick();
 		
 		VoronoiGraphFactory<Polygon, Arc, Node> factory = new VoronoiGraphFactory<Polygon, Arc, Node>(width, height);
+		factory.setBounded(true);
 		PanGraph<Polygon, Arc, Node> graph = factory.createPanGraph(originalPoints);
 		
 		t.tock("Finished the graph");
 		
 		GraphVisualizer<Polygon, Arc, Node> visualizer = new GraphVisualizer<Polygon, Arc, Node>();
-//		visualizer.createImage(graph, "voronoi.png");
+		visualizer.createImage(graph, "voronoi.png");
 	}
 
 }
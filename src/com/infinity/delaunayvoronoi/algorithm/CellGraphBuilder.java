@@ -0,0 +1,127 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.algorithm.voronoi.ConvexCell;
+import com.infinity.delaunayvoronoi.factory.BaseModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Polygon;
+
+/**
+ * Puts closed cells that were each worked out on their own into one <code>PanGraph</code>.
+ * Neighboring cells work out their shared corners separately, so the corners are matched
+ * up by location, and an edge two cells both have becomes one <code>Arc</code> bordering
+ * both of them.  An edge only one cell has is on the outside of the area.
+ */
+class CellGraphBuilder<R extends Polygon, S extends Arc, T extends Node> {
+
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private final BaseModelFactory<R, S, T> modelFactory;
+
+	/**
+	 * How close two corners are before they are one <code>Node</code>
+	 */
+	private final double tolerance;
+
+	/**
+	 * Creates a builder
+	 * @param modelFactory Used to create new instances of the model objects
+	 * @param tolerance How close two corners are before they are one <code>Node</code>
+	 */
+	CellGraphBuilder(BaseModelFactory<R, S, T> modelFactory, double tolerance) {
+		this.modelFactory = modelFactory;
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Creates the graph of the cells, each cell's <code>Polygon</code> is at the same index
+	 * in the graph as the cell, with its corners in clockwise order
+	 * @param cells The cells, an empty cell gets a <code>Polygon</code> without corners
+	 * @return The graph of the cells
+	 */
+	PanGraph<Polygon, Arc, Node> build(ConvexCell[] cells) {
+		PanGraph<Polygon, Arc, Node> graph = new PanGraph<Polygon, Arc, Node>();
+		CoordinateNodeMap locations = new CoordinateNodeMap();
+		locations.setTolerance(tolerance);
+
+		List<Node> corners = new ArrayList<Node>();
+		for (ConvexCell cell : cells) {
+			Polygon polygon = modelFactory.polygon();
+			graph.addPolygon(polygon);
+
+			// the cell keeps its corners counterclockwise, the cells of the graph go clockwise
+			corners.clear();
+			for (int i = cell.size() - 1; i >= 0; i--) {
+				Node corner = getCorner(graph, locations, cell.getX(i), cell.getY(i));
+				if (corners.isEmpty() || corners.get(corners.size() - 1) != corner) {
+					corners.add(corner);
+				}
+			}
+			if (corners.size() > 1 && corners.get(corners.size() - 1) == corners.get(0)) {
+				corners.remove(corners.size() - 1);
+			}
+			if (corners.size() < 3) {
+				// everything was cut away or squeezed into less than a tolerance
+				continue;
+			}
+
+			for (int i = 0; i < corners.size(); i++) {
+				Node one = corners.get(i);
+				Node two = corners.get((i + 1) % corners.size());
+				polygon.addCorner(one);
+				one.addTouchingPolygon(polygon);
+				addBorder(graph, polygon, one, two);
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Get the <code>Node</code> at the location, making it if there isn't one near it yet
+	 */
+	private Node getCorner(PanGraph<Polygon, Arc, Node> graph, CoordinateNodeMap locations, double x, double y) {
+		Point point = new Point(x, y);
+		Node node = locations.getNear(point);
+		if (node == null) {
+			node = modelFactory.node(point);
+			locations.put(point, node);
+			graph.addNode(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Makes the edge between two corners a border of the <code>Polygon</code>, sharing
+	 * the <code>Arc</code> with the cell on the other side if it already made one
+	 */
+	private void addBorder(PanGraph<Polygon, Arc, Node> graph, Polygon polygon, Node one, Node two) {
+		for (Arc arc : one.getProtrudingArcs()) {
+			List<Node> ends = arc.getEndPoints();
+			if (ends.get(0) == two || ends.get(1) == two) {
+				for (Polygon other : arc.getBorderingPolygons()) {
+					other.addNeighboringPolygon(polygon);
+					polygon.addNeighboringPolygon(other);
+				}
+				polygon.addBorder(arc);
+				arc.addBorderingPolygon(polygon);
+				return;
+			}
+		}
+
+		Arc arc = modelFactory.arc(one, two);
+		graph.addArc(arc);
+		one.addProtrudingArc(arc);
+		two.addProtrudingArc(arc);
+		one.addAdjacentNode(two);
+		two.addAdjacentNode(one);
+		polygon.addBorder(arc);
+		arc.addBorderingPolygon(polygon);
+	}
+
+}
@@ -0,0 +1,507 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.algorithm.order.BrioInsertionOrder;
+import com.infinity.delaunayvoronoi.algorithm.order.InsertionOrder;
+import com.infinity.delaunayvoronoi.factory.DelaunayModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.CompactTriangulation;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
+
+/**
+ * Creates Delaunay triangles by incremental insertion with Lawson flips, storing
+ * everything in primitive arrays.  Vertices are <code>double</code> coordinates and 
+ * triangles are <code>int</code> half-edges, so nothing is allocated per triangle while
+ * building.  The result is a <code>CompactTriangulation</code> that is only turned into
+ * <code>Triangle</code>, <code>Arc</code> and <code>Node</code> instances when asked for.
+ */
+public class CompactDelaunayTriangulation<R extends Triangle, S extends Arc, T extends Node> implements PanGraphFactory<Triangle, Arc, Node> {
+
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private DelaunayModelFactory<R, S, T> modelFactory;
+	
+	/**
+	 * Decides the order the <code>Point</code>s are inserted, null keeps the caller's order
+	 */
+	private InsertionOrder insertionOrder = new BrioInsertionOrder(false);
+
+	/**
+	 * Sets up the algorithm's initial needs
+	 */
+	public CompactDelaunayTriangulation() {
+		this.modelFactory = new DelaunayModelFactory<R, S, T>();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.PanGraphFactory#createPanGraph(java.util.List)
+	 */
+	@Override
+	public PanGraph<Triangle, Arc, Node> createPanGraph(List<Point> points) {
+		return createAdapter(points).getPanGraph();
+	}
+
+	/**
+	 * Triangulates the <code>Point</code>s but waits to create the <code>PanGraph</code>
+	 * until the adapter is asked for it
+	 * @param points The <code>Point</code>s to triangulate
+	 * @return The adapter holding the compact triangulation
+	 */
+	public CompactPanGraphAdapter<R, S, T> createAdapter(List<Point> points) {
+		return new CompactPanGraphAdapter<R, S, T>(createCompactTriangulation(points), modelFactory);
+	}
+
+	/**
+	 * Triangulates the <code>Point</code>s into primitive arrays
+	 * @param points The <code>Point</code>s to triangulate
+	 * @return The compact triangulation, vertex i is <code>points.get(i)</code>
+	 */
+	public CompactTriangulation createCompactTriangulation(List<Point> points) {
+		Builder builder = new Builder(points);
+		
+		if (insertionOrder == null) {
+			for (int i = 0; i < points.size(); i++) {
+				builder.insert(i);
+			}
+		} else {
+			for (int i : insertionOrder.orderIndexes(points)) {
+				builder.insert(i);
+			}
+		}
+		
+		return builder.build(points);
+	}
+
+	/**
+	 * Sets the order the <code>Point</code>s are inserted in
+	 * @param insertionOrder The order to insert the <code>Point</code>s in, null keeps the caller's order
+	 */
+	public void setInsertionOrder(InsertionOrder insertionOrder) {
+		this.insertionOrder = insertionOrder;
+	}
+
+	/**
+	 * Used to inject a factory that creates custom model instances
+	 * @param modelFactory A custom factory to use for creating model instances
+	 */
+	public void setModelFactory(DelaunayModelFactory<R, S, T> modelFactory) {
+		this.modelFactory = modelFactory;
+	}
+
+	/**
+	 * Holds the working arrays for a single triangulation.  All of the arrays are 
+	 * sized up front so the insertion loop never allocates.
+	 */
+	private static class Builder {
+
+		/**
+		 * How far past the bounding box the super triangle reaches
+		 */
+		private static final double SUPER_TRIANGLE_SCALE = 20;
+
+		/**
+		 * The number of real vertices, the super triangle's vertices come after them
+		 */
+		private final int vertexCount;
+
+		/**
+		 * The x, y coordinates of each vertex
+		 */
+		private final double[] coordinates;
+
+		/**
+		 * The vertex each half-edge starts at
+		 */
+		private final int[] triangles;
+
+		/**
+		 * The twin of each half-edge or -1 on the super triangle
+		 */
+		private final int[] halfedges;
+
+		/**
+		 * The number of triangles in use
+		 */
+		private int triangleCount;
+
+		/**
+		 * The half-edges waiting to be checked by <code>legalize</code>
+		 */
+		private int[] edgeStack = new int[64];
+
+		/**
+		 * The number of half-edges on the stack
+		 */
+		private int edgeStackSize;
+
+		/**
+		 * The most recently created triangle, where the next walk starts
+		 */
+		private int lastTriangle;
+
+		/**
+		 * Sets up the arrays and the super triangle
+		 * @param points The <code>Point</code>s to triangulate
+		 */
+		Builder(List<Point> points) {
+			vertexCount = points.size();
+			coordinates = new double[2 * (vertexCount + 3)];
+			
+			// every insertion adds two triangles to the super triangle
+			int maxTriangles = 2 * vertexCount + 1;
+			triangles = new int[3 * maxTriangles];
+			halfedges = new int[3 * maxTriangles];
+			
+			double minX = Double.MAX_VALUE;
+			double minY = Double.MAX_VALUE;
+			double maxX = -Double.MAX_VALUE;
+			double maxY = -Double.MAX_VALUE;
+			for (int i = 0; i < vertexCount; i++) {
+				Point p = points.get(i);
+				coordinates[2 * i] = p.x;
+				coordinates[2 * i + 1] = p.y;
+				minX = Math.min(minX, p.x);
+				minY = Math.min(minY, p.y);
+				maxX = Math.max(maxX, p.x);
+				maxY = Math.max(maxY, p.y);
+			}
+			if (vertexCount == 0) {
+				minX = minY = maxX = maxY = 0;
+			}
+			
+			// make a counterclockwise super triangle well outside of the bounding box
+			double size = Math.max(Math.max(maxX - minX, maxY - minY), 1);
+			double midX = (minX + maxX) / 2;
+			double midY = (minY + maxY) / 2;
+			setVertex(vertexCount, midX - SUPER_TRIANGLE_SCALE * size, midY - size);
+			setVertex(vertexCount + 1, midX + SUPER_TRIANGLE_SCALE * size, midY - size);
+			setVertex(vertexCount + 2, midX, midY + SUPER_TRIANGLE_SCALE * size);
+			lastTriangle = addTriangle(vertexCount, vertexCount + 1, vertexCount + 2) / 3;
+		}
+
+		/**
+		 * Inserts a vertex, splitting the triangle or edge it lands on and flipping 
+		 * edges until the triangulation is Delaunay again
+		 * @param vertex The vertex to insert
+		 */
+		void insert(int vertex) {
+			double x = coordinates[2 * vertex];
+			double y = coordinates[2 * vertex + 1];
+			
+			int triangle = locate(x, y);
+			if (triangle == -1) {
+				return;
+			}
+			
+			// check if the vertex is on one of the triangle's edges
+			int onEdge = -1;
+			int edgesTouched = 0;
+			for (int e = 3 * triangle; e < 3 * triangle + 3; e++) {
+				if (orientation(triangles[e], triangles[CompactTriangulation.next(e)], x, y) == 0) {
+					onEdge = e;
+					edgesTouched++;
+				}
+			}
+			
+			// on two edges means it is a duplicate of one of the corners
+			if (edgesTouched > 1) {
+				return;
+			}
+			
+			if (onEdge == -1) {
+				splitTriangle(triangle, vertex);
+			} else {
+				splitEdge(onEdge, vertex);
+			}
+			
+			legalize();
+		}
+
+		/**
+		 * Walks from the last triangle created to the one containing the location
+		 * @return The triangle containing the location or -1 if it couldn't be found
+		 */
+		private int locate(double x, double y) {
+			int triangle = lastTriangle;
+			
+			for (int step = 0; step <= triangleCount; step++) {
+				int next = -1;
+				
+				// rotate the first edge checked so degenerate walks don't cycle
+				for (int i = 0; i < 3 && next == -1; i++) {
+					int e = 3 * triangle + (i + step) % 3;
+					if (orientation(triangles[e], triangles[CompactTriangulation.next(e)], x, y) < 0) {
+						next = halfedges[e] == -1 ? -2 : halfedges[e] / 3;
+					}
+				}
+				
+				if (next == -1) {
+					return triangle;
+				}
+				if (next == -2) {
+					break;
+				}
+				triangle = next;
+			}
+			
+			// the walk failed, check every triangle
+			for (int t = 0; t < triangleCount; t++) {
+				boolean inside = true;
+				for (int e = 3 * t; e < 3 * t + 3 && inside; e++) {
+					inside = orientation(triangles[e], triangles[CompactTriangulation.next(e)], x, y) >= 0;
+				}
+				if (inside) {
+					return t;
+				}
+			}
+			
+			return -1;
+		}
+
+		/**
+		 * Splits a triangle into three around the new vertex
+		 * @param triangle The triangle containing the vertex
+		 * @param p The new vertex
+		 */
+		private void splitTriangle(int triangle, int p) {
+			int e0 = 3 * triangle;
+			int e1 = e0 + 1;
+			int e2 = e0 + 2;
+			int a = triangles[e0];
+			int b = triangles[e1];
+			int c = triangles[e2];
+			int twinB = halfedges[e1];
+			int twinC = halfedges[e2];
+			
+			// the old triangle becomes a, b, p and two new ones are added
+			triangles[e2] = p;
+			int u = addTriangle(b, c, p);
+			int v = addTriangle(c, a, p);
+			
+			link(u, twinB);
+			link(v, twinC);
+			link(e1, u + 2);
+			link(u + 1, v + 2);
+			link(v + 1, e2);
+			
+			pushEdge(e0);
+			pushEdge(u);
+			pushEdge(v);
+			lastTriangle = triangle;
+		}
+
+		/**
+		 * Splits the two triangles on either side of an edge into four around the new vertex
+		 * @param e The half-edge the vertex is on
+		 * @param p The new vertex
+		 */
+		private void splitEdge(int e, int p) {
+			int e1 = CompactTriangulation.next(e);
+			int e2 = CompactTriangulation.prev(e);
+			int a = triangles[e];
+			int b = triangles[e1];
+			int c = triangles[e2];
+			int twinE2 = halfedges[e2];
+			int f = halfedges[e];
+			
+			// this side becomes p, b, c and a, p, c
+			triangles[e] = p;
+			int n = addTriangle(a, p, c);
+			link(e2, n + 1);
+			link(n + 2, twinE2);
+			pushEdge(e1);
+			pushEdge(n + 2);
+			
+			if (f == -1) {
+				halfedges[e] = -1;
+				halfedges[n] = -1;
+			} else {
+				int f1 = CompactTriangulation.next(f);
+				int f2 = CompactTriangulation.prev(f);
+				int d = triangles[f2];
+				int twinF2 = halfedges[f2];
+				
+				// the other side becomes p, a, d and b, p, d
+				triangles[f] = p;
+				triangles[f1] = a;
+				int m = addTriangle(b, p, d);
+				link(e, m);
+				link(n, f);
+				link(f2, m + 1);
+				link(m + 2, twinF2);
+				pushEdge(f1);
+				pushEdge(m + 2);
+			}
+			
+			lastTriangle = e / 3;
+		}
+
+		/**
+		 * Flips edges off of the stack until every one of them passes the Delaunay check.
+		 * Every half-edge on the stack is opposite of the newly inserted vertex.
+		 */
+		private void legalize() {
+			while (edgeStackSize > 0) {
+				int e = edgeStack[--edgeStackSize];
+				int f = halfedges[e];
+				if (f == -1) {
+					continue;
+				}
+				
+				int e1 = CompactTriangulation.next(e);
+				int e2 = CompactTriangulation.prev(e);
+				int f1 = CompactTriangulation.next(f);
+				int f2 = CompactTriangulation.prev(f);
+				int a = triangles[e];
+				int b = triangles[e1];
+				int p = triangles[e2];
+				int d = triangles[f2];
+				
+				if (isIllegal(a, b, p, d)) {
+					int twinE1 = halfedges[e1];
+					int twinF1 = halfedges[f1];
+					int twinF2 = halfedges[f2];
+					
+					// a, b, p and b, a, d become a, d, p and p, d, b
+					triangles[e1] = d;
+					triangles[f] = p;
+					triangles[f1] = d;
+					triangles[f2] = b;
+					link(e, twinF1);
+					link(e1, f);
+					link(f1, twinF2);
+					link(f2, twinE1);
+					
+					pushEdge(e);
+					pushEdge(f1);
+				}
+			}
+		}
+
+		/**
+		 * Checks if the edge a, b between the triangles a, b, p and b, a, d has to be
+		 * flipped.  The super triangle's vertices are treated as if they were infinitely
+		 * far away, so they are never inside of a real triangle's circle, and the circle 
+		 * of a triangle with one of them is the half-plane on its side of the other two.
+		 * Otherwise triangles on the hull that have huge circles would lose to the super
+		 * triangle.
+		 * @param p The newly inserted vertex, never part of the super triangle
+		 * @return True if d is inside the circle of a, b, p
+		 */
+		private boolean isIllegal(int a, int b, int p, int d) {
+			if (a < vertexCount && b < vertexCount) {
+				return d < vertexCount && inCircle(a, b, p, d) > 0;
+			}
+			
+			// the flip has to leave both of the new triangles counterclockwise
+			if (a >= vertexCount) {
+				return orientation(b, p, coordinates[2 * d], coordinates[2 * d + 1]) > 0 
+						&& orientation(a, d, coordinates[2 * p], coordinates[2 * p + 1]) > 0;
+			}
+			return orientation(p, a, coordinates[2 * d], coordinates[2 * d + 1]) > 0 
+					&& orientation(p, d, coordinates[2 * b], coordinates[2 * b + 1]) > 0;
+		}
+
+		/**
+		 * Drops the triangles touching the super triangle and packs the rest into a 
+		 * <code>CompactTriangulation</code>
+		 * @param points The <code>Point</code>s that were triangulated
+		 * @return The finished triangulation
+		 */
+		CompactTriangulation build(List<Point> points) {
+			int[] newIndex = new int[triangleCount];
+			int kept = 0;
+			for (int t = 0; t < triangleCount; t++) {
+				int e = 3 * t;
+				if (triangles[e] < vertexCount && triangles[e + 1] < vertexCount && triangles[e + 2] < vertexCount) {
+					newIndex[t] = kept++;
+				} else {
+					newIndex[t] = -1;
+				}
+			}
+			
+			int[] keptTriangles = new int[3 * kept];
+			int[] keptHalfedges = new int[3 * kept];
+			for (int t = 0; t < triangleCount; t++) {
+				if (newIndex[t] == -1) {
+					continue;
+				}
+				for (int i = 0; i < 3; i++) {
+					int e = 3 * t + i;
+					int twin = halfedges[e];
+					int ne = 3 * newIndex[t] + i;
+					keptTriangles[ne] = triangles[e];
+					if (twin == -1 || newIndex[twin / 3] == -1) {
+						keptHalfedges[ne] = -1;
+					} else {
+						keptHalfedges[ne] = 3 * newIndex[twin / 3] + twin % 3;
+					}
+				}
+			}
+			
+			return new CompactTriangulation(points, Arrays.copyOf(coordinates, 2 * vertexCount), 
+					keptTriangles, keptHalfedges);
+		}
+
+		/**
+		 * Adds a triangle with no neighbors
+		 * @return The triangle's first half-edge
+		 */
+		private int addTriangle(int a, int b, int c) {
+			int e = 3 * triangleCount++;
+			triangles[e] = a;
+			triangles[e + 1] = b;
+			triangles[e + 2] = c;
+			halfedges[e] = -1;
+			halfedges[e + 1] = -1;
+			halfedges[e + 2] = -1;
+			return e;
+		}
+
+		/**
+		 * Makes two half-edges twins of each other
+		 */
+		private void link(int a, int b) {
+			halfedges[a] = b;
+			if (b != -1) {
+				halfedges[b] = a;
+			}
+		}
+
+		/**
+		 * Adds a half-edge to be checked by <code>legalize</code>
+		 */
+		private void pushEdge(int e) {
+			if (edgeStackSize == edgeStack.length) {
+				edgeStack = Arrays.copyOf(edgeStack, 2 * edgeStack.length);
+			}
+			edgeStack[edgeStackSize++] = e;
+		}
+
+		private void setVertex(int vertex, double x, double y) {
+			coordinates[2 * vertex] = x;
+			coordinates[2 * vertex + 1] = y;
+		}
+
+		private double orientation(int a, int b, double x, double y) {
+			return GeometricPredicates.orient2d(coordinates[2 * a], coordinates[2 * a + 1], 
+					coordinates[2 * b], coordinates[2 * b + 1], x, y);
+		}
+
+		private double inCircle(int a, int b, int c, int d) {
+			return GeometricPredicates.incircle(coordinates[2 * a], coordinates[2 * a + 1], 
+					coordinates[2 * b], coordinates[2 * b + 1], 
+					coordinates[2 * c], coordinates[2 * c + 1], 
+					coordinates[2 * d], coordinates[2 * d + 1]);
+		}
+		
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.factory.DelaunayModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.CompactTriangulation;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.util.MathUtil;
+
+/**
+ * Turns a <code>CompactTriangulation</code> into a <code>PanGraph</code> the first 
+ * time object access is needed.  Until then only the primitive arrays are held.
+ */
+public class CompactPanGraphAdapter<R extends Triangle, S extends Arc, T extends Node> {
+
+	/**
+	 * The triangulation to convert
+	 */
+	private final CompactTriangulation triangulation;
+	
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private final DelaunayModelFactory<R, S, T> modelFactory;
+	
+	/**
+	 * The converted graph, null until it is first asked for
+	 */
+	private PanGraph<Triangle, Arc, Node> graph;
+
+	/**
+	 * Creates a new <code>CompactPanGraphAdapter</code>
+	 * @param triangulation The triangulation to convert
+	 * @param modelFactory Used to create new instances of the model objects
+	 */
+	public CompactPanGraphAdapter(CompactTriangulation triangulation, DelaunayModelFactory<R, S, T> modelFactory) {
+		this.triangulation = triangulation;
+		this.modelFactory = modelFactory;
+	}
+
+	/**
+	 * Get the compact triangulation
+	 * @return The compact triangulation
+	 */
+	public CompactTriangulation getTriangulation() {
+		return triangulation;
+	}
+
+	/**
+	 * Get the triangulation as a <code>PanGraph</code>, building it on the first call
+	 * @return The <code>PanGraph</code> of the triangulation
+	 */
+	public synchronized PanGraph<Triangle, Arc, Node> getPanGraph() {
+		if (graph == null) {
+			graph = createPanGraph();
+		}
+		return graph;
+	}
+
+	/**
+	 * Creates the <code>Node</code>s, <code>Arc</code>s and triangles along with all
+	 * of the "handshakes" between them
+	 * @return The new <code>PanGraph</code>
+	 */
+	private PanGraph<Triangle, Arc, Node> createPanGraph() {
+		PanGraph<Triangle, Arc, Node> graph = new PanGraph<Triangle, Arc, Node>();
+		
+		List<Point> points = triangulation.getPoints();
+		int[] vertices = triangulation.getTriangles();
+		int[] halfedges = triangulation.getHalfedges();
+		
+		// add the nodes that are used by a triangle, skipping duplicates that were dropped
+		boolean[] used = new boolean[triangulation.getVertexCount()];
+		for (int vertex : vertices) {
+			used[vertex] = true;
+		}
+		Node[] nodes = new Node[used.length];
+		for (int i = 0; i < used.length; i++) {
+			if (used[i]) {
+				nodes[i] = modelFactory.node(points.get(i));
+				graph.addNode(nodes[i]);
+			}
+		}
+		
+		// add one arc for each pair of twin half-edges
+		Arc[] arcs = new Arc[vertices.length];
+		for (int e = 0; e < vertices.length; e++) {
+			int twin = halfedges[e];
+			if (twin == -1 || e < twin) {
+				Node one = nodes[vertices[e]];
+				Node two = nodes[vertices[CompactTriangulation.next(e)]];
+				Arc arc = modelFactory.arc(one, two);
+				graph.addArc(arc);
+				
+				// make the handshake with the new arc
+				one.addAdjacentNode(two);
+				two.addAdjacentNode(one);
+				one.addProtrudingArc(arc);
+				two.addProtrudingArc(arc);
+				
+				arcs[e] = arc;
+				if (twin != -1) {
+					arcs[twin] = arc;
+				}
+			}
+		}
+		
+		// add the triangles
+		Triangle[] triangles = new Triangle[triangulation.getTriangleCount()];
+		for (int t = 0; t < triangles.length; t++) {
+			Triangle triangle = modelFactory.polygon();
+			graph.addPolygon(triangle);
+			triangles[t] = triangle;
+			
+			// make the handshake with the new polygon
+			for (int e = 3 * t; e < 3 * t + 3; e++) {
+				Node node = nodes[vertices[e]];
+				triangle.addCorner(node);
+				node.addTouchingPolygon(triangle);
+				
+				triangle.addBorder(arcs[e]);
+				arcs[e].addBorderingPolygon(triangle);
+			}
+			
+			MathUtil.updateCircumCircle(triangle);
+		}
+		
+		// now that all the triangles exist, connect the neighbors
+		for (int e = 0; e < vertices.length; e++) {
+			int twin = halfedges[e];
+			if (twin != -1) {
+				triangles[e / 3].addNeighboringPolygon(triangles[twin / 3]);
+			}
+		}
+		
+		return graph;
+	}
+	
+}
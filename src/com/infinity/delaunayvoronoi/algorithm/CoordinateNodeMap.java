@@ -0,0 +1,240 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.Arrays;
+
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.Point;
+
+/**
+ * Maps locations to the <code>Node</code> at that location.  <code>Point</code> uses
+ * identity for equality, so this map keys on the coordinates themselves, which makes
+ * two <code>Point</code>s at the same location find the same <code>Node</code>.  The
+ * keys are kept in plain arrays with open addressing so a lookup never allocates.
+ * <p>
+ * With a snapping tolerance the coordinates are rounded to a grid of that size
+ * first, so locations that round to the same grid point share a <code>Node</code>.
+ */
+class CoordinateNodeMap {
+
+	/**
+	 * How many slots a new map starts with, always a power of two
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The x key of each slot
+	 */
+	private long[] xKeys;
+
+	/**
+	 * The y key of each slot
+	 */
+	private long[] yKeys;
+
+	/**
+	 * The <code>Node</code> in each slot, null if the slot is empty
+	 */
+	private Node[] nodes;
+
+	/**
+	 * Used to wrap an index around the slots
+	 */
+	private int mask;
+
+	/**
+	 * How many slots hold a <code>Node</code>
+	 */
+	private int size;
+
+	/**
+	 * The size of the grid the coordinates are rounded to, zero to use them exactly
+	 */
+	private double tolerance;
+
+	/**
+	 * Creates an empty map that uses the coordinates exactly
+	 */
+	CoordinateNodeMap() {
+		xKeys = new long[INITIAL_CAPACITY];
+		yKeys = new long[INITIAL_CAPACITY];
+		nodes = new Node[INITIAL_CAPACITY];
+		mask = INITIAL_CAPACITY - 1;
+	}
+
+	/**
+	 * Set the size of the grid the coordinates are rounded to
+	 * @param tolerance The grid size, zero to use the coordinates exactly
+	 */
+	void setTolerance(double tolerance) {
+		if (size > 0 && tolerance != this.tolerance) {
+			throw new IllegalStateException("The tolerance can only be changed while the map is empty");
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Get the <code>Node</code> at the <code>Point</code>'s location
+	 * @param point The location to look up
+	 * @return The <code>Node</code> or null if there isn't one at the location
+	 */
+	Node get(Point point) {
+		return get(key(point.x), key(point.y));
+	}
+
+	/**
+	 * Get the <code>Node</code> at the <code>Point</code>'s location or at a location next
+	 * to it on the grid.  Two copies of one location worked out in different ways can
+	 * round to neighboring grid points, this finds either copy from the other.
+	 * @param point The location to look up
+	 * @return The <code>Node</code> or null if there isn't one at or next to the location
+	 */
+	Node getNear(Point point) {
+		long x = key(point.x);
+		long y = key(point.y);
+		Node node = get(x, y);
+		if (tolerance > 0) {
+			for (int i = 0; node == null && i < 9; i++) {
+				node = i == 4 ? null : get(x + i / 3 - 1, y + i % 3 - 1);
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Puts the <code>Node</code> at the <code>Point</code>'s location
+	 * @param point The location of the <code>Node</code>
+	 * @param node The <code>Node</code> to store
+	 * @return The <code>Node</code> that was at the location before or null
+	 */
+	Node put(Point point, Node node) {
+		long x = key(point.x);
+		long y = key(point.y);
+		int i = slot(x, y);
+		for (; nodes[i] != null; i = (i + 1) & mask) {
+			if (xKeys[i] == x && yKeys[i] == y) {
+				Node previous = nodes[i];
+				nodes[i] = node;
+				return previous;
+			}
+		}
+		xKeys[i] = x;
+		yKeys[i] = y;
+		nodes[i] = node;
+		if (++size * 2 > nodes.length) {
+			grow();
+		}
+		return null;
+	}
+
+	/**
+	 * Takes whatever <code>Node</code> is at the <code>Point</code>'s location out of the map
+	 * @param point The location to clear
+	 * @return The <code>Node</code> that was removed or null
+	 */
+	Node remove(Point point) {
+		long x = key(point.x);
+		long y = key(point.y);
+		int hole = slot(x, y);
+		while (nodes[hole] != null && (xKeys[hole] != x || yKeys[hole] != y)) {
+			hole = (hole + 1) & mask;
+		}
+		Node removed = nodes[hole];
+		if (removed == null) {
+			return null;
+		}
+
+		// shift later entries back so no lookup runs into the hole before its entry
+		for (int i = (hole + 1) & mask; nodes[i] != null; i = (i + 1) & mask) {
+			int home = slot(xKeys[i], yKeys[i]);
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				xKeys[hole] = xKeys[i];
+				yKeys[hole] = yKeys[i];
+				nodes[hole] = nodes[i];
+				hole = i;
+			}
+		}
+		nodes[hole] = null;
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Get how many locations have a <code>Node</code>
+	 * @return The number of <code>Node</code>s in the map
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Takes everything out of the map but keeps its slots for the next run,
+	 * and goes back to using the coordinates exactly
+	 */
+	void clear() {
+		if (size > 0) {
+			Arrays.fill(nodes, null);
+			size = 0;
+		}
+		tolerance = 0;
+	}
+
+	/**
+	 * Turns a coordinate into its key, the raw bits or the rounded grid index
+	 */
+	private long key(double value) {
+		if (tolerance > 0) {
+			return Math.round(value / tolerance);
+		}
+		// adding zero turns -0.0 into 0.0 so both have the same bits
+		return Double.doubleToLongBits(value + 0.0);
+	}
+
+	/**
+	 * Get the <code>Node</code> stored under the keys
+	 */
+	private Node get(long x, long y) {
+		for (int i = slot(x, y); nodes[i] != null; i = (i + 1) & mask) {
+			if (xKeys[i] == x && yKeys[i] == y) {
+				return nodes[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the first slot to look in for the keys
+	 */
+	private int slot(long x, long y) {
+		long hash = x * 0x9E3779B97F4A7C15L + y;
+		hash ^= hash >>> 32;
+		hash *= 0xD6E8FEB86659FD93L;
+		hash ^= hash >>> 32;
+		return (int) hash & mask;
+	}
+
+	/**
+	 * Doubles the number of slots and puts every entry back
+	 */
+	private void grow() {
+		long[] oldX = xKeys;
+		long[] oldY = yKeys;
+		Node[] oldNodes = nodes;
+		int capacity = oldNodes.length * 2;
+		xKeys = new long[capacity];
+		yKeys = new long[capacity];
+		nodes = new Node[capacity];
+		mask = capacity - 1;
+		for (int j = 0; j < oldNodes.length; j++) {
+			if (oldNodes[j] != null) {
+				int i = slot(oldX[j], oldY[j]);
+				while (nodes[i] != null) {
+					i = (i + 1) & mask;
+				}
+				xKeys[i] = oldX[j];
+				yKeys[i] = oldY[j];
+				nodes[i] = oldNodes[j];
+			}
+		}
+	}
+
+}
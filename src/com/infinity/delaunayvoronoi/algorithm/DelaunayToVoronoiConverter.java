@@ -0,0 +1,261 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.infinity.delaunayvoronoi.factory.BaseModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Polygon;
+import com.infinity.delaunayvoronoi.model.Triangle;
+
+/**
+ * Creates the Voronoi <code>PanGraph</code> of a Delaunay triangulation that was already
+ * built, without sweeping the <code>Point</code>s again.  The two are duals of each other:
+ * each triangle's circumcenter becomes a <code>Node</code>, each <code>Arc</code> shared by
+ * two triangles becomes an <code>Arc</code> between their circumcenters, and each
+ * <code>Node</code> of the triangulation becomes the <code>Polygon</code> of its cell.
+ * <p>
+ * The cells of <code>Node</code>s on the hull of the triangulation reach out forever, so
+ * they are left open: they only have the corners and <code>Arc</code>s that come from
+ * triangles, and their corners run clockwise from one end of the hull to the other.
+ * Every other cell is closed and its corners run clockwise around it.
+ */
+public class DelaunayToVoronoiConverter<R extends Polygon, S extends Arc, T extends Node> {
+
+	/**
+	 * How close, relative to the size of the triangulation, two circumcenters are before they are one <code>Node</code>
+	 */
+	private static final double CORNER_TOLERANCE = 1e-9;
+
+	/**
+	 * Whether the corners of the cells are gathered in parallel
+	 */
+	private final boolean parallel;
+
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private BaseModelFactory<R, S, T> modelFactory;
+
+	/**
+	 * Creates a converter that does all the work on the calling thread
+	 */
+	public DelaunayToVoronoiConverter() {
+		this(false);
+	}
+
+	/**
+	 * Creates a converter
+	 * @param parallel True to gather the corners of the cells in parallel
+	 */
+	public DelaunayToVoronoiConverter(boolean parallel) {
+		this.parallel = parallel;
+		this.modelFactory = new BaseModelFactory<R, S, T>();
+	}
+
+	/**
+	 * Set the model factory that is used to create the <code>Polygon</code>s, <code>Arc</code>s and <code>Node</code>s.
+	 * It is only ever called from the thread doing the conversion.
+	 * @param modelFactory The model factory to use
+	 */
+	public void setModelFactory(BaseModelFactory<R, S, T> modelFactory) {
+		this.modelFactory = modelFactory;
+	}
+
+	/**
+	 * Creates the Voronoi cells of the triangulation's <code>Node</code>s.  Only a <code>Node</code>
+	 * that a triangle in the graph touches gets a cell, which leaves out the corners of the super
+	 * triangle that <code>DelaunayTriangulation</code> keeps, and the cells are in the same order
+	 * as their <code>Node</code>s.  <code>DelaunayTriangulation</code> adds the super triangle's
+	 * <code>Node</code>s after all the others, so the cell of each of the others is at the same
+	 * index in the new graph's <code>Polygon</code>s as its <code>Node</code>.
+	 * The triangulation is only read, so it can still be used afterwards.
+	 * @param delaunay A Delaunay triangulation
+	 * @return The <code>PanGraph</code> of the Voronoi cells
+	 */
+	public PanGraph<Polygon, Arc, Node> convert(final PanGraph<Triangle, Arc, Node> delaunay) {
+		PanGraph<Polygon, Arc, Node> graph = new PanGraph<Polygon, Arc, Node>();
+		List<Triangle> triangles = delaunay.getPolygons();
+
+		// one cell for each site a triangle touches, the super triangle's corners don't have any
+		final List<Node> sites = new ArrayList<Node>(delaunay.getNodes().size());
+		int[] siteCells = new int[delaunay.getNodes().size()];
+		for (int i = 0; i < siteCells.length; i++) {
+			Node node = delaunay.getNodes().get(i);
+			siteCells[i] = -1;
+			for (Polygon polygon : node.getTouchingPolygons()) {
+				if (delaunay.indexOfPolygon((Triangle) polygon) >= 0) {
+					siteCells[i] = sites.size();
+					sites.add(node);
+					break;
+				}
+			}
+		}
+		final Polygon[] cells = new Polygon[sites.size()];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = modelFactory.polygon();
+			graph.addPolygon(cells[i]);
+		}
+
+		// one corner for each circumcenter, the triangles of sites on one circle share theirs
+		CoordinateNodeMap centers = new CoordinateNodeMap();
+		centers.setTolerance(CORNER_TOLERANCE * getSize(sites));
+		final Node[] corners = new Node[triangles.size()];
+		for (int i = 0; i < corners.length; i++) {
+			Triangle triangle = triangles.get(i);
+			Point center = new Point(triangle.getCircumCircleX(), triangle.getCircumCircleY());
+			Node corner = centers.get(center);
+			if (corner == null) {
+				corner = modelFactory.node(center);
+				centers.put(center, corner);
+				graph.addNode(corner);
+			}
+			corners[i] = corner;
+		}
+
+		// one arc across each arc shared by two triangles, between the cells of its end points
+		for (Arc shared : delaunay.getArcs()) {
+			List<Polygon> sides = shared.getBorderingPolygons();
+			if (sides.size() != 2) {
+				continue;
+			}
+			int first = delaunay.indexOfPolygon((Triangle) sides.get(0));
+			int second = delaunay.indexOfPolygon((Triangle) sides.get(1));
+			if (first < 0 || second < 0 || corners[first] == corners[second]) {
+				// a side that was taken out of the graph, like one touching the super 
+				// triangle, is not there, and sites on one circle leave arcs with no length
+				continue;
+			}
+			Node one = corners[first];
+			Node two = corners[second];
+
+			Arc arc = modelFactory.arc(one, two);
+			graph.addArc(arc);
+			one.addProtrudingArc(arc);
+			two.addProtrudingArc(arc);
+			one.addAdjacentNode(two);
+			two.addAdjacentNode(one);
+
+			Polygon left = cells[siteCells[delaunay.indexOfNode(shared.getEndPoints().get(0))]];
+			Polygon right = cells[siteCells[delaunay.indexOfNode(shared.getEndPoints().get(1))]];
+			left.addBorder(arc);
+			arc.addBorderingPolygon(left);
+			right.addBorder(arc);
+			arc.addBorderingPolygon(right);
+			left.addNeighboringPolygon(right);
+			right.addNeighboringPolygon(left);
+		}
+
+		// walking around each site only reads the triangulation, so the sites can be done at once
+		final List<List<Node>> cellCorners = new ArrayList<List<Node>>(Collections.<List<Node>>nCopies(cells.length, null));
+		IntStream walks = IntStream.range(0, cells.length);
+		if (parallel) {
+			walks = walks.parallel();
+		}
+		walks.forEach(i -> cellCorners.set(i, getCellCorners(delaunay, sites.get(i), corners)));
+
+		for (int i = 0; i < cells.length; i++) {
+			for (Node corner : cellCorners.get(i)) {
+				cells[i].addCorner(corner);
+				corner.addTouchingPolygon(cells[i]);
+			}
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Walks clockwise through the triangles around a site, picking up their circumcenters
+	 * @param delaunay The triangulation
+	 * @param site The site of the cell
+	 * @param corners The circumcenter of each triangle in the triangulation
+	 * @return The corners of the site's cell in clockwise order
+	 */
+	private List<Node> getCellCorners(PanGraph<Triangle, Arc, Node> delaunay, Node site, Node[] corners) {
+		List<Node> cellCorners = new ArrayList<Node>();
+		Triangle first = null;
+		for (Polygon polygon : site.getTouchingPolygons()) {
+			if (delaunay.indexOfPolygon((Triangle) polygon) >= 0) {
+				first = (Triangle) polygon;
+				break;
+			}
+		}
+		if (first == null) {
+			return cellCorners;
+		}
+
+		Triangle triangle = first;
+		do {
+			addCorner(cellCorners, corners[delaunay.indexOfPolygon(triangle)]);
+			triangle = getNextAround(delaunay, triangle, site, 2);
+		} while (triangle != null && triangle != first);
+
+		if (triangle == null) {
+			// the site is on the hull, so pick up the triangles the other way from the first one
+			List<Node> before = new ArrayList<Node>();
+			for (triangle = getNextAround(delaunay, first, site, 1); triangle != null; triangle = getNextAround(delaunay, triangle, site, 1)) {
+				addCorner(before, corners[delaunay.indexOfPolygon(triangle)]);
+			}
+			Collections.reverse(before);
+			if (!before.isEmpty() && before.get(before.size() - 1) == cellCorners.get(0)) {
+				before.remove(before.size() - 1);
+			}
+			before.addAll(cellCorners);
+			cellCorners = before;
+		} else if (cellCorners.size() > 1 && cellCorners.get(cellCorners.size() - 1) == cellCorners.get(0)) {
+			cellCorners.remove(cellCorners.size() - 1);
+		}
+		return cellCorners;
+	}
+
+	/**
+	 * Get the triangle on the other side of one of the triangle's arcs that touch the site.
+	 * The corners are counterclockwise, so going across from the corner two slots on from
+	 * the site turns clockwise around it, and one slot on turns counterclockwise.
+	 * @param delaunay The triangulation
+	 * @param triangle The triangle to move from
+	 * @param site A corner of the triangle
+	 * @param offset 2 to turn clockwise, 1 to turn counterclockwise
+	 * @return The next triangle around the site, or null if the arc is on the hull
+	 */
+	private static Triangle getNextAround(PanGraph<Triangle, Arc, Node> delaunay, Triangle triangle, Node site, int offset) {
+		Triangle neighbor = (Triangle) triangle.getNeighbor((triangle.indexOf(site) + offset) % 3);
+		if (neighbor == null || delaunay.indexOfPolygon(neighbor) < 0) {
+			return null;
+		}
+		return neighbor;
+	}
+
+	/**
+	 * Adds the corner unless it is the same as the last one, which happens when sites are on one circle
+	 */
+	private static void addCorner(List<Node> cellCorners, Node corner) {
+		if (cellCorners.isEmpty() || cellCorners.get(cellCorners.size() - 1) != corner) {
+			cellCorners.add(corner);
+		}
+	}
+
+	/**
+	 * Get the larger of the width and height of the area the <code>Node</code>s cover
+	 */
+	private static double getSize(List<Node> nodes) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (Node node : nodes) {
+			Point point = node.getPoint();
+			minX = Math.min(minX, point.x);
+			minY = Math.min(minY, point.y);
+			maxX = Math.max(maxX, point.x);
+			maxY = Math.max(maxY, point.y);
+		}
+		return nodes.isEmpty() ? 0 : Math.max(maxX - minX, maxY - minY);
+	}
+
+}
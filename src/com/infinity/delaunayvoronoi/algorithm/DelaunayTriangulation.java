@@ -1,38 +1,69 @@
 package com.infinity.delaunayvoronoi.algorithm;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
+import com.infinity.delaunayvoronoi.algorithm.order.InsertionOrder;
 import com.infinity.delaunayvoronoi.factory.DelaunayModelFactory;
 import com.infinity.delaunayvoronoi.model.Arc;
-import com.infinity.delaunayvoronoi.model.Circle;
 import com.infinity.delaunayvoronoi.model.Node;
 import com.infinity.delaunayvoronoi.model.PanGraph;
 import com.infinity.delaunayvoronoi.model.Point;
 import com.infinity.delaunayvoronoi.model.Polygon;
 import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
 import com.infinity.delaunayvoronoi.util.MathUtil;
 
 /**
  * Creates a <code>PanGraph</code> that represents Delaunay triangles.
  * See http://paulbourke.net/papers/triangulate/ for the algorithm used.
+ * Everything a run works on lives in a <code>TriangulationContext</code>,
+ * so one instance can be shared by many threads once it is configured.
  * 
  * @author jeffreyrichley
  */
 public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends Node> implements PanGraphFactory<Triangle, Arc, Node> {
 	
 	/**
-	 * Used to speed up the finding of <code>Node</code>s that represent a given <code>Point</code>
+	 * How much of the circumradius, per unit of thinness, is added around a stored 
+	 * circumcircle, rounding up the 39 * <code>EPSILON</code> worked out in 
+	 * <code>pointInCircumCircle</code>
 	 */
-	private Map<Point, Node> pointsToNodes = new HashMap<Point, Node>();
-
+	private static final double CIRCLE_ERROR = 64 * GeometricPredicates.EPSILON;
+	
+	/**
+	 * The thinnest a triangle can be and still have its stored circumcircle checked, past 
+	 * this the error bound no longer holds and only the exact test is used
+	 */
+	private static final double MAX_THINNESS = 1 / (256 * GeometricPredicates.EPSILON);
+	
 	/**
 	 * Used to create new instances of the model objects
 	 */
 	private DelaunayModelFactory<R, S, T> modelFactory;
 	
+	/**
+	 * Whether the cavity for each new <code>Point</code> is found by walking the triangulation
+	 */
+	private boolean walkingSearch = false;
+	
+	/**
+	 * Decides the order the <code>Point</code>s are inserted, null keeps the caller's order
+	 */
+	private InsertionOrder insertionOrder;
+	
+	/**
+	 * Whether the lists that are only read by consumers are filled in after the run 
+	 * instead of being kept up to date during it
+	 */
+	private boolean lazyTopology = false;
+	
+	/**
+	 * The size of the grid input locations are rounded to when looking for
+	 * <code>Point</code>s at the same location, zero to compare them exactly
+	 */
+	private double snapTolerance = 0;
+	
 	/**
 	 * Sets up the algorithm's initial needs
 	 */
@@ -45,9 +76,30 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 	 */
 	@Override
 	public PanGraph<Triangle, Arc, Node> createPanGraph(List<Point> points) {
-		List<Point> vertexList = new ArrayList<Point>(points);
+		List<Point> vertexList;
+		if (insertionOrder == null) {
+			vertexList = new ArrayList<Point>(points);
+		} else {
+			vertexList = insertionOrder.order(points);
+		}
 		
 		PanGraph<Triangle, Arc, Node> graph = new PanGraph<Triangle, Arc, Node>();
+		TriangulationContext context = TriangulationContext.acquire(graph);
+		context.lazyTopology = lazyTopology;
+		context.pointsToNodes.setTolerance(snapTolerance);
+		
+		// give each location its node up front, dropping any later point at a location 
+		// already taken since it would only be a duplicate node in the triangulation
+		List<Point> uniquePoints = new ArrayList<Point>(vertexList.size());
+		for (Point point : vertexList) {
+			if (context.pointsToNodes.get(point) == null) {
+				Node node = modelFactory.node(point);
+				context.pointsToNodes.put(point, node);
+				graph.addNode(node);
+				uniquePoints.add(point);
+			}
+		}
+		vertexList = uniquePoints;
 		
 		// determine the super triangle
 		List<Point> superTriangleNodes = findSuperTriangleNodes(vertexList);
@@ -56,54 +108,34 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 		// TODO: don't think we need to do this, blows up if we actually do it
 //		vertexList.addAll(superTriangleNodes);
 		
-		// add the super triangle to the triangle list
-		addTriangleToGraph(graph, superTriangleNodes.get(0), 
-								  superTriangleNodes.get(1), 
-								  superTriangleNodes.get(2));
-		
-		// for each sample point in the vertex list
-		for (Point point : vertexList) {
-			// initialize the edge buffer
-			List<Arc> edgeBuffer = new ArrayList<>();
+		try {
+			// add the super triangle to the triangle list
+			context.lastTriangle = addTriangleToGraph(context, superTriangleNodes.get(0), 
+									  superTriangleNodes.get(1), 
+									  superTriangleNodes.get(2));
 			
-			// for each triangle currently in the triangle list
-			List<Polygon> tmpPolygons = new ArrayList<Polygon>(graph.getPolygons());
-			for (Polygon polygon : tmpPolygons) {
-				Triangle triangle = (Triangle) polygon;
-				// calculate the triangle circumcircle center and radius - previously calculated
-				
-				// if the point lies in the triangle circumcircle then
-				if (pointInCircumCircle(point, triangle)) {
-					// add the three triangle edges to the edge buffer
-					edgeBuffer.addAll(triangle.getBorders());
-					
-					// remove the triangle from the triangle list
-					removeTriangleFromGraph(graph, triangle);
+			// for each sample point in the vertex list
+			for (Point point : vertexList) {
+				// find the triangles whose circumcircle contains the point
+				List<Triangle> cavity = null;
+				if (walkingSearch) {
+					cavity = findCavityByWalking(context, point);
 				}
-			}
-			
-			// delete all doubly specified edges from the edge buffer
-	        // this leaves the edges of the enclosing polygon only
-			List<Arc> removedEdges = new ArrayList<Arc>();
-			for (int i = 0; i < edgeBuffer.size() - 1; i++) {
-				for (int j = i + 1; j < edgeBuffer.size(); j++) {
-					Arc e1 = edgeBuffer.get(i);
-					Arc e2 = edgeBuffer.get(j);
-					if (e1.equals(e2)) {
-						removedEdges.add(e1);
-						removedEdges.add(e2);
-					}
+				if (cavity == null) {
+					cavity = findCavityByScanning(context, graph.getPolygons(), point);
+				}
+				
+				Triangle newTriangle = retriangulateCavity(context, point, cavity);
+				if (newTriangle != null) {
+					context.lastTriangle = newTriangle;
 				}
 			}
-			edgeBuffer.removeAll(removedEdges);
 			
-			// add to the triangle list all triangles formed between the point 
-	        // and the edges of the enclosing polygon
-			for (Arc edge : edgeBuffer) {
-				Point p2 = edge.getEndPoints().get(0).getPoint();
-				Point p3 = edge.getEndPoints().get(1).getPoint();
-				addTriangleToGraph(graph, point, p2, p3);
+			if (lazyTopology) {
+				completeTopology(graph);
 			}
+		} finally {
+			context.release();
 		}
 		
 		// remove any triangles from the triangle list that use the super triangle vertices
@@ -124,46 +156,284 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 		return graph;
 	}
 
+	/**
+	 * Finds the triangles whose circumcircle contains the <code>Point</code> by
+	 * checking every triangle currently in the graph
+	 * @param context The run's state, its cavity list is reused for the answer
+	 * @param triangles The triangles to check
+	 * @param point The <code>Point</code> being inserted
+	 * @return The triangles whose circumcircle contains the <code>Point</code>
+	 */
+	List<Triangle> findCavityByScanning(TriangulationContext context, List<? extends Polygon> triangles, Point point) {
+		List<Triangle> cavity = context.cavity;
+		cavity.clear();
+		
+		// for each triangle currently in the triangle list
+		for (Polygon polygon : triangles) {
+			Triangle triangle = (Triangle) polygon;
+			// calculate the triangle circumcircle center and radius - previously calculated
+			
+			// if the point lies in the triangle circumcircle then
+			if (pointInCircumCircle(point, triangle)) {
+				cavity.add(triangle);
+			}
+		}
+		
+		return cavity;
+	}
+
+	/**
+	 * Finds the triangles whose circumcircle contains the <code>Point</code> by walking
+	 * from the starting triangle to the one that contains the <code>Point</code> and then
+	 * growing the cavity outwards through the neighbors that are also in conflict.
+	 * Only the triangles around the <code>Point</code> are touched.
+	 * @param context The run's state, the walk starts from its last triangle
+	 * @param point The <code>Point</code> being inserted
+	 * @return The triangles whose circumcircle contains the <code>Point</code> or null if 
+	 * the walk left the triangulation and the graph needs to be scanned instead
+	 */
+	private List<Triangle> findCavityByWalking(TriangulationContext context, Point point) {
+		Triangle seed = locateTriangle(point, context.lastTriangle, context.graph.getPolygons().size());
+		if (seed == null) {
+			return null;
+		}
+		if (!pointInCircumCircle(point, seed)) {
+			if (isRedundant(point, seed)) {
+				context.cavity.clear();
+				return context.cavity;
+			}
+			return null;
+		}
+		
+		return growCavity(context, point, seed);
+	}
+
+	/**
+	 * Determines if the <code>Point</code> stays out of the triangulation because the 
+	 * triangle containing it isn't in conflict with it.  A <code>Point</code> is always
+	 * in its own triangle's circumcircle, so a miss only means the walk landed on the
+	 * wrong side of an edge and the graph should be scanned.
+	 * @param point The <code>Point</code> being inserted
+	 * @param seed The triangle the walk found the <code>Point</code> in
+	 * @return True if no triangle can be in conflict with the <code>Point</code>
+	 */
+	boolean isRedundant(Point point, Triangle seed) {
+		return false;
+	}
+
+	/**
+	 * Grows the cavity outwards from a triangle whose circumcircle contains the 
+	 * <code>Point</code> through the neighbors that are also in conflict
+	 * @param context The run's state, its cavity list is reused for the answer
+	 * @param point The <code>Point</code> being inserted
+	 * @param seed A triangle whose circumcircle contains the <code>Point</code>
+	 * @return The triangles whose circumcircle contains the <code>Point</code>
+	 */
+	List<Triangle> growCavity(TriangulationContext context, Point point, Triangle seed) {
+		// breadth first search over the neighbors, the cavity doubles as the queue
+		List<Triangle> cavity = context.cavity;
+		long visit = context.nextVisit();
+		cavity.clear();
+		cavity.add(seed);
+		seed.markVisited(visit);
+		for (int i = 0; i < cavity.size(); i++) {
+			for (Arc arc : cavity.get(i).getBorders()) {
+				for (Polygon polygon : arc.getBorderingPolygons()) {
+					Triangle neighbor = (Triangle) polygon;
+					if (neighbor.markVisited(visit) && pointInCircumCircle(point, neighbor)) {
+						cavity.add(neighbor);
+					}
+				}
+			}
+		}
+		
+		return cavity;
+	}
+
+	/**
+	 * Walks across the triangulation from the starting triangle towards the 
+	 * <code>Point</code> until the triangle containing it is found
+	 * @param point The <code>Point</code> to find the containing triangle for
+	 * @param start The triangle to start walking from
+	 * @param maxSteps The most triangles to visit before giving up
+	 * @return The triangle containing the <code>Point</code> or null if the walk left the triangulation
+	 */
+	Triangle locateTriangle(Point point, Triangle start, int maxSteps) {
+		Triangle triangle = start;
+		
+		for (int step = 0; step <= maxSteps; step++) {
+			List<Arc> borders = triangle.getBorders();
+			Triangle next = null;
+			boolean crossed = false;
+			
+			// rotate the first border checked so degenerate walks don't cycle
+			for (int i = 0; i < borders.size() && !crossed; i++) {
+				Arc arc = borders.get((i + step) % borders.size());
+				Point a = arc.getEndPoints().get(0).getPoint();
+				Point b = arc.getEndPoints().get(1).getPoint();
+				Point opposite = getOppositeCorner(triangle, arc).getPoint();
+				
+				// step over the border if the point is on the other side of it
+				if (Math.signum(GeometricPredicates.orient2d(a, b, point)) * Math.signum(GeometricPredicates.orient2d(a, b, opposite)) < 0) {
+					crossed = true;
+					for (Polygon polygon : arc.getBorderingPolygons()) {
+						if (polygon != triangle) {
+							next = (Triangle) polygon;
+						}
+					}
+				}
+			}
+			
+			if (!crossed) {
+				return triangle;
+			}
+			if (next == null) {
+				// walked off the edge of the triangulation
+				return null;
+			}
+			triangle = next;
+		}
+		
+		return null;
+	}
+
+	/**
+	 * Get the corner of the triangle that isn't an end point of the <code>Arc</code>
+	 * @param triangle The triangle to get the corner from
+	 * @param arc One of the triangle's borders
+	 * @return The corner opposite of the <code>Arc</code>
+	 */
+	Node getOppositeCorner(Triangle triangle, Arc arc) {
+		for (Node node : triangle.getCorners()) {
+			if (!arc.getEndPoints().contains(node)) {
+				return node;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the cavity's triangles from the graph and fills the hole with
+	 * triangles between the <code>Point</code> and the edges of the enclosing polygon
+	 * @param context The run's state
+	 * @param point The <code>Point</code> being inserted
+	 * @param cavity The triangles whose circumcircle contains the <code>Point</code>
+	 * @return The last triangle created or null if the cavity was empty
+	 */
+	Triangle retriangulateCavity(TriangulationContext context, Point point, List<Triangle> cavity) {
+		// initialize the edge buffer
+		List<Arc> edgeBuffer = context.edgeBuffer;
+		edgeBuffer.clear();
+		
+		for (Triangle triangle : cavity) {
+			// add the three triangle edges to the edge buffer
+			edgeBuffer.addAll(triangle.getBorders());
+			
+			// remove the triangle from the triangle list
+			removeTriangleFromGraph(context, triangle);
+		}
+		
+		// delete all doubly specified edges from the edge buffer
+		// this leaves the edges of the enclosing polygon only
+		List<Arc> removedEdges = new ArrayList<Arc>();
+		for (int i = 0; i < edgeBuffer.size() - 1; i++) {
+			for (int j = i + 1; j < edgeBuffer.size(); j++) {
+				Arc e1 = edgeBuffer.get(i);
+				Arc e2 = edgeBuffer.get(j);
+				if (e1.equals(e2)) {
+					removedEdges.add(e1);
+					removedEdges.add(e2);
+				}
+			}
+		}
+		edgeBuffer.removeAll(removedEdges);
+		
+		// add to the triangle list all triangles formed between the point 
+		// and the edges of the enclosing polygon
+		Triangle lastTriangle = null;
+		for (Arc edge : edgeBuffer) {
+			Point p2 = edge.getEndPoints().get(0).getPoint();
+			Point p3 = edge.getEndPoints().get(1).getPoint();
+			lastTriangle = addTriangleToGraph(context, point, p2, p3);
+		}
+		edgeBuffer.clear();
+		
+		recycleFreed(context);
+		
+		return lastTriangle;
+	}
+
+	/**
+	 * Hands the triangles and <code>Arc</code>s removed since the last call back to 
+	 * the model factory.  Waits until the cavity is filled because the edge buffer
+	 * can still read the end points of a dead <code>Arc</code> on the hull.
+	 * @param context The run's state holding what was removed
+	 */
+	void recycleFreed(TriangulationContext context) {
+		for (Triangle triangle : context.freedTriangles) {
+			modelFactory.recyclePolygon(triangle);
+		}
+		for (Arc arc : context.freedArcs) {
+			modelFactory.recycleArc(arc);
+		}
+		context.freedTriangles.clear();
+		context.freedArcs.clear();
+	}
+
 	/**
 	 * Determines if the <code>Point</code> is in the triangle's circumcircle
 	 * @param point The location to check if it is in the circumcircle
 	 * @param triangle The <code>Polygon</code> that is the triangle
-	 * @return The radius of the triangle's circumcircle
+	 * @return True if the <code>Point</code> is strictly inside the triangle's circumcircle
 	 */
-	private boolean pointInCircumCircle(Point point, Triangle triangle) {
-		double dx, dy, rsqr, drsqr;
-
+	boolean pointInCircumCircle(Point point, Triangle triangle) {
 		List<Node> corners = triangle.getCorners();
 		Point p1 = corners.get(0).getPoint();
 		Point p2 = corners.get(1).getPoint();
 		Point p3 = corners.get(2).getPoint();
 		
-		// check if it is in the triangle's bounding box
-		double circumRadius = triangle.getCircumCircleRadius();
-		Point circumCenter = triangle.getCircumCircleCenter();
-		double x = point.x;
-		double y = point.y;
-		double left = circumCenter.x - circumRadius;
-		double right = circumCenter.x + circumRadius;
-		double top = circumCenter.y - circumRadius;
-		double bottom = circumCenter.y + circumRadius;
-		if (x < left || x > right || y < top || y > bottom) {
-			return false;
+		// check it against the stored circle from updateCircumCircle, which is only approximate.
+		// With e = EPSILON, R the true radius, r the stored one, c the stored center, and the
+		// thinness t = (|p1p2|^2 + |p1p3|^2) / |twice the area| from the same differences,
+		// which is never below 2:
+		//  - following the rounding of updateCircumCircle through, the center's offset from
+		//    p1 is within 9 * e * t * R + e * R of the true one along each axis, so within
+		//    d = (13 * e * t + 2 * e) * R overall, and r is within d of R
+		//  - adding p1 back moves the stored center by at most e * |c| more
+		//  - while t is at most MAX_THINNESS, d is at most R / 19, so a point inside the 
+		//    true circle is within r * (1 + 28 * e * t + 5 * e) + e * |c| of c
+		//  - squaring (a + b)^2 <= (1 + s) * a^2 + (1 + 1 / s) * b^2 with s = 8 * e * t turns
+		//    that into r^2 * (1 + 33 * e * t + 5 * e)^2 + e * |c|^2 / (7 * t)
+		//  - rounding this check itself adds under 7 * e to the first factor, and 6 * e * t 
+		//    is more than that, so r^2 * (1 + CIRCLE_ERROR * t)^2 + e * |c|^2 / (4 * t) is 
+		//    never less than the distance from c to a point inside
+		// A flatter triangle goes straight to the exact test, as does a collinear one, whose
+		// stored circle is not a number.
+		double dx = p2.x - p1.x;
+		double dy = p2.y - p1.y;
+		double ex = p3.x - p1.x;
+		double ey = p3.y - p1.y;
+		double thinness = (dx * dx + dy * dy + ex * ex + ey * ey) / Math.abs(dx * ey - dy * ex);
+		if (thinness <= MAX_THINNESS) {
+			double grow = 1 + CIRCLE_ERROR * thinness;
+			double centerX = triangle.getCircumCircleX();
+			double centerY = triangle.getCircumCircleY();
+			double reach = triangle.getCircumCircleRadiusSquared() * grow * grow 
+					+ GeometricPredicates.EPSILON * (centerX * centerX + centerY * centerY) / (4 * thinness);
+			if (MathUtil.calculateDistanceSquared(point.x, point.y, centerX, centerY) > reach) {
+				return false;
+			}
 		}
 
-		/* Check for coincident points */
-		if (Math.abs(p1.y - p2.y) < MathUtil.EPSILON && 
-			Math.abs(p2.y - p3.y) < MathUtil.EPSILON) {
+		// collinear corners don't have a circle to be inside of
+		double orientation = GeometricPredicates.orient2d(p1, p2, p3);
+		if (orientation == 0) {
 			return false;
 		}
 		
-		rsqr = circumRadius * circumRadius;
-
-		dx = point.x - circumCenter.x;
-		dy = point.y - circumCenter.y;
-		drsqr = dx * dx + dy * dy;
-
-		return drsqr <= rsqr;
+		// the corners can be in either order, so flip the answer for clockwise ones
+		double incircle = GeometricPredicates.incircle(p1, p2, p3, point);
+		return orientation > 0 ? incircle > 0 : incircle < 0;
 	}
 
 	/**
@@ -171,21 +441,30 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 	 * undoes all of the handshakes between the <code>Polygon</code>s, 
 	 * <code>Arc</code>s, and <code>Node</code>s.
 	 * 
-	 * @param graph The <code>PanGraph</code> to remove the triangle from
+	 * @param context The run's state holding the <code>PanGraph</code> to remove the triangle from
 	 * @param triangle The <code>Polygon</code> to remove from the graph
 	 */
-	private void removeTriangleFromGraph(PanGraph<Triangle, Arc, Node> graph, Triangle triangle) {
+	void removeTriangleFromGraph(TriangulationContext context, Triangle triangle) {
+		PanGraph<Triangle, Arc, Node> graph = context.graph;
+		
 		// remove the triangle from the graph
 		graph.removePolygon(triangle);
 		
+		// unwire the triangle from its neighbors
+		for (Polygon neighbor : triangle.getNeighbors()) {
+			neighbor.removeNeighboringPolygon(triangle);
+		}
+		
 		// unwire the triangle's edges
 		for (Arc arc : triangle.getBorders()) {
 			arc.removeBorderingPolygon(triangle);
 		}
 		
 		// unwire the triangle's nodes
-		for (Node node : triangle.getCorners()) {
-			node.removeTouchingPolygon(triangle);
+		if (!context.lazyTopology) {
+			for (Node node : triangle.getCorners()) {
+				node.removeTouchingPolygon(triangle);
+			}
 		}
 
 		// remove dead arcs
@@ -199,20 +478,27 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 			graph.removeArc(arc);
 			// unwire polygons - done previously
 			// unwire nodes
-			for (Node node : arc.getEndPoints()) {
-				node.removeArc(arc);
-			}
+			Node one = arc.getEndPoints().get(0);
+			Node two = arc.getEndPoints().get(1);
+			one.removeArc(arc);
+			two.removeArc(arc);
+			one.removeAdjacentNode(two);
+			two.removeAdjacentNode(one);
+			context.freedArcs.add(arc);
 		}
+		context.freedTriangles.add(triangle);
 		
-		// remove dead nodes
+		// remove dead nodes, a node without arcs has no triangles either
 		List<Node> deadNodes = new ArrayList<Node>();
 		for (Node node : triangle.getCorners()) {
-			if (node.getTouchingPolygons().isEmpty()) {
+			boolean dead = context.lazyTopology ? node.getProtrudingArcs().isEmpty() : node.getTouchingPolygons().isEmpty();
+			if (dead) {
 				deadNodes.add(node);
 			}
 		}
 		for (Node node : deadNodes) {
 			graph.removeNode(node);
+			context.pointsToNodes.remove(node.getPoint());
 			// unwire polygons - done previously
 			// unwire arcs
 			// TODO: not sure if we need to unwire the arcs and nodes
@@ -227,17 +513,20 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 	 * <code>Arc</code>s, and a <code>Polygon</code> along with all of the 
 	 * "handshakes" needed to keep the <code>PanGraph</code> in sync with 
 	 * all of its components.
-	 * @param graph The <code>PanGraph</code> to add the information to
+	 * @param context The run's state holding the <code>PanGraph</code> to add the information to
 	 * @param points The <code>Point</code>s to create the information from
+	 * @return The newly created triangle
 	 */
-	private void addTriangleToGraph(PanGraph<Triangle, Arc, Node> graph, Point... points) {
+	Triangle addTriangleToGraph(TriangulationContext context, Point... points) {
+		PanGraph<Triangle, Arc, Node> graph = context.graph;
+		
 		// add all the nodes
 		List<Node> nodes = new ArrayList<Node>();
 		for (Point p : points) {
-			Node n = pointsToNodes.get(p);
+			Node n = context.pointsToNodes.get(p);
 			if (n == null) {
 				n = modelFactory.node(p);
-				pointsToNodes.put(p, n);
+				context.pointsToNodes.put(p, n);
 				graph.addNode(n);
 			}
 			nodes.add(n);
@@ -265,8 +554,10 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 					graph.addArc(edge);
 					
 					// make the handshake with the new arc
-					one.addAdjacentNode(two);
-					two.addAdjacentNode(one);
+					if (!context.lazyTopology) {
+						one.addAdjacentNode(two);
+						two.addAdjacentNode(one);
+					}
 					one.addProtrudingArc(edge);
 					two.addProtrudingArc(edge);
 				}
@@ -278,25 +569,94 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 		Triangle triangle = modelFactory.polygon();
 		graph.addPolygon(triangle);
 		
-		// make the handshake with the new polygon
+		// make the handshake with the new polygon, corners first so 
+		// a triangle can put each border and neighbor in its slot
+		for (Node node : nodes) {
+			triangle.addCorner(node);
+			if (!context.lazyTopology) {
+				node.addTouchingPolygon(triangle);
+			}
+		}
 		for (Arc arc : edges) {
 			triangle.addBorder(arc);
 			// before we connect the arc to polygon, 
 			// get its other bordering polygon
-			// and set it as a neighbor
-			for (Polygon p : arc.getBorderingPolygons()) {
-				triangle.addNeighboringPolygon(p);
+			// and set them as each other's neighbor
+			if (!context.lazyTopology) {
+				for (Polygon p : arc.getBorderingPolygons()) {
+					triangle.addNeighboringPolygon(p);
+					p.addNeighboringPolygon(triangle);
+				}
 			}
 			arc.addBorderingPolygon(triangle);
 		}
-		for (Node node : nodes) {
-			triangle.addCorner(node);
-			node.addTouchingPolygon(triangle);
-		}
 		
-		Circle circumCircle = MathUtil.calculateCircumCircle(triangle);
-		triangle.setCircumCircleCenter(circumCircle.getCenter());
-		triangle.setCircumCircleRadius(circumCircle.getRadius());
+		updateCircumCircle(triangle);
+		
+		return triangle;
+	}
+
+	/**
+	 * Fills in the touching <code>Polygon</code>s and adjacent <code>Node</code>s of every
+	 * <code>Node</code> and the neighbors of every triangle in one pass over the graph, 
+	 * for runs that skipped them while building.  Each <code>Node</code>'s lists are filled
+	 * in the order of the graph's triangles and arcs, so they hold what a run that kept them
+	 * up to date would, but not necessarily in the same order.
+	 * @param graph The finished <code>PanGraph</code>, still holding the super triangle
+	 */
+	private void completeTopology(PanGraph<Triangle, Arc, Node> graph) {
+		for (Triangle triangle : graph.getPolygons()) {
+			for (Node node : triangle.getCorners()) {
+				node.addTouchingPolygon(triangle);
+			}
+		}
+		for (Arc arc : graph.getArcs()) {
+			Node one = arc.getEndPoints().get(0);
+			Node two = arc.getEndPoints().get(1);
+			one.addAdjacentNode(two);
+			two.addAdjacentNode(one);
+			
+			List<Polygon> sides = arc.getBorderingPolygons();
+			if (sides.size() == 2) {
+				sides.get(0).addNeighboringPolygon(sides.get(1));
+				sides.get(1).addNeighboringPolygon(sides.get(0));
+			}
+		}
+	}
+
+	/**
+	 * Calculates and stores the triangle's circumcircle
+	 * @param triangle The triangle whose corners were set or moved
+	 */
+	void updateCircumCircle(Triangle triangle) {
+		MathUtil.updateCircumCircle(triangle);
+	}
+
+	/**
+	 * Adds a <code>Node</code> that isn't wired into anything yet so the next 
+	 * triangles made at its <code>Point</code> use it instead of a new one
+	 * @param context The run's state holding the <code>PanGraph</code> to add the <code>Node</code> to
+	 * @param node The <code>Node</code> to add
+	 */
+	void addNode(TriangulationContext context, Node node) {
+		context.pointsToNodes.put(node.getPoint(), node);
+		context.graph.addNode(node);
+	}
+
+	/**
+	 * Gives the <code>Node</code> a new location without changing any of its
+	 * connections and updates the circumcircles of its triangles
+	 * @param context The run's state
+	 * @param node The <code>Node</code> to move
+	 * @param point The new location
+	 */
+	void moveNode(TriangulationContext context, Node node, Point point) {
+		context.pointsToNodes.remove(node.getPoint());
+		node.setPoint(point);
+		context.pointsToNodes.put(point, node);
+		for (Polygon polygon : node.getTouchingPolygons()) {
+			updateCircumCircle((Triangle) polygon);
+		}
 	}
 
 	/**
@@ -304,7 +664,7 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 	 * @param points The <code>List</code> of <code>Point</code>s to find a super triangle for
 	 * @return The <code>List</code> of <code>Point</code>s for the edges of the super triangle
 	 */
-	private List<Point> findSuperTriangleNodes(List<Point> points) {
+	List<Point> findSuperTriangleNodes(List<Point> points) {
 		// find the minimum and maximum x and y value
 		double minX = Double.MAX_VALUE;
 		double minY = Double.MAX_VALUE;
@@ -319,22 +679,80 @@ public class DelaunayTriangulation<R extends Triangle, S extends Arc, T extends
 		}
 		
 		// now that we have the minimum and maximum x and y,
-		// we can make the bounding triangle's corners.  Take
-		// the minimums and go a bit more negative and the 
-		// maximums and double them.
+		// we can make the bounding triangle's corners.  Pad
+		// the box a bit and stretch the legs to three times
+		// its size so the hypotenuse stays clear of the far corner.
 		minX -= 10;
 		minY -= 10;
-		maxX *= 2;
-		maxY *= 2;
+		maxX += 10;
+		maxY += 10;
+		double width = maxX - minX;
+		double height = maxY - minY;
 		List<Point> corners = new ArrayList<Point>();
 		
 		corners.add(new Point(minX, minY));
-		corners.add(new Point(minX, maxY));
-		corners.add(new Point(maxX, minY));
+		corners.add(new Point(minX, minY + 3 * height));
+		corners.add(new Point(minX + 3 * width, minY));
 		
 		return corners;
 	}
 
+	/**
+	 * Get the <code>Node</code> that was created for a <code>Point</code>
+	 * @param context The run's state
+	 * @param point The <code>Point</code> that was added
+	 * @return The <code>Node</code> for the <code>Point</code> or null if it isn't in the graph
+	 */
+	Node getNode(TriangulationContext context, Point point) {
+		return context.pointsToNodes.get(point);
+	}
+
+	/**
+	 * Turns on walking to the triangle that contains each new <code>Point</code> and
+	 * growing the cavity through its neighbors instead of checking every triangle in
+	 * the graph.  The resulting <code>PanGraph</code> is the same either way.
+	 * @param walkingSearch True to walk to the cavity, false to scan every triangle
+	 */
+	public void setWalkingSearch(boolean walkingSearch) {
+		this.walkingSearch = walkingSearch;
+	}
+
+	/**
+	 * Set the size of the grid input locations are rounded to when finding <code>Point</code>s
+	 * at the same location.  Only the first <code>Point</code> at each rounded location is
+	 * triangulated, the rest share its <code>Node</code>.
+	 * @param snapTolerance The grid size, zero to only merge <code>Point</code>s with exactly the same coordinates
+	 */
+	public void setSnapTolerance(double snapTolerance) {
+		if (!(snapTolerance >= 0)) {
+			throw new IllegalArgumentException("The snap tolerance can't be negative: " + snapTolerance);
+		}
+		this.snapTolerance = snapTolerance;
+	}
+
+	/**
+	 * Turns on skipping the <code>Node</code>s' touching <code>Polygon</code>s and adjacent
+	 * <code>Node</code>s and the triangles' neighbors while building.  Most triangles are
+	 * torn down again by a later cavity, so the lists are only filled in once at the end
+	 * of the run.  The resulting <code>PanGraph</code> holds the same triangles, arcs, and
+	 * <code>Node</code>s either way, and each triangle's neighbors stay in their slots, but a 
+	 * <code>Node</code>'s touching <code>Polygon</code>s and adjacent <code>Node</code>s come
+	 * out in graph order rather than the order they were made in.
+	 * @param lazyTopology True to fill in the lists after the run, false to keep them up to date
+	 */
+	public void setLazyTopology(boolean lazyTopology) {
+		this.lazyTopology = lazyTopology;
+	}
+
+	/**
+	 * Sets the order the <code>Point</code>s are inserted in.  A spatially coherent
+	 * order keeps the walks from <code>setWalkingSearch</code> short.
+	 * @param insertionOrder The order to insert the <code>Point</code>s in, null keeps the caller's order
+	 */
+	public void setInsertionOrder(InsertionOrder insertionOrder) {
+		this.insertionOrder = insertionOrder;
+	}
+
 	/**
 	 * Used to inject a factory that creates custom model instances
 	 * @param modelFactory A custom factory to use for creating model instances
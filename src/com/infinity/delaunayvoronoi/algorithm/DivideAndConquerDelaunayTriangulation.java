@@ -0,0 +1,438 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import com.infinity.delaunayvoronoi.algorithm.delaunay.QuadEdge;
+import com.infinity.delaunayvoronoi.factory.DelaunayModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.CompactTriangulation;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
+
+/**
+ * Creates a <code>PanGraph</code> that represents Delaunay triangles using the 
+ * Guibas-Stolfi divide and conquer algorithm.  The <code>Point</code>s are sorted, 
+ * split in half, each half is triangulated and the two are merged.  This is 
+ * O(n log n) in the worst case and the halves are independent, so they are 
+ * triangulated in parallel on a <code>ForkJoinPool</code> before each merge.
+ */
+public class DivideAndConquerDelaunayTriangulation<R extends Triangle, S extends Arc, T extends Node> implements PanGraphFactory<Triangle, Arc, Node> {
+
+	/**
+	 * Halves smaller than this are triangulated on the current thread
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private DelaunayModelFactory<R, S, T> modelFactory;
+	
+	/**
+	 * Runs the halves in parallel, null to run everything on the calling thread
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Sets up the algorithm to run on the common <code>ForkJoinPool</code>
+	 */
+	public DivideAndConquerDelaunayTriangulation() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Sets up the algorithm's initial needs
+	 * @param pool Runs the halves in parallel, null to run everything on the calling thread
+	 */
+	public DivideAndConquerDelaunayTriangulation(ForkJoinPool pool) {
+		this.pool = pool;
+		this.modelFactory = new DelaunayModelFactory<R, S, T>();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.PanGraphFactory#createPanGraph(java.util.List)
+	 */
+	@Override
+	public PanGraph<Triangle, Arc, Node> createPanGraph(List<Point> points) {
+		return new CompactPanGraphAdapter<R, S, T>(createCompactTriangulation(points), modelFactory).getPanGraph();
+	}
+
+	/**
+	 * Triangulates the <code>Point</code>s into primitive arrays
+	 * @param points The <code>Point</code>s to triangulate
+	 * @return The compact triangulation, vertex i is <code>points.get(i)</code>
+	 */
+	public CompactTriangulation createCompactTriangulation(List<Point> points) {
+		final double[] coordinates = new double[2 * points.size()];
+		for (int i = 0; i < points.size(); i++) {
+			coordinates[2 * i] = points.get(i).x;
+			coordinates[2 * i + 1] = points.get(i).y;
+		}
+		
+		int[] sorted = sortUnique(coordinates);
+		if (sorted.length < 2) {
+			return new CompactTriangulation(points, coordinates, new int[0], new int[0]);
+		}
+		
+		Merge task = new Merge(coordinates, sorted, 0, sorted.length, pool != null);
+		QuadEdge[] hull = pool == null ? task.compute() : pool.invoke(task);
+		
+		return CompactTriangulation.fromTriangles(points, coordinates, collectTriangles(hull[0], coordinates));
+	}
+
+	/**
+	 * Sorts the vertices by x and then y, dropping duplicates.  The sort runs on the pool
+	 * when there is one and on the calling thread otherwise.
+	 * @param coordinates The x, y coordinates of each vertex
+	 * @return The sorted vertices
+	 */
+	private int[] sortUnique(double[] coordinates) {
+		int[] order = new int[coordinates.length / 2];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Sort task = new Sort(coordinates, order, new int[order.length], 0, order.length, pool != null);
+		if (pool == null) {
+			task.compute();
+		} else {
+			pool.invoke(task);
+		}
+		
+		int count = 0;
+		for (int vertex : order) {
+			if (count == 0 || coordinates[2 * vertex] != coordinates[2 * order[count - 1]] 
+					|| coordinates[2 * vertex + 1] != coordinates[2 * order[count - 1] + 1]) {
+				order[count++] = vertex;
+			}
+		}
+		return Arrays.copyOf(order, count);
+	}
+
+	/**
+	 * Walks every edge reachable from the starting edge and records each counterclockwise 
+	 * face with three edges as a triangle
+	 * @param start Any edge of the triangulation
+	 * @param coordinates The x, y coordinates of each vertex
+	 * @return The vertices of the triangles, three per triangle
+	 */
+	private int[] collectTriangles(QuadEdge start, double[] coordinates) {
+		// find all of the directed edges
+		List<QuadEdge> edges = new ArrayList<QuadEdge>();
+		List<QuadEdge> stack = new ArrayList<QuadEdge>();
+		stack.add(start);
+		while (!stack.isEmpty()) {
+			QuadEdge e = stack.remove(stack.size() - 1);
+			if (e.getMark() == 0) {
+				e.setMark(1);
+				edges.add(e);
+				stack.add(e.sym());
+				stack.add(e.onext());
+			}
+		}
+		
+		// each triangle is found from the first of its edges that is visited
+		int[] triangles = new int[3 * edges.size()];
+		int count = 0;
+		for (QuadEdge e : edges) {
+			if (e.getMark() != 1) {
+				continue;
+			}
+			QuadEdge e1 = e.lnext();
+			QuadEdge e2 = e1.lnext();
+			if (e2.lnext() == e && orientation(coordinates, e.origin(), e1.origin(), e2.origin()) > 0) {
+				e.setMark(2);
+				e1.setMark(2);
+				e2.setMark(2);
+				triangles[count++] = e.origin();
+				triangles[count++] = e1.origin();
+				triangles[count++] = e2.origin();
+			}
+		}
+		
+		return Arrays.copyOf(triangles, count);
+	}
+
+	private static int compare(double[] c, int a, int b) {
+		int answer = Double.compare(c[2 * a], c[2 * b]);
+		if (answer == 0) {
+			answer = Double.compare(c[2 * a + 1], c[2 * b + 1]);
+		}
+		return answer;
+	}
+
+	private static double orientation(double[] c, int a, int b, int d) {
+		return GeometricPredicates.orient2d(c[2 * a], c[2 * a + 1], c[2 * b], c[2 * b + 1], c[2 * d], c[2 * d + 1]);
+	}
+
+	private static double inCircle(double[] c, int a, int b, int d, int e) {
+		return GeometricPredicates.incircle(c[2 * a], c[2 * a + 1], c[2 * b], c[2 * b + 1], 
+				c[2 * d], c[2 * d + 1], c[2 * e], c[2 * e + 1]);
+	}
+
+	/**
+	 * Merge sorts a range of the vertices by x and then y, forking the left half off 
+	 * while the right half is sorted
+	 */
+	private static class Sort extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Ranges smaller than this are insertion sorted
+		 */
+		private static final int INSERTION_THRESHOLD = 32;
+
+		private final double[] coordinates;
+		
+		private final int[] order;
+		
+		private final int[] buffer;
+		
+		private final int from;
+		
+		private final int to;
+		
+		private final boolean parallel;
+
+		/**
+		 * Creates a new <code>Sort</code>
+		 * @param coordinates The x, y coordinates of each vertex
+		 * @param order The vertices to sort in place
+		 * @param buffer Scratch space the same length as the vertices
+		 * @param from The first vertex in the range, inclusive
+		 * @param to The last vertex in the range, exclusive
+		 * @param parallel True to fork the halves
+		 */
+		Sort(double[] coordinates, int[] order, int[] buffer, int from, int to, boolean parallel) {
+			this.coordinates = coordinates;
+			this.order = order;
+			this.buffer = buffer;
+			this.from = from;
+			this.to = to;
+			this.parallel = parallel;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			int size = to - from;
+			if (size < INSERTION_THRESHOLD) {
+				for (int i = from + 1; i < to; i++) {
+					int vertex = order[i];
+					int j = i;
+					while (j > from && compare(coordinates, order[j - 1], vertex) > 0) {
+						order[j] = order[j - 1];
+						j--;
+					}
+					order[j] = vertex;
+				}
+				return;
+			}
+			
+			int middle = from + size / 2;
+			Sort left = new Sort(coordinates, order, buffer, from, middle, parallel);
+			Sort right = new Sort(coordinates, order, buffer, middle, to, parallel);
+			if (parallel && size > SEQUENTIAL_THRESHOLD) {
+				left.fork();
+				right.compute();
+				left.join();
+			} else {
+				left.compute();
+				right.compute();
+			}
+			
+			if (compare(coordinates, order[middle - 1], order[middle]) <= 0) {
+				return;
+			}
+			System.arraycopy(order, from, buffer, from, size);
+			int i = from;
+			int j = middle;
+			for (int k = from; k < to; k++) {
+				if (j >= to || (i < middle && compare(coordinates, buffer[i], buffer[j]) <= 0)) {
+					order[k] = buffer[i++];
+				} else {
+					order[k] = buffer[j++];
+				}
+			}
+		}
+		
+	}
+
+	/**
+	 * Triangulates a range of the sorted vertices, forking the left half off while
+	 * the right half is triangulated and then merging the two
+	 */
+	private static class Merge extends RecursiveTask<QuadEdge[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] coordinates;
+		
+		private final int[] sorted;
+		
+		private final int from;
+		
+		private final int to;
+		
+		private final boolean parallel;
+
+		/**
+		 * Creates a new <code>Merge</code>
+		 * @param coordinates The x, y coordinates of each vertex
+		 * @param sorted The vertices sorted by x and then y
+		 * @param from The first vertex in the range, inclusive
+		 * @param to The last vertex in the range, exclusive
+		 * @param parallel True to fork the halves
+		 */
+		Merge(double[] coordinates, int[] sorted, int from, int to, boolean parallel) {
+			this.coordinates = coordinates;
+			this.sorted = sorted;
+			this.from = from;
+			this.to = to;
+			this.parallel = parallel;
+		}
+
+		/**
+		 * Triangulates the range
+		 * @return The counterclockwise convex hull edge out of the leftmost vertex and
+		 * the clockwise convex hull edge out of the rightmost vertex
+		 */
+		@Override
+		protected QuadEdge[] compute() {
+			int size = to - from;
+			if (size == 2) {
+				QuadEdge a = QuadEdge.makeEdge(sorted[from], sorted[from + 1]);
+				return new QuadEdge[] { a, a.sym() };
+			}
+			if (size == 3) {
+				return triangle(sorted[from], sorted[from + 1], sorted[from + 2]);
+			}
+			
+			int middle = from + size / 2;
+			Merge left = new Merge(coordinates, sorted, from, middle, parallel);
+			Merge right = new Merge(coordinates, sorted, middle, to, parallel);
+			QuadEdge[] leftHull;
+			QuadEdge[] rightHull;
+			if (parallel && size > SEQUENTIAL_THRESHOLD) {
+				left.fork();
+				rightHull = right.compute();
+				leftHull = left.join();
+			} else {
+				leftHull = left.compute();
+				rightHull = right.compute();
+			}
+			
+			return merge(leftHull[0], leftHull[1], rightHull[0], rightHull[1]);
+		}
+
+		/**
+		 * Triangulates three vertices
+		 * @return The hull edges out of the leftmost and rightmost vertices
+		 */
+		private QuadEdge[] triangle(int s1, int s2, int s3) {
+			QuadEdge a = QuadEdge.makeEdge(s1, s2);
+			QuadEdge b = QuadEdge.makeEdge(s2, s3);
+			QuadEdge.splice(a.sym(), b);
+			
+			double orientation = orientation(coordinates, s1, s2, s3);
+			if (orientation > 0) {
+				QuadEdge.connect(b, a);
+				return new QuadEdge[] { a, b.sym() };
+			} else if (orientation < 0) {
+				QuadEdge c = QuadEdge.connect(b, a);
+				return new QuadEdge[] { c.sym(), c };
+			}
+			
+			// the three are collinear
+			return new QuadEdge[] { a, b.sym() };
+		}
+
+		/**
+		 * Stitches the left and right triangulations together from the bottom up
+		 * @param ldo The counterclockwise hull edge out of the leftmost vertex on the left
+		 * @param ldi The clockwise hull edge out of the rightmost vertex on the left
+		 * @param rdi The counterclockwise hull edge out of the leftmost vertex on the right
+		 * @param rdo The clockwise hull edge out of the rightmost vertex on the right
+		 * @return The hull edges out of the leftmost and rightmost vertices of the union
+		 */
+		private QuadEdge[] merge(QuadEdge ldo, QuadEdge ldi, QuadEdge rdi, QuadEdge rdo) {
+			// find the lower common tangent of the two halves
+			while (true) {
+				if (leftOf(rdi.origin(), ldi)) {
+					ldi = ldi.lnext();
+				} else if (rightOf(ldi.origin(), rdi)) {
+					rdi = rdi.rprev();
+				} else {
+					break;
+				}
+			}
+			
+			QuadEdge basel = QuadEdge.connect(rdi.sym(), ldi);
+			if (ldi.origin() == ldo.origin()) {
+				ldo = basel.sym();
+			}
+			if (rdi.origin() == rdo.origin()) {
+				rdo = basel;
+			}
+			
+			// zip the halves together, adding one cross edge at a time
+			while (true) {
+				QuadEdge lcand = basel.sym().onext();
+				if (valid(lcand, basel)) {
+					while (inCircle(coordinates, basel.destination(), basel.origin(), lcand.destination(), lcand.onext().destination()) > 0) {
+						QuadEdge t = lcand.onext();
+						QuadEdge.deleteEdge(lcand);
+						lcand = t;
+					}
+				}
+				
+				QuadEdge rcand = basel.oprev();
+				if (valid(rcand, basel)) {
+					while (inCircle(coordinates, basel.destination(), basel.origin(), rcand.destination(), rcand.oprev().destination()) > 0) {
+						QuadEdge t = rcand.oprev();
+						QuadEdge.deleteEdge(rcand);
+						rcand = t;
+					}
+				}
+				
+				boolean leftValid = valid(lcand, basel);
+				boolean rightValid = valid(rcand, basel);
+				if (!leftValid && !rightValid) {
+					break;
+				}
+				
+				if (!leftValid || (rightValid && inCircle(coordinates, lcand.destination(), lcand.origin(), rcand.origin(), rcand.destination()) > 0)) {
+					basel = QuadEdge.connect(rcand, basel.sym());
+				} else {
+					basel = QuadEdge.connect(basel.sym(), lcand.sym());
+				}
+			}
+			
+			return new QuadEdge[] { ldo, rdo };
+		}
+
+		private boolean leftOf(int vertex, QuadEdge e) {
+			return orientation(coordinates, vertex, e.origin(), e.destination()) > 0;
+		}
+
+		private boolean rightOf(int vertex, QuadEdge e) {
+			return orientation(coordinates, vertex, e.destination(), e.origin()) > 0;
+		}
+
+		private boolean valid(QuadEdge e, QuadEdge basel) {
+			return rightOf(e.destination(), basel);
+		}
+		
+	}
+	
+}
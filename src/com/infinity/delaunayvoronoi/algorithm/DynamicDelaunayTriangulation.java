@@ -0,0 +1,660 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.infinity.delaunayvoronoi.factory.DelaunayModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Polygon;
+import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
+
+/**
+ * Keeps a <code>PanGraph</code> of Delaunay triangles up to date as <code>Point</code>s are
+ * inserted, removed, and moved.  Each change only touches the triangles around the
+ * <code>Point</code>: an insert walks to the containing triangle and re-triangulates the
+ * cavity like <code>DelaunayTriangulation</code>, a remove fills the hole left by the
+ * <code>Point</code>'s triangles by clipping Delaunay ears off of the surrounding polygon.
+ * <p>
+ * Everything lives inside a super triangle built around the bounds given at construction.
+ * The triangles, <code>Arc</code>s, and <code>Node</code>s that touch the super triangle stay
+ * wired together but are left out of the <code>PanGraph</code>'s lists, the same as the
+ * triangles <code>DelaunayTriangulation</code> drops at the end of a run.
+ */
+public class DynamicDelaunayTriangulation<R extends Triangle, S extends Arc, T extends Node> {
+
+	/**
+	 * Does the wiring of the triangles into the graph
+	 */
+	private DelaunayTriangulation<R, S, T> engine = new DelaunayTriangulation<R, S, T>();
+
+	/**
+	 * The triangulation being kept up to date
+	 */
+	private PanGraph<Triangle, Arc, Node> graph = new PanGraph<Triangle, Arc, Node>();
+
+	/**
+	 * The engine's state for the graph, kept for as long as the triangulation lives
+	 */
+	private TriangulationContext context = new TriangulationContext(graph);
+
+	/**
+	 * The corners of the super triangle, null until the first insert
+	 */
+	private List<Point> superPoints;
+
+	/**
+	 * The <code>Node</code>s currently standing for the super triangle's corners
+	 */
+	private Set<Node> superNodes;
+
+	/**
+	 * The triangles touching the super triangle, wired in but not in the graph
+	 */
+	private Set<Triangle> ghosts = new HashSet<Triangle>();
+
+	/**
+	 * Where the next walk starts from
+	 */
+	private Triangle lastTriangle;
+
+	/**
+	 * The smallest x value a <code>Point</code> may have
+	 */
+	private final double minX;
+
+	/**
+	 * The smallest y value a <code>Point</code> may have
+	 */
+	private final double minY;
+
+	/**
+	 * The largest x value a <code>Point</code> may have
+	 */
+	private final double maxX;
+
+	/**
+	 * The largest y value a <code>Point</code> may have
+	 */
+	private final double maxY;
+
+	/**
+	 * Sets up an empty triangulation for <code>Point</code>s inside the bounds
+	 * @param minX The smallest x value a <code>Point</code> may have
+	 * @param minY The smallest y value a <code>Point</code> may have
+	 * @param maxX The largest x value a <code>Point</code> may have
+	 * @param maxY The largest y value a <code>Point</code> may have
+	 */
+	public DynamicDelaunayTriangulation(double minX, double minY, double maxX, double maxY) {
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	/**
+	 * Adds the <code>Point</code> to the triangulation
+	 * @param point The <code>Point</code> to add, it must be inside the bounds
+	 * @return The <code>Node</code> for the <code>Point</code> or the existing
+	 * <code>Node</code> if one is already at the same location
+	 */
+	public Node insert(Point point) {
+		checkBounds(point.x, point.y);
+		if (superNodes == null) {
+			createSuperTriangle();
+		}
+
+		return place(point, null);
+	}
+
+	/**
+	 * Adds the <code>Point</code> to the triangulation
+	 * @param point The <code>Point</code> to add
+	 * @param reuse The unwired <code>Node</code> already at the <code>Point</code> or null to make a new one
+	 * @return The <code>Node</code> for the <code>Point</code> or the existing
+	 * <code>Node</code> if one is already at the same location
+	 */
+	private Node place(Point point, Node reuse) {
+		Node taken = engine.getNode(context, point);
+		if (taken != null) {
+			return taken;
+		}
+		
+		// walk to the triangle holding the point, scanning everything if the walk fails
+		Triangle seed = engine.locateTriangle(point, lastTriangle, graph.getPolygons().size() + ghosts.size());
+		if (seed != null) {
+			Node existing = findCorner(seed, point);
+			if (existing != null) {
+				return existing;
+			}
+		}
+
+		List<Triangle> cavity;
+		if (seed != null && engine.pointInCircumCircle(point, seed)) {
+			cavity = engine.growCavity(context, point, seed);
+		} else {
+			cavity = engine.findCavityByScanning(context, allTriangles(), point);
+			for (Triangle triangle : cavity) {
+				Node existing = findCorner(triangle, point);
+				if (existing != null) {
+					return existing;
+				}
+			}
+		}
+		if (cavity.isEmpty()) {
+			throw new IllegalStateException("Unable to find the triangles around (" + point.x + ", " + point.y + ")");
+		}
+
+		if (reuse != null) {
+			engine.addNode(context, reuse);
+		}
+		ghosts.removeAll(cavity);
+		lastTriangle = engine.retriangulateCavity(context, point, cavity);
+		refreshSuperNodes();
+
+		// the new triangles all touch the new node
+		Node node = engine.getNode(context, point);
+		for (Polygon polygon : node.getTouchingPolygons()) {
+			hideIfGhost((Triangle) polygon);
+		}
+		for (Arc arc : node.getProtrudingArcs()) {
+			hideIfGhost(arc);
+		}
+
+		return node;
+	}
+
+	/**
+	 * Takes the <code>Point</code> out of the triangulation
+	 * @param point The <code>Point</code> that was inserted
+	 * @return True if the <code>Point</code> was in the triangulation
+	 */
+	public boolean remove(Point point) {
+		Node node = engine.getNode(context, point);
+		if (node == null || superNodes.contains(node)) {
+			return false;
+		}
+
+		List<Node> link = findLink(node);
+
+		// take out the triangles around the node, this also drops the node and its arcs
+		List<Triangle> star = new ArrayList<Triangle>();
+		for (Polygon polygon : node.getTouchingPolygons()) {
+			star.add((Triangle) polygon);
+		}
+		for (Triangle triangle : star) {
+			engine.removeTriangleFromGraph(context, triangle);
+		}
+		ghosts.removeAll(star);
+
+		// fill the hole and hide whatever ended up touching the super triangle
+		List<Triangle> filling = new ArrayList<Triangle>();
+		for (Node[] ear : clipEars(link)) {
+			filling.add(engine.addTriangleToGraph(context, ear[0].getPoint(), ear[1].getPoint(), ear[2].getPoint()));
+		}
+		refreshSuperNodes();
+		for (Triangle triangle : filling) {
+			hideIfGhost(triangle);
+			for (Arc arc : triangle.getBorders()) {
+				hideIfGhost(arc);
+			}
+			lastTriangle = triangle;
+		}
+		engine.recycleFreed(context);
+
+		return true;
+	}
+
+	/**
+	 * Moves the <code>Point</code>'s <code>Node</code> to a new location.  If the location is still
+	 * inside the polygon around the <code>Node</code> it keeps its connections and edge flips fix
+	 * up the triangles, otherwise it is removed and inserted again.
+	 * @param point The <code>Point</code> that was inserted
+	 * @param x The new x value
+	 * @param y The new y value
+	 * @return The moved <code>Node</code>, the <code>Node</code> already at the new location, or
+	 * null if the <code>Point</code> wasn't in the triangulation
+	 */
+	public Node move(Point point, double x, double y) {
+		checkBounds(x, y);
+		Node node = getNode(point);
+		if (node == null) {
+			return null;
+		}
+
+		Point target = new Point(x, y);
+		if (staysInside(node, target)) {
+			engine.moveNode(context, node, target);
+			restoreDelaunay(node);
+			return node;
+		}
+		return relocate(node, target);
+	}
+
+	/**
+	 * Gives a batch of <code>Node</code>s new locations.  Each <code>Node</code> that stays inside 
+	 * the polygon around it keeps its connections and only the triangles around it are checked
+	 * and repaired with edge flips, the rest are removed and inserted again.  The new 
+	 * <code>Point</code>s become the <code>Node</code>s' points.
+	 * @param moves The new location for each <code>Node</code>
+	 * @return How much work the batch needed
+	 */
+	public KineticBatchResult update(Map<Node, Point> moves) {
+		for (Map.Entry<Node, Point> move : moves.entrySet()) {
+			Node node = move.getKey();
+			if (getNode(node.getPoint()) != node) {
+				throw new IllegalArgumentException("Node at (" + node.getPoint().x + ", " + node.getPoint().y + ") is not in the triangulation");
+			}
+			checkBounds(move.getValue().x, move.getValue().y);
+		}
+
+		int flips = 0;
+		int relocations = 0;
+		int merges = 0;
+		for (Map.Entry<Node, Point> move : moves.entrySet()) {
+			Node node = move.getKey();
+			Point target = move.getValue();
+			if (staysInside(node, target)) {
+				engine.moveNode(context, node, target);
+				flips += restoreDelaunay(node);
+			} else {
+				relocations++;
+				if (relocate(node, target) != node) {
+					merges++;
+				}
+			}
+		}
+
+		return new KineticBatchResult(moves.size(), flips, relocations, merges);
+	}
+
+	/**
+	 * Get the current triangulation
+	 * @return The <code>PanGraph</code> being kept up to date
+	 */
+	public PanGraph<Triangle, Arc, Node> getPanGraph() {
+		return graph;
+	}
+
+	/**
+	 * Get the <code>Node</code> for a <code>Point</code>
+	 * @param point The <code>Point</code> that was inserted
+	 * @return The <code>Node</code> or null if the <code>Point</code> isn't in the triangulation
+	 */
+	public Node getNode(Point point) {
+		Node node = engine.getNode(context, point);
+		if (node == null || superNodes.contains(node)) {
+			return null;
+		}
+		return node;
+	}
+
+	/**
+	 * Makes sure the location is inside the bounds
+	 * @param x The x value to check
+	 * @param y The y value to check
+	 */
+	private void checkBounds(double x, double y) {
+		if (x < minX || x > maxX || y < minY || y > maxY) {
+			throw new IllegalArgumentException("Point (" + x + ", " + y + ") is outside of the triangulation's bounds");
+		}
+	}
+
+	/**
+	 * Determines if the <code>Node</code> can move to the location without any of its
+	 * triangles turning over
+	 * @param node The <code>Node</code> being moved
+	 * @param target The new location
+	 * @return True if the location is strictly inside the polygon around the <code>Node</code>
+	 */
+	private boolean staysInside(Node node, Point target) {
+		Point current = node.getPoint();
+		for (Polygon polygon : node.getTouchingPolygons()) {
+			Point a = null;
+			Point b = null;
+			for (Node corner : polygon.getCorners()) {
+				if (corner == node) {
+					continue;
+				}
+				if (a == null) {
+					a = corner.getPoint();
+				} else {
+					b = corner.getPoint();
+				}
+			}
+			double before = GeometricPredicates.orient2d(current, a, b);
+			double after = GeometricPredicates.orient2d(target, a, b);
+			if (after == 0 || Math.signum(before) != Math.signum(after)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Moves the <code>Node</code> by removing it and inserting it again at the new location
+	 * @param node The <code>Node</code> being moved
+	 * @param target The new location
+	 * @return The <code>Node</code> or the one already at the new location
+	 */
+	private Node relocate(Node node, Point target) {
+		remove(node.getPoint());
+		node.setPoint(target);
+		return place(target, node);
+	}
+
+	/**
+	 * Flips the edges around a moved <code>Node</code> until every triangle is Delaunay again.
+	 * Only the moved <code>Node</code>'s triangles changed their circumcircles, so the check
+	 * starts with their edges and spreads out only through the flips.
+	 * @param node The <code>Node</code> that moved
+	 * @return How many edges were flipped
+	 */
+	private int restoreDelaunay(Node node) {
+		ArrayDeque<Arc> stack = new ArrayDeque<Arc>();
+		for (Polygon polygon : node.getTouchingPolygons()) {
+			stack.addAll(polygon.getBorders());
+		}
+
+		int flips = 0;
+		while (!stack.isEmpty()) {
+			Arc arc = stack.pop();
+			List<Polygon> sides = arc.getBorderingPolygons();
+			if (sides.size() != 2) {
+				continue;
+			}
+
+			Triangle first = (Triangle) sides.get(0);
+			Triangle second = (Triangle) sides.get(1);
+			Point a = arc.getEndPoints().get(0).getPoint();
+			Point b = arc.getEndPoints().get(1).getPoint();
+			Point c = engine.getOppositeCorner(first, arc).getPoint();
+			Point d = engine.getOppositeCorner(second, arc).getPoint();
+
+			double orientation = GeometricPredicates.orient2d(a, b, c);
+			if (GeometricPredicates.incircle(a, b, c, d) * orientation <= 0) {
+				continue;
+			}
+			// the other diagonal has to split the quadrilateral
+			if (GeometricPredicates.orient2d(c, d, a) * GeometricPredicates.orient2d(c, d, b) >= 0) {
+				continue;
+			}
+
+			engine.removeTriangleFromGraph(context, first);
+			engine.removeTriangleFromGraph(context, second);
+			ghosts.remove(first);
+			ghosts.remove(second);
+			Triangle one = engine.addTriangleToGraph(context, c, d, a);
+			Triangle two = engine.addTriangleToGraph(context, c, d, b);
+			refreshSuperNodes();
+			for (Triangle triangle : new Triangle[] { one, two }) {
+				hideIfGhost(triangle);
+				for (Arc border : triangle.getBorders()) {
+					hideIfGhost(border);
+					stack.push(border);
+				}
+			}
+			lastTriangle = one;
+			flips++;
+
+			// a dead arc left on the stack borders nothing, or is a new arc once it is handed out again
+			engine.recycleFreed(context);
+		}
+
+		return flips;
+	}
+
+	/**
+	 * Adds the super triangle around the bounds and hides it from the graph
+	 */
+	private void createSuperTriangle() {
+		List<Point> corners = new ArrayList<Point>();
+		corners.add(new Point(minX, minY));
+		corners.add(new Point(maxX, maxY));
+		superPoints = engine.findSuperTriangleNodes(corners);
+		superNodes = new HashSet<Node>();
+
+		lastTriangle = engine.addTriangleToGraph(context, superPoints.get(0), superPoints.get(1), superPoints.get(2));
+		refreshSuperNodes();
+		graph.removePolygon(lastTriangle);
+		ghosts.add(lastTriangle);
+		for (Arc arc : lastTriangle.getBorders()) {
+			graph.removeArc(arc);
+		}
+	}
+
+	/**
+	 * Picks up the super triangle's <code>Node</code>s again, the first inserts can swallow
+	 * every triangle around a corner and the engine then makes a new <code>Node</code> for it
+	 */
+	private void refreshSuperNodes() {
+		if (superNodes.size() == superPoints.size()) {
+			boolean current = true;
+			for (Point p : superPoints) {
+				current &= superNodes.contains(engine.getNode(context, p));
+			}
+			if (current) {
+				return;
+			}
+		}
+
+		superNodes.clear();
+		for (Point p : superPoints) {
+			Node node = engine.getNode(context, p);
+			superNodes.add(node);
+			graph.removeNode(node);
+		}
+	}
+
+	/**
+	 * Get every triangle, including the ones touching the super triangle
+	 * @return The listed and hidden triangles
+	 */
+	private List<Triangle> allTriangles() {
+		List<Triangle> triangles = new ArrayList<Triangle>(graph.getPolygons());
+		triangles.addAll(ghosts);
+		return triangles;
+	}
+
+	/**
+	 * Finds the triangle's corner that is at the same location as the <code>Point</code>
+	 * @param triangle The triangle to check
+	 * @param point The location to look for
+	 * @return The corner at the location or null if there isn't one
+	 */
+	private Node findCorner(Triangle triangle, Point point) {
+		for (Node corner : triangle.getCorners()) {
+			Point p = corner.getPoint();
+			if (p.x == point.x && p.y == point.y) {
+				return corner;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Takes the triangle out of the graph's list if it touches the super triangle
+	 * @param triangle The new triangle
+	 */
+	private void hideIfGhost(Triangle triangle) {
+		for (Node corner : triangle.getCorners()) {
+			if (superNodes.contains(corner)) {
+				graph.removePolygon(triangle);
+				ghosts.add(triangle);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Takes the <code>Arc</code> out of the graph's list if it touches the super triangle
+	 * @param arc The new <code>Arc</code>
+	 */
+	private void hideIfGhost(Arc arc) {
+		for (Node end : arc.getEndPoints()) {
+			if (superNodes.contains(end)) {
+				graph.removeArc(arc);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Finds the polygon made by the far sides of the <code>Node</code>'s triangles
+	 * @param node The <code>Node</code> being removed
+	 * @return The <code>Node</code>s around the <code>Node</code> in counterclockwise order
+	 */
+	private List<Node> findLink(Node node) {
+		Point center = node.getPoint();
+
+		// each triangle gives one side of the polygon, pointing counterclockwise
+		Map<Node, Node> following = new HashMap<Node, Node>();
+		Node first = null;
+		for (Polygon polygon : node.getTouchingPolygons()) {
+			Node a = null;
+			Node b = null;
+			for (Node corner : polygon.getCorners()) {
+				if (corner == node) {
+					continue;
+				}
+				if (a == null) {
+					a = corner;
+				} else {
+					b = corner;
+				}
+			}
+			if (GeometricPredicates.orient2d(center, a.getPoint(), b.getPoint()) < 0) {
+				Node swap = a;
+				a = b;
+				b = swap;
+			}
+			following.put(a, b);
+			first = a;
+		}
+
+		List<Node> link = new ArrayList<Node>();
+		Node current = first;
+		do {
+			link.add(current);
+			current = following.get(current);
+		} while (current != first && current != null && link.size() <= following.size());
+
+		return link;
+	}
+
+	/**
+	 * Triangulates the polygon left behind by a removed <code>Node</code> by clipping
+	 * ears whose circumcircle holds none of the polygon's other <code>Node</code>s
+	 * @param link The <code>Node</code>s of the polygon in counterclockwise order
+	 * @return The corners of the new triangles
+	 */
+	private List<Node[]> clipEars(List<Node> link) {
+		int size = link.size();
+		int[] prev = new int[size];
+		int[] next = new int[size];
+		boolean[] clipped = new boolean[size];
+		ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+		for (int i = 0; i < size; i++) {
+			prev[i] = (i + size - 1) % size;
+			next[i] = (i + 1) % size;
+			queue.add(i);
+		}
+
+		List<Node[]> ears = new ArrayList<Node[]>();
+		int remaining = size;
+		while (remaining > 3) {
+			Integer tip = queue.poll();
+			if (tip == null) {
+				// nothing passed the circle test, settle for any convex corner
+				tip = findConvexCorner(link, prev, next, clipped);
+			} else if (clipped[tip] || !isDelaunayEar(link, prev[tip], tip, next[tip], next)) {
+				continue;
+			}
+
+			ears.add(new Node[] { link.get(prev[tip]), link.get(tip), link.get(next[tip]) });
+			clipped[tip] = true;
+			next[prev[tip]] = next[tip];
+			prev[next[tip]] = prev[tip];
+			queue.add(prev[tip]);
+			queue.add(next[tip]);
+			remaining--;
+		}
+
+		// the last three make the final triangle
+		for (int i = 0; i < size; i++) {
+			if (!clipped[i]) {
+				ears.add(new Node[] { link.get(prev[i]), link.get(i), link.get(next[i]) });
+				break;
+			}
+		}
+
+		return ears;
+	}
+
+	/**
+	 * Determines if the corner is convex and no other corner of the polygon is inside
+	 * the circumcircle of it and its neighbors
+	 * @param link The <code>Node</code>s of the polygon
+	 * @param a The corner before the tip
+	 * @param b The tip of the ear
+	 * @param c The corner after the tip
+	 * @param next The corner after each corner
+	 * @return True if the ear is a Delaunay triangle
+	 */
+	private boolean isDelaunayEar(List<Node> link, int a, int b, int c, int[] next) {
+		Point pa = link.get(a).getPoint();
+		Point pb = link.get(b).getPoint();
+		Point pc = link.get(c).getPoint();
+		if (GeometricPredicates.orient2d(pa, pb, pc) <= 0) {
+			return false;
+		}
+		for (int i = next[c]; i != a; i = next[i]) {
+			if (GeometricPredicates.incircle(pa, pb, pc, link.get(i).getPoint()) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds a corner of the polygon that turns counterclockwise
+	 * @param link The <code>Node</code>s of the polygon
+	 * @param prev The corner before each corner
+	 * @param next The corner after each corner
+	 * @param clipped Whether each corner has been clipped already
+	 * @return The first convex corner, or the first corner left if there isn't one
+	 */
+	private int findConvexCorner(List<Node> link, int[] prev, int[] next, boolean[] clipped) {
+		int first = -1;
+		for (int i = 0; i < link.size(); i++) {
+			if (clipped[i]) {
+				continue;
+			}
+			if (first < 0) {
+				first = i;
+			}
+			if (GeometricPredicates.orient2d(link.get(prev[i]).getPoint(), link.get(i).getPoint(), link.get(next[i]).getPoint()) > 0) {
+				return i;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Sets the factory used to create the model objects, it must be set before the
+	 * first <code>Point</code> is inserted
+	 * @param modelFactory The factory to use
+	 */
+	public void setModelFactory(DelaunayModelFactory<R, S, T> modelFactory) {
+		engine.setModelFactory(modelFactory);
+	}
+
+}
@@ -1,115 +1,248 @@
 package com.infinity.delaunayvoronoi.algorithm;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import com.infinity.delaunayvoronoi.factory.SpecialDelaunayFactory;
+import com.infinity.delaunayvoronoi.factory.DelaunayModelFactory;
 import com.infinity.delaunayvoronoi.model.Arc;
 import com.infinity.delaunayvoronoi.model.Area;
+import com.infinity.delaunayvoronoi.model.CompactTriangulation;
 import com.infinity.delaunayvoronoi.model.Node;
 import com.infinity.delaunayvoronoi.model.PanGraph;
 import com.infinity.delaunayvoronoi.model.Point;
-import com.infinity.delaunayvoronoi.model.Polygon;
-import com.infinity.delaunayvoronoi.model.SpecialTriangle;
 import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
 
+/**
+ * Creates a <code>PanGraph</code> that represents Delaunay triangles by splitting the 
+ * <code>Point</code>s into an <code>Area</code> quadtree and triangulating the leaf areas 
+ * in parallel.  A leaf triangle whose circumcircle is inside its area can't have a point 
+ * from any other area in it, so it is kept as is.  The rest of the triangles are along 
+ * the seams between areas, so the points that touch them are triangulated together and 
+ * the part of that triangulation outside of the kept triangles fills the seams.
+ */
 public class FastDelaunayTriangulation<R extends Triangle, S extends Arc, T extends Node> implements PanGraphFactory<Triangle, Arc, Node> {
 	
+	/**
+	 * How much a circumcircle is grown before checking that it is inside its area
+	 */
+	private static final double SLACK = 1e-9;
+	
+	/**
+	 * Scales how far off a thin triangle's circumcircle can be
+	 */
+	private static final double CIRCLE_ERROR = 64 * GeometricPredicates.EPSILON;
+	
 	private final int maxPointsPerArea;
 	
+	/**
+	 * Runs the areas in parallel, null to run everything on the calling thread
+	 */
+	private final ForkJoinPool pool;
+	
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private DelaunayModelFactory<R, S, T> modelFactory;
+	
 	public FastDelaunayTriangulation() {
-		this.maxPointsPerArea = 10000;
+		this(10000);
 	}
 	
 	public FastDelaunayTriangulation(int maxPointsPerArea) {
+		this(maxPointsPerArea, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Sets up the algorithm's initial needs
+	 * @param maxPointsPerArea Areas with more <code>Point</code>s than this are split
+	 * @param pool Runs the areas in parallel, null to run everything on the calling thread
+	 */
+	public FastDelaunayTriangulation(int maxPointsPerArea, ForkJoinPool pool) {
 		this.maxPointsPerArea = maxPointsPerArea;
+		this.pool = pool;
+		this.modelFactory = new DelaunayModelFactory<R, S, T>();
 	}
 
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.PanGraphFactory#createPanGraph(java.util.List)
+	 */
 	@Override
 	public PanGraph<Triangle, Arc, Node> createPanGraph(List<Point> points) {
+		return new CompactPanGraphAdapter<R, S, T>(createCompactTriangulation(points), modelFactory).getPanGraph();
+	}
+
+	/**
+	 * Triangulates the <code>Point</code>s into primitive arrays
+	 * @param points The <code>Point</code>s to triangulate
+	 * @return The compact triangulation, vertex i is <code>points.get(i)</code>
+	 */
+	public CompactTriangulation createCompactTriangulation(List<Point> points) {
+		double[] coordinates = new double[2 * points.size()];
+		for (int i = 0; i < points.size(); i++) {
+			coordinates[2 * i] = points.get(i).x;
+			coordinates[2 * i + 1] = points.get(i).y;
+		}
 		
 		// need to break the points into quadrants
 		List<Area> areas = findAreas(points);
 		
 		// once we have all the points in various quadrants, perform the triangulation
-		DelaunayTriangulation<SpecialTriangle, Arc, Node> factory = new DelaunayTriangulation<SpecialTriangle, Arc, Node> ();
-		factory.setModelFactory(new SpecialDelaunayFactory());
-		
-		List<PanGraph<Triangle, Arc, Node>> graphs = new ArrayList<>();
+		boolean[] seam = new boolean[points.size()];
+		List<AreaTriangulation> tasks = new ArrayList<>();
 		for (Area area : areas) {
-			PanGraph<Triangle, Arc, Node> graph = factory.createPanGraph(area.getPoints());
-			graphs.add(graph);
-		}
-		
-		// now that we have the triangulation, lets stitch the graphs together
-		PanGraph<Triangle, Arc, Node> megaGraph = new PanGraph<>();
-		factory.setOriginalGraph(megaGraph);
-		
-		Set<Point> addPoints = new HashSet<>();
-		for (PanGraph<Triangle, Arc, Node> graph : graphs) {
-			megaGraph.addArcs(graph.getArcs());
-			megaGraph.addNodes(graph.getNodes());
-			megaGraph.addPolygons(graph.getPolygons());
-		}
-
-		// need to find all arcs that don't have both triangles
-		Set<Triangle> removeTriangles = new HashSet<>();
-		for (Arc arc : megaGraph.getArcs()) {
-			if (arc.getBorderingPolygons().size() < 2) {
-				// then get the nodes that are on both ends of the arcs
-				// then get all the shared triangles.  These are the
-				// triangles to remove
-				List<Node> nodes = arc.getEndPoints();
-				for (Node node : nodes) {
-					Triangle triangle1 = (Triangle) node.getTouchingPolygons().get(0);
-					Triangle triangle2 = (Triangle) node.getTouchingPolygons().get(1);
-
-					removeTriangles.add(triangle1);
-					removeTriangles.add(triangle2);
-					
-					addPoints.add(node.getPoint());
-					
-//					System.out.println(megaGraph.getArcs().contains(arc));
-//					System.out.println(megaGraph.getNodes().contains(node));
-//					System.out.println(megaGraph.getPolygons().contains(triangle1) + " " + megaGraph.getPolygons().contains(triangle2));
+			tasks.add(new AreaTriangulation(area, coordinates, seam));
+		}
+		if (pool == null) {
+			for (AreaTriangulation task : tasks) {
+				task.invoke();
+			}
+		} else {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
 				}
+			});
+		}
+		
+		int safeLength = 0;
+		int barrierLength = 0;
+		for (AreaTriangulation task : tasks) {
+			safeLength += task.safe.length;
+			barrierLength += task.barriers.length;
+		}
+		
+		// the edges between kept triangles and the seams, seen from the seam side
+		long[] barriers = new long[barrierLength];
+		barrierLength = 0;
+		for (AreaTriangulation task : tasks) {
+			System.arraycopy(task.barriers, 0, barriers, barrierLength, task.barriers.length);
+			barrierLength += task.barriers.length;
+		}
+		Arrays.sort(barriers);
+		
+		int[] seamTriangles = triangulateSeams(points, seam, barriers, safeLength == 0);
+		
+		// now that we have the triangulation, lets stitch the triangles together
+		int[] triangles = new int[safeLength + seamTriangles.length];
+		safeLength = 0;
+		for (AreaTriangulation task : tasks) {
+			System.arraycopy(task.safe, 0, triangles, safeLength, task.safe.length);
+			safeLength += task.safe.length;
+		}
+		System.arraycopy(seamTriangles, 0, triangles, safeLength, seamTriangles.length);
+		
+		return CompactTriangulation.fromTriangles(points, coordinates, triangles);
+	}
+
+	/**
+	 * Used to inject a factory that creates custom model instances
+	 * @param modelFactory A custom factory to use for creating model instances
+	 */
+	public void setModelFactory(DelaunayModelFactory<R, S, T> modelFactory) {
+		this.modelFactory = modelFactory;
+	}
+
+	/**
+	 * Triangulates the seam points and keeps the triangles that are on the seam side
+	 * of the barrier edges
+	 * @param points All of the <code>Point</code>s being triangulated
+	 * @param seam Which of the <code>Point</code>s touch a seam
+	 * @param barriers The sorted keys of the barrier edges
+	 * @param keepAll True when nothing was kept from the areas, so everything is seam
+	 * @return The seam triangles using the indexes of <code>points</code>
+	 */
+	private int[] triangulateSeams(List<Point> points, boolean[] seam, long[] barriers, boolean keepAll) {
+		List<Point> seamPoints = new ArrayList<>();
+		int[] seamIndexes = new int[points.size()];
+		for (int i = 0; i < points.size(); i++) {
+			if (seam[i]) {
+				seamIndexes[seamPoints.size()] = i;
+				seamPoints.add(points.get(i));
 			}
 		}
 		
-		// get rid of the triangles
-		factory.removeTriangles(removeTriangles);
+		CompactTriangulation local = new SweepHullDelaunayTriangulation<R, S, T>().createCompactTriangulation(seamPoints);
+		int[] triangles = local.getTriangles();
+		int[] halfedges = local.getHalfedges();
+		int triangleCount = local.getTriangleCount();
 		
-		System.out.println(megaGraph.isValid());
+		boolean[] keep = new boolean[triangleCount];
+		if (keepAll) {
+			Arrays.fill(keep, true);
+		} else {
+			// flood out from the barriers without crossing any of them
+			int[] stack = new int[triangleCount];
+			int size = 0;
+			for (int e = 0; e < triangles.length; e++) {
+				if (isBarrier(barriers, seamIndexes[triangles[e]], seamIndexes[triangles[CompactTriangulation.next(e)]]) && !keep[e / 3]) {
+					keep[e / 3] = true;
+					stack[size++] = e / 3;
+				}
+			}
+			while (size > 0) {
+				int t = stack[--size];
+				for (int e = 3 * t; e < 3 * t + 3; e++) {
+					int twin = halfedges[e];
+					if (twin != -1 && !keep[twin / 3] && !isBarrier(barriers, seamIndexes[triangles[e]], seamIndexes[triangles[CompactTriangulation.next(e)]])) {
+						keep[twin / 3] = true;
+						stack[size++] = twin / 3;
+					}
+				}
+			}
+		}
 		
-		return megaGraph;
+		int kept = 0;
+		for (int t = 0; t < triangleCount; t++) {
+			if (keep[t]) {
+				kept++;
+			}
+		}
+		int[] answer = new int[3 * kept];
+		kept = 0;
+		for (int t = 0; t < triangleCount; t++) {
+			if (keep[t]) {
+				answer[kept++] = seamIndexes[triangles[3 * t]];
+				answer[kept++] = seamIndexes[triangles[3 * t + 1]];
+				answer[kept++] = seamIndexes[triangles[3 * t + 2]];
+			}
+		}
+		return answer;
+	}
+
+	private static boolean isBarrier(long[] barriers, int from, int to) {
+		return Arrays.binarySearch(barriers, edgeKey(from, to)) >= 0;
+	}
+
+	private static long edgeKey(int from, int to) {
+		return ((long) from << 32) | (to & 0xffffffffL);
 	}
 
 	private List<Area> findAreas(List<Point> points) {
 		
-		double minX = Integer.MAX_VALUE;
-		double minY = Integer.MAX_VALUE;
-		double maxX = 0;
-		double maxY = 0;
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
 		
 		// set the upper and lower points
 		for (Point point : points) {
-			if (point.x < minX) {
-				minX = point.x;
-			} else if (point.x > maxX) {
-				maxX = point.x;
-			}
-			
-			if (point.y < minY) {
-				minY = point.y;
-			} else if (point.y > maxY) {
-				maxY = point.y;
-			}
+			minX = Math.min(minX, point.x);
+			maxX = Math.max(maxX, point.x);
+			minY = Math.min(minY, point.y);
+			maxY = Math.max(maxY, point.y);
 		}
 		
-		
 		List<Area> areas = new ArrayList<>();
+		if (points.isEmpty()) {
+			return areas;
+		}
 		
 		// This will be the primary area
 		Area firstArea = new Area(minX, minY, maxX, maxY);
@@ -120,11 +253,136 @@ public class FastDelaunayTriangulation<R extends Triangle, S extends Arc, T exte
 		}
 		
 		// split the area if it has too many points
-		firstArea.split(maxPointsPerArea);
+		if (!firstArea.isValid(maxPointsPerArea)) {
+			firstArea.split(maxPointsPerArea);
+		}
 		
-		// TODO: need to get all the leaf nodes
+		firstArea.collectLeaves(areas);
 		
 		return areas;
 	}
 
+	/**
+	 * Triangulates a single leaf area, keeps the triangles whose circumcircles are 
+	 * inside the area and marks everything else as part of a seam
+	 */
+	private class AreaTriangulation extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Area area;
+		
+		private final double[] coordinates;
+		
+		/**
+		 * Shared by all areas, each area only marks its own points
+		 */
+		private final boolean[] seam;
+		
+		/**
+		 * The kept triangles using the indexes of all of the points
+		 */
+		private int[] safe;
+		
+		/**
+		 * Keys of the kept triangles' edges that face a seam, reversed so they point 
+		 * the way the seam triangle on the other side would
+		 */
+		private long[] barriers;
+
+		AreaTriangulation(Area area, double[] coordinates, boolean[] seam) {
+			this.area = area;
+			this.coordinates = coordinates;
+			this.seam = seam;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			int[] indexes = area.getIndexes();
+			CompactTriangulation local = new SweepHullDelaunayTriangulation<R, S, T>().createCompactTriangulation(area.getPoints());
+			int[] triangles = local.getTriangles();
+			int[] halfedges = local.getHalfedges();
+			int triangleCount = local.getTriangleCount();
+			
+			boolean[] kept = new boolean[triangleCount];
+			int safeCount = 0;
+			for (int t = 0; t < triangleCount; t++) {
+				kept[t] = isInside(indexes[triangles[3 * t]], indexes[triangles[3 * t + 1]], indexes[triangles[3 * t + 2]]);
+				for (int e = 3 * t; e < 3 * t + 3; e++) {
+					if (!kept[t]) {
+						seam[indexes[triangles[e]]] = true;
+					}
+				}
+				if (kept[t]) {
+					safeCount++;
+				}
+			}
+			
+			// the hull of the area is seam too, and when the area's points are all on a 
+			// line every one of them is.  Otherwise the points left out are duplicates of
+			// one that is used, so leaving them out keeps the seams from picking the other
+			for (int e = 0; e < triangles.length; e++) {
+				if (halfedges[e] == -1) {
+					seam[indexes[triangles[e]]] = true;
+					seam[indexes[triangles[CompactTriangulation.next(e)]]] = true;
+				}
+			}
+			if (triangleCount == 0) {
+				for (int i = 0; i < indexes.length; i++) {
+					seam[indexes[i]] = true;
+				}
+			}
+			
+			safe = new int[3 * safeCount];
+			long[] keys = new long[triangles.length];
+			int safeLength = 0;
+			int keyLength = 0;
+			for (int t = 0; t < triangleCount; t++) {
+				if (!kept[t]) {
+					continue;
+				}
+				for (int e = 3 * t; e < 3 * t + 3; e++) {
+					safe[safeLength++] = indexes[triangles[e]];
+					int twin = halfedges[e];
+					if (twin == -1 || !kept[twin / 3]) {
+						keys[keyLength++] = edgeKey(indexes[triangles[CompactTriangulation.next(e)]], indexes[triangles[e]]);
+					}
+				}
+			}
+			barriers = Arrays.copyOf(keys, keyLength);
+		}
+
+		/**
+		 * Checks whether the circumcircle of the three vertices is inside this area
+		 */
+		private boolean isInside(int a, int b, int c) {
+			double ax = coordinates[2 * a];
+			double ay = coordinates[2 * a + 1];
+			double dx = coordinates[2 * b] - ax;
+			double dy = coordinates[2 * b + 1] - ay;
+			double ex = coordinates[2 * c] - ax;
+			double ey = coordinates[2 * c + 1] - ay;
+			double bl = dx * dx + dy * dy;
+			double cl = ex * ex + ey * ey;
+			double d = 0.5 / (dx * ey - dy * ex);
+			double x = (ey * bl - dy * cl) * d;
+			double y = (dx * cl - ex * bl) * d;
+			double radius = Math.sqrt(x * x + y * y);
+			
+			// the circle is only approximate, and thin triangles are further off
+			double shortest = Math.min(Math.max(Math.abs(dx), Math.abs(dy)), Math.max(Math.abs(ex), Math.abs(ey)));
+			shortest = Math.min(shortest, Math.max(Math.abs(ex - dx), Math.abs(ey - dy)));
+			radius += radius * (SLACK + CIRCLE_ERROR * radius / shortest);
+			double centerX = ax + x;
+			double centerY = ay + y;
+			
+			return centerX - radius > area.getUpperX() && centerX + radius < area.getLowerX() 
+					&& centerY - radius > area.getUpperY() && centerY + radius < area.getLowerY();
+		}
+		
+	}
+
 }
@@ -0,0 +1,74 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+/**
+ * Reports how much work a batch of kinetic updates needed
+ */
+public class KineticBatchResult {
+
+	/**
+	 * How many <code>Node</code>s were given new locations
+	 */
+	private final int moved;
+
+	/**
+	 * How many edge flips it took to make the triangles Delaunay again
+	 */
+	private final int flips;
+
+	/**
+	 * How many <code>Node</code>s left their triangles and had to be removed and inserted again
+	 */
+	private final int relocations;
+
+	/**
+	 * How many <code>Node</code>s landed on another <code>Node</code> and were dropped
+	 */
+	private final int merges;
+
+	/**
+	 * Creates the report for a batch
+	 * @param moved How many <code>Node</code>s were given new locations
+	 * @param flips How many edge flips were made
+	 * @param relocations How many <code>Node</code>s were removed and inserted again
+	 * @param merges How many <code>Node</code>s landed on another <code>Node</code>
+	 */
+	public KineticBatchResult(int moved, int flips, int relocations, int merges) {
+		this.moved = moved;
+		this.flips = flips;
+		this.relocations = relocations;
+		this.merges = merges;
+	}
+
+	/**
+	 * Get how many <code>Node</code>s were given new locations
+	 * @return The number of <code>Node</code>s in the batch that were moved
+	 */
+	public int getMoved() {
+		return moved;
+	}
+
+	/**
+	 * Get how many edge flips the batch needed
+	 * @return The number of edge flips
+	 */
+	public int getFlips() {
+		return flips;
+	}
+
+	/**
+	 * Get how many <code>Node</code>s had to be removed and inserted again
+	 * @return The number of <code>Node</code>s that left their triangles
+	 */
+	public int getRelocations() {
+		return relocations;
+	}
+
+	/**
+	 * Get how many <code>Node</code>s landed on another <code>Node</code> and were dropped
+	 * @return The number of <code>Node</code>s that were merged away
+	 */
+	public int getMerges() {
+		return merges;
+	}
+
+}
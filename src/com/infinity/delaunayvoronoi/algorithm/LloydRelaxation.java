@@ -0,0 +1,367 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.infinity.delaunayvoronoi.algorithm.order.HilbertInsertionOrder;
+import com.infinity.delaunayvoronoi.algorithm.voronoi.ConvexCell;
+import com.infinity.delaunayvoronoi.factory.BaseModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Polygon;
+import com.infinity.delaunayvoronoi.model.Triangle;
+
+/**
+ * Spreads sites out evenly with Lloyd's algorithm: each iteration moves every site to the
+ * centroid of its Voronoi cell inside the area, until the sites settle into a centroidal
+ * Voronoi tessellation.
+ * <p>
+ * The sites are kept in a <code>DynamicDelaunayTriangulation</code> that lives from one
+ * iteration to the next.  A cell is the area cut down by the bisector of each of the site's
+ * Delaunay neighbors, so the cells and their centroids are worked out in parallel straight
+ * from the triangulation, and the moves go back in as one kinetic batch that only repairs
+ * the triangles around the sites with edge flips.  Only building the triangulation for
+ * the first iteration touches every site from scratch.
+ */
+public class LloydRelaxation<R extends Polygon, S extends Arc, T extends Node> {
+
+	/**
+	 * How far, relative to the size of the area, the sites may still be moving when they are settled
+	 */
+	private static final double DEFAULT_TOLERANCE = 1e-6;
+
+	/**
+	 * How many iterations are run at most unless it is changed
+	 */
+	private static final int DEFAULT_MAX_ITERATIONS = 100;
+
+	/**
+	 * How close, relative to the size of the area, two corners are before they are one <code>Node</code>
+	 */
+	private static final double CORNER_TOLERANCE = 1e-9;
+
+	/**
+	 * The area the cells are kept in
+	 */
+	private final ConvexCell area;
+
+	/**
+	 * The left side of the box around the area
+	 */
+	private final double minX;
+
+	/**
+	 * The bottom of the box around the area
+	 */
+	private final double minY;
+
+	/**
+	 * The right side of the box around the area
+	 */
+	private final double maxX;
+
+	/**
+	 * The top of the box around the area
+	 */
+	private final double maxY;
+
+	/**
+	 * How far the sites may still be moving when they are settled
+	 */
+	private double tolerance;
+
+	/**
+	 * How many iterations <code>relax()</code> runs at most
+	 */
+	private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+	/**
+	 * Whether the cells are worked out in parallel
+	 */
+	private boolean parallel = true;
+
+	/**
+	 * Used to create new instances of the model objects for <code>createPanGraph()</code>
+	 */
+	private BaseModelFactory<R, S, T> modelFactory = new BaseModelFactory<R, S, T>();
+
+	/**
+	 * The triangulation of the sites, kept between iterations
+	 */
+	private DynamicDelaunayTriangulation<Triangle, Arc, Node> triangulation;
+
+	/**
+	 * The <code>Node</code> of each site in the triangulation
+	 */
+	private List<Node> sites = new ArrayList<Node>();
+
+	/**
+	 * How many iterations have been run since the sites were set
+	 */
+	private int iterations;
+
+	/**
+	 * The work the last iteration's batch of moves needed
+	 */
+	private KineticBatchResult lastResult;
+
+	/**
+	 * Creates an engine that keeps the cells inside a rectangle
+	 * @param minX The left side of the rectangle
+	 * @param minY The bottom of the rectangle
+	 * @param maxX The right side of the rectangle
+	 * @param maxY The top of the rectangle
+	 */
+	public LloydRelaxation(double minX, double minY, double maxX, double maxY) {
+		this(new ConvexCell(minX, minY, maxX, maxY));
+	}
+
+	/**
+	 * Creates an engine that keeps the cells inside a convex polygon
+	 * @param area The corners of the polygon in order, either clockwise or counterclockwise
+	 */
+	public LloydRelaxation(List<Point> area) {
+		this(new ConvexCell(area));
+	}
+
+	/**
+	 * Creates an engine that keeps the cells inside the area
+	 */
+	private LloydRelaxation(ConvexCell area) {
+		if (area.isEmpty()) {
+			throw new IllegalArgumentException("The area needs at least three corners");
+		}
+		this.area = area;
+
+		double left = Double.POSITIVE_INFINITY;
+		double bottom = Double.POSITIVE_INFINITY;
+		double right = Double.NEGATIVE_INFINITY;
+		double top = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < area.size(); i++) {
+			left = Math.min(left, area.getX(i));
+			bottom = Math.min(bottom, area.getY(i));
+			right = Math.max(right, area.getX(i));
+			top = Math.max(top, area.getY(i));
+		}
+		this.minX = left;
+		this.minY = bottom;
+		this.maxX = right;
+		this.maxY = top;
+		this.tolerance = DEFAULT_TOLERANCE * getSize();
+	}
+
+	/**
+	 * Starts over with a new set of sites.  This builds the triangulation the following
+	 * iterations keep up to date, so it costs about as much as a full build.
+	 * @param points The sites, they must be inside the box around the area and any
+	 * <code>Point</code> at a location already taken is dropped
+	 */
+	public void setSites(List<Point> points) {
+		triangulation = new DynamicDelaunayTriangulation<Triangle, Arc, Node>(minX, minY, maxX, maxY);
+		sites = new ArrayList<Node>();
+		iterations = 0;
+		lastResult = null;
+
+		// insert nearby sites one after another to keep the walks short
+		for (Point point : new HilbertInsertionOrder().order(points)) {
+			Node node = triangulation.insert(point);
+			if (node.getPoint() == point) {
+				sites.add(node);
+			}
+		}
+	}
+
+	/**
+	 * Moves the sites until none of them moves farther than the tolerance or the most
+	 * iterations have been run
+	 * @return How many iterations were run
+	 */
+	public int relax() {
+		int count = 0;
+		while (count < maxIterations) {
+			count++;
+			if (iterate() <= tolerance) {
+				break;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Moves every site to the centroid of its cell once.  A site whose cell is cut away
+	 * completely, which only happens to sites outside of a polygon area, stays where it is.
+	 * @return The farthest any site moved
+	 */
+	public double iterate() {
+		if (triangulation == null) {
+			throw new IllegalStateException("The sites have not been set");
+		}
+
+		// the triangulation is only read while the cells are cut
+		final Node[] nodes = sites.toArray(new Node[sites.size()]);
+		final Point[] centroids = new Point[nodes.length];
+		IntStream cuts = IntStream.range(0, nodes.length);
+		if (parallel) {
+			cuts = cuts.parallel();
+		}
+		cuts.forEach(i -> centroids[i] = createCell(nodes[i]).getCentroid());
+
+		double farthest = 0;
+		Map<Node, Point> moves = new LinkedHashMap<Node, Point>();
+		for (int i = 0; i < nodes.length; i++) {
+			Point centroid = centroids[i];
+			if (centroid == null) {
+				continue;
+			}
+			Point current = nodes[i].getPoint();
+			if (centroid.x == current.x && centroid.y == current.y) {
+				continue;
+			}
+			farthest = Math.max(farthest, Math.hypot(centroid.x - current.x, centroid.y - current.y));
+			moves.put(nodes[i], clamp(centroid));
+		}
+
+		lastResult = triangulation.update(moves);
+		if (lastResult.getMerges() > 0) {
+			// a site that landed on another one was dropped from the triangulation
+			PanGraph<Triangle, Arc, Node> graph = triangulation.getPanGraph();
+			List<Node> kept = new ArrayList<Node>(sites.size());
+			for (Node node : sites) {
+				if (graph.indexOfNode(node) >= 0) {
+					kept.add(node);
+				}
+			}
+			sites = kept;
+		}
+		iterations++;
+		return farthest;
+	}
+
+	/**
+	 * Creates the <code>PanGraph</code> of the current sites' cells, the cell of each site
+	 * is at the same index as the site in <code>getSites()</code>, with its corners in
+	 * clockwise order
+	 * @return The <code>PanGraph</code> of the closed cells
+	 */
+	public PanGraph<Polygon, Arc, Node> createPanGraph() {
+		final Node[] nodes = sites.toArray(new Node[sites.size()]);
+		final ConvexCell[] cells = new ConvexCell[nodes.length];
+		IntStream cuts = IntStream.range(0, nodes.length);
+		if (parallel) {
+			cuts = cuts.parallel();
+		}
+		cuts.forEach(i -> cells[i] = createCell(nodes[i]));
+
+		return new CellGraphBuilder<R, S, T>(modelFactory, CORNER_TOLERANCE * getSize()).build(cells);
+	}
+
+	/**
+	 * Cuts the site's cell out of the area using the bisectors with its Delaunay neighbors
+	 * @param site The site's <code>Node</code> in the triangulation
+	 * @return The cell
+	 */
+	private ConvexCell createCell(Node site) {
+		PanGraph<Triangle, Arc, Node> graph = triangulation.getPanGraph();
+		ConvexCell cell = new ConvexCell(area);
+		Point point = site.getPoint();
+		for (Node neighbor : site.getAdjacentNodes()) {
+			// the corners of the super triangle are wired in but left out of the graph
+			if (graph.indexOfNode(neighbor) >= 0) {
+				cell.clipToBisector(point, neighbor.getPoint());
+			}
+		}
+		return cell;
+	}
+
+	/**
+	 * Keeps a centroid inside the box around the area, which it can only leave by rounding
+	 */
+	private Point clamp(Point point) {
+		if (point.x >= minX && point.x <= maxX && point.y >= minY && point.y <= maxY) {
+			return point;
+		}
+		return new Point(Math.min(Math.max(point.x, minX), maxX), Math.min(Math.max(point.y, minY), maxY));
+	}
+
+	/**
+	 * Get the larger of the width and height of the box around the area
+	 */
+	private double getSize() {
+		return Math.max(maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Get the sites where they are now
+	 * @return The <code>Point</code> of each site, in the order they are kept
+	 */
+	public List<Point> getSites() {
+		List<Point> points = new ArrayList<Point>(sites.size());
+		for (Node node : sites) {
+			points.add(node.getPoint());
+		}
+		return points;
+	}
+
+	/**
+	 * Get how many iterations have been run since the sites were set
+	 * @return The number of iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Get the work the last iteration needed to repair the triangulation
+	 * @return The report of the last batch of moves, or null if no iteration has been run
+	 */
+	public KineticBatchResult getLastResult() {
+		return lastResult;
+	}
+
+	/**
+	 * Get the triangulation of the sites where they are now
+	 * @return The Delaunay <code>PanGraph</code> kept between iterations, or null if the sites have not been set
+	 */
+	public PanGraph<Triangle, Arc, Node> getTriangulation() {
+		return triangulation == null ? null : triangulation.getPanGraph();
+	}
+
+	/**
+	 * Set how far the sites may still be moving when they are settled
+	 * @param tolerance The distance, by default a millionth of the size of the area
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Set how many iterations <code>relax()</code> runs at most
+	 * @param maxIterations The number of iterations
+	 */
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Set whether the cells are worked out in parallel
+	 * @param parallel True to cut the cells on several threads, the default
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Set the model factory that is used to create the <code>Polygon</code>s, <code>Arc</code>s and <code>Node</code>s
+	 * of <code>createPanGraph()</code>
+	 * @param modelFactory The model factory to use
+	 */
+	public void setModelFactory(BaseModelFactory<R, S, T> modelFactory) {
+		this.modelFactory = modelFactory;
+	}
+
+}
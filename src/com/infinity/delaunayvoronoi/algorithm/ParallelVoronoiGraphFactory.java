@@ -0,0 +1,331 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.infinity.delaunayvoronoi.algorithm.voronoi.ConvexCell;
+import com.infinity.delaunayvoronoi.factory.BaseModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Polygon;
+
+/**
+ * Creates a <code>PanGraph</code> of the closed Voronoi cells of the <code>Point</code>s by
+ * working out every cell on its own instead of sweeping.  A cell starts as the whole area
+ * and is cut by the bisector with each nearby site, taken from a uniform grid one ring of
+ * buckets at a time moving out from the site.  Once every corner of the cell is closer to
+ * the site than half the distance to the nearest bucket not looked at yet, no other site
+ * can cut it any more and the cell is done.
+ * <p>
+ * The cells don't depend on each other, so they are cut in parallel and each thread only
+ * needs the cell it is working on.  The corners the neighboring cells each worked out are
+ * matched up afterwards, so an edge two cells share is one <code>Arc</code> in the graph.
+ */
+public class ParallelVoronoiGraphFactory<R extends Polygon, S extends Arc, T extends Node> implements PanGraphFactory<Polygon, Arc, Node> {
+
+	/**
+	 * How close, relative to the size of the area, two corners are before they are one <code>Node</code>
+	 */
+	private static final double CORNER_TOLERANCE = 1e-9;
+
+	/**
+	 * How many sites a bucket of the grid holds on average
+	 */
+	private static final double SITES_PER_BUCKET = 2;
+
+	private int width;
+
+	private int height;
+
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private BaseModelFactory<R, S, T> modelFactory;
+
+	/**
+	 * The convex polygon the cells are clipped to, null to use the width by height rectangle
+	 */
+	private List<Point> clipPolygon;
+
+	/**
+	 * Whether the cells are cut in parallel
+	 */
+	private boolean parallel = true;
+
+	public ParallelVoronoiGraphFactory(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.modelFactory = new BaseModelFactory<R, S, T>();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.PanGraphFactory#createPanGraph(java.util.List)
+	 */
+	@Override
+	public PanGraph<Polygon, Arc, Node> createPanGraph(List<Point> points) {
+		final SiteGrid grid = new SiteGrid(points);
+		final ConvexCell area = clipPolygon == null ? new ConvexCell(0, 0, width, height) : new ConvexCell(clipPolygon);
+		final ConvexCell[] cells = new ConvexCell[points.size()];
+		IntStream cuts = IntStream.range(0, cells.length);
+		if (parallel) {
+			cuts = cuts.parallel();
+		}
+		cuts.forEach(i -> cells[i] = grid.createCell(i, area));
+
+		return new CellGraphBuilder<R, S, T>(modelFactory, CORNER_TOLERANCE * Math.max(width, height)).build(cells);
+	}
+
+	/**
+	 * Set the model factory that is used to create the <code>Polygon</code>s, <code>Arc</code>s and <code>Node</code>s
+	 * @param modelFactory The model factory to use
+	 */
+	public void setModelFactory(BaseModelFactory<R, S, T> modelFactory) {
+		this.modelFactory = modelFactory;
+	}
+
+	/**
+	 * Set the convex polygon the cells are clipped to.  A site outside of the polygon can
+	 * still have a cell reaching into it, and a cell that doesn't reach into it ends up
+	 * without any corners.
+	 * @param clipPolygon The corners of the polygon in order, null to use the width by height rectangle
+	 */
+	public void setClipPolygon(List<Point> clipPolygon) {
+		this.clipPolygon = clipPolygon == null ? null : new ArrayList<Point>(clipPolygon);
+	}
+
+	/**
+	 * Set whether the cells are cut in parallel
+	 * @param parallel True to cut the cells on several threads, the default
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * The sites sorted into square buckets, made fresh for each call so the factory can
+	 * be used by many threads at once.  The sites of each bucket are next to each other
+	 * in plain arrays, and the grid is only read once it is built.
+	 */
+	private static class SiteGrid {
+
+		/**
+		 * The sites in the order they were given
+		 */
+		private final List<Point> sites;
+
+		/**
+		 * The left side of the grid
+		 */
+		private final double minX;
+
+		/**
+		 * The bottom of the grid
+		 */
+		private final double minY;
+
+		/**
+		 * The width and height of a bucket
+		 */
+		private final double bucketSize;
+
+		/**
+		 * How many buckets across the grid is
+		 */
+		private final int columns;
+
+		/**
+		 * How many buckets up the grid is
+		 */
+		private final int rows;
+
+		/**
+		 * Where each bucket's sites start in the arrays, with one more entry for the end of the last bucket
+		 */
+		private final int[] starts;
+
+		/**
+		 * The index of each site in the order given, bucket by bucket
+		 */
+		private final int[] indexes;
+
+		/**
+		 * The x value of each site, bucket by bucket
+		 */
+		private final double[] xs;
+
+		/**
+		 * The y value of each site, bucket by bucket
+		 */
+		private final double[] ys;
+
+		/**
+		 * Whether each site was left out because a site given earlier is at the same location
+		 */
+		private final boolean[] dropped;
+
+		/**
+		 * Sorts the sites into buckets
+		 * @param sites The sites
+		 */
+		SiteGrid(List<Point> sites) {
+			this.sites = sites;
+
+			double left = Double.POSITIVE_INFINITY;
+			double bottom = Double.POSITIVE_INFINITY;
+			double right = Double.NEGATIVE_INFINITY;
+			double top = Double.NEGATIVE_INFINITY;
+			for (Point site : sites) {
+				left = Math.min(left, site.x);
+				bottom = Math.min(bottom, site.y);
+				right = Math.max(right, site.x);
+				top = Math.max(top, site.y);
+			}
+			if (sites.isEmpty()) {
+				left = bottom = right = top = 0;
+			}
+			double spanX = right - left;
+			double spanY = top - bottom;
+			double size = Math.sqrt(Math.max(spanX * spanY, 0) * SITES_PER_BUCKET / Math.max(sites.size(), 1));
+			if (!(size > 0)) {
+				// the sites are on one line or one spot, so the buckets only split them along it
+				size = Math.max(Math.max(spanX, spanY) * SITES_PER_BUCKET / Math.max(sites.size(), 1), 1);
+			}
+			this.minX = left;
+			this.minY = bottom;
+			this.bucketSize = size;
+			this.columns = Math.max(1, Math.min((int) (spanX / size) + 1, sites.size()));
+			this.rows = Math.max(1, Math.min((int) (spanY / size) + 1, sites.size()));
+
+			// count the sites of each bucket, then drop them into place
+			int[] buckets = new int[sites.size()];
+			starts = new int[columns * rows + 1];
+			for (int i = 0; i < buckets.length; i++) {
+				Point site = sites.get(i);
+				buckets[i] = getRow(site.y) * columns + getColumn(site.x);
+				starts[buckets[i] + 1]++;
+			}
+			for (int b = 0; b < columns * rows; b++) {
+				starts[b + 1] += starts[b];
+			}
+			int[] filled = new int[columns * rows];
+			indexes = new int[buckets.length];
+			xs = new double[buckets.length];
+			ys = new double[buckets.length];
+			for (int i = 0; i < buckets.length; i++) {
+				int slot = starts[buckets[i]] + filled[buckets[i]]++;
+				indexes[slot] = i;
+				xs[slot] = sites.get(i).x;
+				ys[slot] = sites.get(i).y;
+			}
+
+			// squeeze out the sites at a location already taken, cutting twice along one 
+			// bisector would put a corner anywhere along the edge that is already there
+			dropped = new boolean[buckets.length];
+			int kept = 0;
+			for (int b = 0; b < columns * rows; b++) {
+				int start = kept;
+				for (int s = starts[b]; s < starts[b + 1]; s++) {
+					boolean taken = false;
+					for (int t = start; t < kept && !taken; t++) {
+						taken = xs[t] == xs[s] && ys[t] == ys[s];
+					}
+					if (taken) {
+						dropped[indexes[s]] = true;
+					} else {
+						indexes[kept] = indexes[s];
+						xs[kept] = xs[s];
+						ys[kept] = ys[s];
+						kept++;
+					}
+				}
+				starts[b] = start;
+			}
+			starts[columns * rows] = kept;
+		}
+
+		/**
+		 * Cuts one site's cell out of the area, looking at the buckets a ring at a time
+		 * until none of the sites left can reach the cell
+		 * @param index The index of the site
+		 * @param area The area the cells are kept in
+		 * @return The cell, empty if a site given earlier is at the same location
+		 */
+		ConvexCell createCell(int index, ConvexCell area) {
+			if (dropped[index]) {
+				return new ConvexCell(Collections.<Point>emptyList());
+			}
+
+			ConvexCell cell = new ConvexCell(area);
+			Point site = sites.get(index);
+			int column = getColumn(site.x);
+			int row = getRow(site.y);
+
+			int rings = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+			for (int ring = 0; ring <= rings && !cell.isEmpty(); ring++) {
+				for (int r = Math.max(row - ring, 0); r <= Math.min(row + ring, rows - 1); r++) {
+					// only the first and last rows of the ring are whole, the rest just have their two ends
+					boolean edge = r == row - ring || r == row + ring;
+					int step = edge ? 1 : 2 * ring;
+					for (int c = column - ring; c <= column + ring; c += step) {
+						if (c >= 0 && c < columns) {
+							cutBucket(cell, index, site, r * columns + c);
+						}
+					}
+				}
+
+				// every site not looked at yet is outside the square of buckets done so far
+				double reach = Math.min(
+						Math.min(site.x - (minX + (column - ring) * bucketSize), minX + (column + ring + 1) * bucketSize - site.x),
+						Math.min(site.y - (minY + (row - ring) * bucketSize), minY + (row + ring + 1) * bucketSize - site.y));
+				if (reach >= 2 * getRadius(cell, site)) {
+					break;
+				}
+			}
+			return cell;
+		}
+
+		/**
+		 * Cuts the cell by the bisector with every other site in the bucket
+		 */
+		private void cutBucket(ConvexCell cell, int index, Point site, int bucket) {
+			for (int s = starts[bucket]; s < starts[bucket + 1]; s++) {
+				if (indexes[s] != index) {
+					double x = xs[s];
+					double y = ys[s];
+					cell.clip(x - site.x, y - site.y, (site.x + x) / 2, (site.y + y) / 2);
+				}
+			}
+		}
+
+		/**
+		 * Get how far the cell's farthest corner is from the site
+		 */
+		private static double getRadius(ConvexCell cell, Point site) {
+			double radius = 0;
+			for (int i = 0; i < cell.size(); i++) {
+				radius = Math.max(radius, Math.hypot(cell.getX(i) - site.x, cell.getY(i) - site.y));
+			}
+			return radius;
+		}
+
+		/**
+		 * Get the column of the bucket the x value falls in
+		 */
+		private int getColumn(double x) {
+			return Math.min(Math.max((int) ((x - minX) / bucketSize), 0), columns - 1);
+		}
+
+		/**
+		 * Get the row of the bucket the y value falls in
+		 */
+		private int getRow(double y) {
+			return Math.min(Math.max((int) ((y - minY) / bucketSize), 0), rows - 1);
+		}
+
+	}
+
+}
@@ -0,0 +1,326 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.infinity.delaunayvoronoi.algorithm.order.HilbertInsertionOrder;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Polygon;
+import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
+
+/**
+ * Finds the triangle of a built triangulation that contains a location.  A coarse grid
+ * laid over the triangulation remembers a triangle near the middle of each of its cells,
+ * and a query walks from the one for its cell across whichever border the location is
+ * on the other side of until no border is left to cross.
+ * <p>
+ * A batch of queries is sorted along the Hilbert curve first, so each walk can start
+ * from the triangle the one before it ended in, which is usually a step or two away.
+ * <p>
+ * The locator only reads the triangulation, so any number of threads can use it at once
+ * as long as nothing changes the <code>PanGraph</code> while it is in use.  A location
+ * outside of the triangles in the graph, including the triangles touching the super
+ * triangle that were left out of it, is not in any triangle.  The walk expects the
+ * triangles to cover a convex area, as a Delaunay triangulation does.
+ */
+public class PointLocator {
+
+	/**
+	 * About how many triangles each cell of the sample grid covers
+	 */
+	private static final int TRIANGLES_PER_SAMPLE = 8;
+
+	/**
+	 * How many queries of a sorted batch are walked one after the other on one thread
+	 */
+	private static final int BATCH_CHUNK = 4096;
+
+	/**
+	 * The triangulation being searched
+	 */
+	private final PanGraph<Triangle, Arc, Node> graph;
+
+	/**
+	 * Whether batches are split up and walked in parallel
+	 */
+	private final boolean parallel;
+
+	/**
+	 * The left side of the sample grid
+	 */
+	private final double minX;
+
+	/**
+	 * The bottom of the sample grid
+	 */
+	private final double minY;
+
+	/**
+	 * How many grid cells there are per unit across
+	 */
+	private final double scaleX;
+
+	/**
+	 * How many grid cells there are per unit up
+	 */
+	private final double scaleY;
+
+	/**
+	 * How many cells across the sample grid is
+	 */
+	private final int columns;
+
+	/**
+	 * How many cells up the sample grid is
+	 */
+	private final int rows;
+
+	/**
+	 * The triangle each walk in a cell starts from, row by row
+	 */
+	private final Triangle[] samples;
+
+	/**
+	 * Creates a locator that walks batches on the calling thread
+	 * @param graph The triangulation to search, it must not change while the locator is used
+	 */
+	public PointLocator(PanGraph<Triangle, Arc, Node> graph) {
+		this(graph, false);
+	}
+
+	/**
+	 * Creates a locator
+	 * @param graph The triangulation to search, it must not change while the locator is used
+	 * @param parallel True to split up batches and walk the pieces in parallel
+	 */
+	public PointLocator(PanGraph<Triangle, Arc, Node> graph, boolean parallel) {
+		this.graph = graph;
+		this.parallel = parallel;
+		List<Triangle> triangles = graph.getPolygons();
+
+		double left = Double.POSITIVE_INFINITY;
+		double bottom = Double.POSITIVE_INFINITY;
+		double right = Double.NEGATIVE_INFINITY;
+		double top = Double.NEGATIVE_INFINITY;
+		for (Triangle triangle : triangles) {
+			for (int i = 0; i < 3; i++) {
+				Point corner = triangle.getCorner(i).getPoint();
+				left = Math.min(left, corner.x);
+				bottom = Math.min(bottom, corner.y);
+				right = Math.max(right, corner.x);
+				top = Math.max(top, corner.y);
+			}
+		}
+		if (triangles.isEmpty()) {
+			left = bottom = right = top = 0;
+		}
+		double width = Math.max(right - left, Double.MIN_NORMAL);
+		double height = Math.max(top - bottom, Double.MIN_NORMAL);
+
+		// about square cells, each covering a handful of triangles
+		int cells = Math.max(1, triangles.size() / TRIANGLES_PER_SAMPLE);
+		this.columns = (int) Math.max(1, Math.min(cells, Math.round(Math.sqrt(cells * width / height))));
+		this.rows = Math.max(1, Math.min(cells, cells / columns));
+		this.minX = left;
+		this.minY = bottom;
+		this.scaleX = columns / width;
+		this.scaleY = rows / height;
+
+		// keep the triangle whose middle is closest to the middle of each cell
+		samples = new Triangle[columns * rows];
+		double[] distances = new double[samples.length];
+		for (Triangle triangle : triangles) {
+			double x = (triangle.getCorner(0).getPoint().x + triangle.getCorner(1).getPoint().x + triangle.getCorner(2).getPoint().x) / 3;
+			double y = (triangle.getCorner(0).getPoint().y + triangle.getCorner(1).getPoint().y + triangle.getCorner(2).getPoint().y) / 3;
+			int cell = getCell(x, y);
+			double dx = x - (minX + (cell % columns + 0.5) / scaleX);
+			double dy = y - (minY + (cell / columns + 0.5) / scaleY);
+			double distance = dx * dx + dy * dy;
+			if (samples[cell] == null || distance < distances[cell]) {
+				samples[cell] = triangle;
+				distances[cell] = distance;
+			}
+		}
+
+		// cells without a triangle of their own borrow the closest one's, spreading out from the full cells
+		ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+		for (int cell = 0; cell < samples.length; cell++) {
+			if (samples[cell] != null) {
+				queue.add(cell);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int cell = queue.poll();
+			int column = cell % columns;
+			int row = cell / columns;
+			int[] nexts = { column > 0 ? cell - 1 : -1, column < columns - 1 ? cell + 1 : -1,
+					row > 0 ? cell - columns : -1, row < rows - 1 ? cell + columns : -1 };
+			for (int next : nexts) {
+				if (next >= 0 && samples[next] == null) {
+					samples[next] = samples[cell];
+					queue.add(next);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the triangle containing the <code>Point</code>
+	 * @param point The location to look for
+	 * @return The triangle containing the location, one of them if it is on a border or
+	 * corner, or null if it is outside of the triangulation
+	 */
+	public Triangle locate(Point point) {
+		return locate(point.x, point.y, null);
+	}
+
+	/**
+	 * Finds the triangle containing the location
+	 * @param x The x value of the location
+	 * @param y The y value of the location
+	 * @return The triangle containing the location, one of them if it is on a border or
+	 * corner, or null if it is outside of the triangulation
+	 */
+	public Triangle locate(double x, double y) {
+		return locate(x, y, null);
+	}
+
+	/**
+	 * Finds the triangle containing the location, starting from a triangle the caller
+	 * expects to be nearby when it is closer than the sample grid's
+	 * @param x The x value of the location
+	 * @param y The y value of the location
+	 * @param hint A triangle near the location, like the answer to the last query, or null
+	 * @return The triangle containing the location, one of them if it is on a border or
+	 * corner, or null if it is outside of the triangulation
+	 */
+	public Triangle locate(double x, double y, Triangle hint) {
+		if (samples[0] == null) {
+			// there aren't any triangles
+			return null;
+		}
+
+		Triangle start = samples[getCell(x, y)];
+		if (hint != null && hint != start && graph.indexOfPolygon(hint) >= 0
+				&& getDistanceSquared(hint, x, y) < getDistanceSquared(start, x, y)) {
+			start = hint;
+		}
+		return walk(start, x, y);
+	}
+
+	/**
+	 * Finds the triangle containing each <code>Point</code>.  The queries are walked in
+	 * Hilbert curve order, each starting from where the one before it ended.
+	 * @param points The locations to look for
+	 * @return The triangle containing each location at the same index, null for a
+	 * location outside of the triangulation
+	 */
+	public Triangle[] locateAll(final List<Point> points) {
+		final Triangle[] found = new Triangle[points.size()];
+		final int[] order = new HilbertInsertionOrder(parallel).orderIndexes(points);
+
+		// every piece of the curve gets its own chain of walks
+		IntStream chunks = IntStream.range(0, (order.length + BATCH_CHUNK - 1) / BATCH_CHUNK);
+		if (parallel) {
+			chunks = chunks.parallel();
+		}
+		chunks.forEach(chunk -> {
+			Triangle last = null;
+			int end = Math.min(order.length, (chunk + 1) * BATCH_CHUNK);
+			for (int i = chunk * BATCH_CHUNK; i < end; i++) {
+				Point point = points.get(order[i]);
+				Triangle triangle = locate(point.x, point.y, last);
+				found[order[i]] = triangle;
+				if (triangle != null) {
+					last = triangle;
+				}
+			}
+		});
+		return found;
+	}
+
+	/**
+	 * Walks from the triangle towards the location, crossing a border whenever the
+	 * location is on its far side
+	 * @param start The triangle to start from
+	 * @param x The x value of the location
+	 * @param y The y value of the location
+	 * @return The triangle containing the location or null if the walk left the triangulation
+	 */
+	private Triangle walk(Triangle start, double x, double y) {
+		Triangle triangle = start;
+		int maxSteps = graph.getPolygons().size();
+		for (int step = 0; step <= maxSteps; step++) {
+			Triangle next = null;
+			boolean outside = false;
+
+			// rotate the first border checked so degenerate walks don't cycle
+			for (int k = 0; k < 3 && next == null; k++) {
+				int i = (k + step) % 3;
+				Point a = triangle.getCorner((i + 1) % 3).getPoint();
+				Point b = triangle.getCorner((i + 2) % 3).getPoint();
+				if (GeometricPredicates.orient2d(a.x, a.y, b.x, b.y, x, y) < 0) {
+					Polygon neighbor = triangle.getNeighbor(i);
+					if (neighbor == null || graph.indexOfPolygon((Triangle) neighbor) < 0) {
+						// keep looking for a border with a triangle behind it
+						outside = true;
+					} else {
+						next = (Triangle) neighbor;
+					}
+				}
+			}
+
+			if (next == null) {
+				return outside ? null : triangle;
+			}
+			triangle = next;
+		}
+
+		// the walk went around in circles, which only a broken triangulation does
+		for (Triangle candidate : graph.getPolygons()) {
+			if (contains(candidate, x, y)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Determines if the location is inside of the triangle or on its border
+	 */
+	private static boolean contains(Triangle triangle, double x, double y) {
+		for (int i = 0; i < 3; i++) {
+			Point a = triangle.getCorner((i + 1) % 3).getPoint();
+			Point b = triangle.getCorner((i + 2) % 3).getPoint();
+			if (GeometricPredicates.orient2d(a.x, a.y, b.x, b.y, x, y) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the squared distance from the location to the triangle's first corner
+	 */
+	private static double getDistanceSquared(Triangle triangle, double x, double y) {
+		Point corner = triangle.getCorner(0).getPoint();
+		double dx = corner.x - x;
+		double dy = corner.y - y;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Get the cell of the sample grid the location falls in, clamped to the grid
+	 */
+	private int getCell(double x, double y) {
+		int column = Math.min(Math.max((int) ((x - minX) * scaleX), 0), columns - 1);
+		int row = Math.min(Math.max((int) ((y - minY) * scaleY), 0), rows - 1);
+		return row * columns + column;
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.infinity.delaunayvoronoi.algorithm.order.HilbertInsertionOrder;
+import com.infinity.delaunayvoronoi.algorithm.voronoi.ConvexCell;
+import com.infinity.delaunayvoronoi.factory.BaseModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Polygon;
+import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.model.WeightedPoint;
+
+/**
+ * Creates a <code>PanGraph</code> of the power diagram of weighted <code>Point</code>s, where
+ * each site's cell is everywhere its power distance, the squared distance less its weight,
+ * is the smallest.  A heavier site gets a bigger cell, and a site can end up with no cell
+ * at all.  <code>Point</code>s that aren't <code>WeightedPoint</code>s have a weight of 0,
+ * so without any weights this is the Voronoi diagram.
+ * <p>
+ * The regular triangulation of the sites is built first with <code>RegularTriangulation</code>,
+ * walking to each site in Hilbert order, and the diagram is its dual.
+ */
+public class PowerDiagramFactory<R extends Polygon, S extends Arc, T extends Node> implements PanGraphFactory<Polygon, Arc, Node> {
+
+	/**
+	 * How close, relative to the size of the area, two corners are before they are one <code>Node</code>
+	 */
+	private static final double CORNER_TOLERANCE = 1e-9;
+
+	private int width;
+
+	private int height;
+
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private BaseModelFactory<R, S, T> modelFactory;
+
+	/**
+	 * Builds the regular triangulation the diagram comes from
+	 */
+	private RegularTriangulation<Triangle, Arc, Node> triangulation;
+
+	/**
+	 * Whether every cell is clipped to the area so it comes out closed
+	 */
+	private boolean bounded;
+
+	/**
+	 * The convex polygon the cells are clipped to, null to use the width by height rectangle
+	 */
+	private List<Point> clipPolygon;
+
+	public PowerDiagramFactory(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.modelFactory = new BaseModelFactory<R, S, T>();
+		this.triangulation = new RegularTriangulation<Triangle, Arc, Node>();
+		this.triangulation.setWalkingSearch(true);
+		this.triangulation.setInsertionOrder(new HilbertInsertionOrder());
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.PanGraphFactory#createPanGraph(java.util.List)
+	 */
+	@Override
+	public PanGraph<Polygon, Arc, Node> createPanGraph(List<Point> points) {
+		PanGraph<Triangle, Arc, Node> regular = triangulation.createPanGraph(points);
+		if (bounded) {
+			return buildBoundedGraph(points, regular);
+		}
+
+		DelaunayToVoronoiConverter<R, S, T> converter = new DelaunayToVoronoiConverter<R, S, T>(true);
+		converter.setModelFactory(modelFactory);
+		return converter.convert(regular);
+	}
+
+	/**
+	 * Clips the area down to each site's cell, cutting away the side of the radical axis
+	 * with each site it shares an edge with in the regular triangulation
+	 * @param points The sites, one cell is made for each
+	 * @param regular The regular triangulation of the sites
+	 * @return The graph of the cells
+	 */
+	private PanGraph<Polygon, Arc, Node> buildBoundedGraph(final List<Point> points, PanGraph<Triangle, Arc, Node> regular) {
+		// the nodes keep the points they were made for, which leaves out the super triangle's
+		final Map<Point, Node> nodes = new IdentityHashMap<Point, Node>(points.size() * 2);
+		for (Point point : points) {
+			nodes.put(point, null);
+		}
+		for (Node node : regular.getNodes()) {
+			if (nodes.containsKey(node.getPoint())) {
+				nodes.put(node.getPoint(), node);
+			}
+		}
+
+		final ConvexCell area = clipPolygon == null ? new ConvexCell(0, 0, width, height) : new ConvexCell(clipPolygon);
+		final ConvexCell[] cells = new ConvexCell[points.size()];
+		IntStream.range(0, cells.length).parallel().forEach(i -> {
+			Point site = points.get(i);
+			Node node = nodes.get(site);
+			if (node == null) {
+				// redundant, or a heavier site is at the same location
+				cells[i] = new ConvexCell(new ArrayList<Point>());
+				return;
+			}
+
+			ConvexCell cell = new ConvexCell(area);
+			double weight = WeightedPoint.weightOf(site);
+			for (Node neighbor : node.getAdjacentNodes()) {
+				Point other = neighbor.getPoint();
+				if (nodes.get(other) == neighbor) {
+					cell.clipToRadicalAxis(site, weight, other, WeightedPoint.weightOf(other));
+				}
+			}
+			cells[i] = cell;
+		});
+
+		return new CellGraphBuilder<R, S, T>(modelFactory, CORNER_TOLERANCE * Math.max(width, height)).build(cells);
+	}
+
+	/**
+	 * Set the model factory that is used to create the <code>Polygon</code>s, <code>Arc</code>s and <code>Node</code>s
+	 * @param modelFactory The model factory to use
+	 */
+	public void setModelFactory(BaseModelFactory<R, S, T> modelFactory) {
+		this.modelFactory = modelFactory;
+	}
+
+	/**
+	 * Turns on clipping every cell to the area so each cell is a closed <code>Polygon</code>
+	 * with its corners in clockwise order, at the same index as its site in the <code>List</code>
+	 * given.  A site without a cell gets a <code>Polygon</code> without corners.  Without it
+	 * there is one <code>Polygon</code> for each <code>Node</code> of the regular triangulation
+	 * that a triangle touches, as <code>DelaunayToVoronoiConverter</code> makes them, and the cells on the outside are left open.
+	 * @param bounded True to clip every cell to the area
+	 */
+	public void setBounded(boolean bounded) {
+		this.bounded = bounded;
+	}
+
+	/**
+	 * Set the convex polygon the cells are clipped to when they are bounded.  A site
+	 * outside of the polygon can still have a cell reaching into it, and a cell that
+	 * doesn't reach into it ends up without any corners.
+	 * @param clipPolygon The corners of the polygon in order, null to use the width by height rectangle
+	 */
+	public void setClipPolygon(List<Point> clipPolygon) {
+		this.clipPolygon = clipPolygon == null ? null : new ArrayList<Point>(clipPolygon);
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.model.WeightedPoint;
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
+
+/**
+ * Creates a <code>PanGraph</code> of the regular triangulation of weighted <code>Point</code>s,
+ * the dual of their power diagram.  It is built the same way as the Delaunay triangulation,
+ * with the circumcircle test swapped for the power test, so the walking search, insertion
+ * order, and lazy topology settings all work the same.  A plain <code>Point</code> has a
+ * weight of 0, and with every weight the same the result is the Delaunay triangulation.
+ * <p>
+ * Each triangle's circumcircle holds the circle orthogonal to its weighted corners, whose
+ * center is the corner of the power diagram, so <code>DelaunayToVoronoiConverter</code>
+ * turns the triangulation into the power diagram.  The squared radius of that circle is
+ * negative when the corners are heavy compared to the distances between them.
+ * <p>
+ * A <code>Point</code> whose power cell would be empty is redundant and gets no
+ * <code>Node</code>, and of the <code>Point</code>s at one location only the heaviest is kept.
+ * Taking the <code>Node</code>s of redundant <code>Point</code>s out moves others into their
+ * places, so the super triangle's <code>Node</code>s aren't always after all the others.
+ */
+public class RegularTriangulation<R extends Triangle, S extends Arc, T extends Node> extends DelaunayTriangulation<R, S, T> {
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.DelaunayTriangulation#createPanGraph(java.util.List)
+	 */
+	@Override
+	public PanGraph<Triangle, Arc, Node> createPanGraph(List<Point> points) {
+		PanGraph<Triangle, Arc, Node> graph = super.createPanGraph(keepHeaviest(points));
+
+		// a point that was redundant when it was inserted never got wired in
+		List<Node> redundant = new ArrayList<Node>();
+		for (Node node : graph.getNodes()) {
+			if (node.getProtrudingArcs().isEmpty()) {
+				redundant.add(node);
+			}
+		}
+		for (Node node : redundant) {
+			graph.removeNode(node);
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Determines if the <code>Point</code> is in conflict with the triangle, meaning its
+	 * power distance to the circle orthogonal to the triangle's corners is negative
+	 * @param point The location to check, weighted or not
+	 * @param triangle The <code>Polygon</code> that is the triangle
+	 * @return True if the <code>Point</code> is strictly in conflict with the triangle
+	 */
+	@Override
+	boolean pointInCircumCircle(Point point, Triangle triangle) {
+		Point p1 = triangle.getCorner(0).getPoint();
+		Point p2 = triangle.getCorner(1).getPoint();
+		Point p3 = triangle.getCorner(2).getPoint();
+
+		// collinear corners don't have a circle to be in conflict with
+		double orientation = GeometricPredicates.orient2d(p1, p2, p3);
+		if (orientation == 0) {
+			return false;
+		}
+
+		// the corners can be in either order, so flip the answer for clockwise ones
+		double power = GeometricPredicates.power(p1.x, p1.y, WeightedPoint.weightOf(p1),
+				p2.x, p2.y, WeightedPoint.weightOf(p2), p3.x, p3.y, WeightedPoint.weightOf(p3),
+				point.x, point.y, WeightedPoint.weightOf(point));
+		return orientation > 0 ? power > 0 : power < 0;
+	}
+
+	/**
+	 * Determines if the <code>Point</code> is redundant.  Any triangle in conflict with a
+	 * <code>Point</code> means the one containing it is too, so when that one isn't the
+	 * <code>Point</code> has no cell.
+	 * @param point The <code>Point</code> being inserted
+	 * @param seed The triangle the walk found the <code>Point</code> in
+	 * @return True if the <code>Point</code> is redundant
+	 */
+	@Override
+	boolean isRedundant(Point point, Triangle seed) {
+		return !pointInCircumCircle(point, seed);
+	}
+
+	/**
+	 * Calculates and stores the circle orthogonal to the triangle's weighted corners
+	 * @param triangle The triangle whose corners were set or moved
+	 */
+	@Override
+	void updateCircumCircle(Triangle triangle) {
+		Point p1 = triangle.getCorner(0).getPoint();
+		Point p2 = triangle.getCorner(1).getPoint();
+		Point p3 = triangle.getCorner(2).getPoint();
+		double w1 = WeightedPoint.weightOf(p1);
+
+		double dx = p2.x - p1.x;
+		double dy = p2.y - p1.y;
+		double ex = p3.x - p1.x;
+		double ey = p3.y - p1.y;
+		double bl = dx * dx + dy * dy - WeightedPoint.weightOf(p2) + w1;
+		double cl = ex * ex + ey * ey - WeightedPoint.weightOf(p3) + w1;
+
+		double d = 2 * (dx * ey - dy * ex);
+		if (d == 0) {
+			triangle.setCircumCircle(Double.NaN, Double.NaN, Double.POSITIVE_INFINITY);
+			return;
+		}
+
+		double x = (ey * bl - dy * cl) / d;
+		double y = (dx * cl - ex * bl) / d;
+		triangle.setCircumCircle(p1.x + x, p1.y + y, x * x + y * y - w1);
+	}
+
+	/**
+	 * Find the nodes of the super triangle, weighted as lightly as the lightest
+	 * <code>Point</code> so they can't make any of the <code>Point</code>s redundant
+	 * @param points The <code>List</code> of <code>Point</code>s to find a super triangle for
+	 * @return The <code>List</code> of <code>Point</code>s for the corners of the super triangle
+	 */
+	@Override
+	List<Point> findSuperTriangleNodes(List<Point> points) {
+		double lightest = 0;
+		for (int i = 0; i < points.size(); i++) {
+			double weight = WeightedPoint.weightOf(points.get(i));
+			lightest = i == 0 ? weight : Math.min(lightest, weight);
+		}
+
+		List<Point> corners = new ArrayList<Point>();
+		for (Point corner : super.findSuperTriangleNodes(points)) {
+			corners.add(new WeightedPoint(corner.x, corner.y, lightest));
+		}
+		return corners;
+	}
+
+	/**
+	 * Drops every <code>Point</code> at a location that a heavier one also has
+	 * @param points The <code>Point</code>s in the caller's order
+	 * @return The <code>Point</code>s that are left, still in the caller's order
+	 */
+	private static List<Point> keepHeaviest(final List<Point> points) {
+		Integer[] order = new Integer[points.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				Point p1 = points.get(i1);
+				Point p2 = points.get(i2);
+				int compare = Double.compare(p1.x, p2.x);
+				if (compare == 0) {
+					compare = Double.compare(p1.y, p2.y);
+				}
+				if (compare == 0) {
+					compare = Double.compare(WeightedPoint.weightOf(p2), WeightedPoint.weightOf(p1));
+				}
+				return compare;
+			}
+		});
+
+		boolean[] dropped = new boolean[order.length];
+		for (int i = 1; i < order.length; i++) {
+			Point previous = points.get(order[i - 1]);
+			Point point = points.get(order[i]);
+			dropped[order[i]] = point.x == previous.x && point.y == previous.y;
+		}
+
+		List<Point> kept = new ArrayList<Point>(points.size());
+		for (int i = 0; i < dropped.length; i++) {
+			if (!dropped[i]) {
+				kept.add(points.get(i));
+			}
+		}
+		return kept;
+	}
+
+}
@@ -0,0 +1,611 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.factory.DelaunayModelFactory;
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.CompactTriangulation;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Triangle;
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
+
+/**
+ * Creates a <code>PanGraph</code> that represents Delaunay triangles using a radial
+ * sweep-hull.  A seed triangle is picked near the center, the rest of the <code>Point</code>s
+ * are added in order of distance from it, each one connecting to the edges of the 
+ * advancing convex hull it can see, and Lawson flips keep the triangles Delaunay.
+ * The hull is found through a hash keyed on the angle around the seed, and the flips
+ * use an explicit stack instead of recursion.  Everything works on primitive arrays.
+ * See Sinclair, "S-hull: a fast radial sweep-hull routine for Delaunay triangulation" 
+ * and https://github.com/mapbox/delaunator for the algorithm used.
+ */
+public class SweepHullDelaunayTriangulation<R extends Triangle, S extends Arc, T extends Node> implements PanGraphFactory<Triangle, Arc, Node> {
+
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private DelaunayModelFactory<R, S, T> modelFactory;
+
+	/**
+	 * Sets up the algorithm's initial needs
+	 */
+	public SweepHullDelaunayTriangulation() {
+		this.modelFactory = new DelaunayModelFactory<R, S, T>();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.PanGraphFactory#createPanGraph(java.util.List)
+	 */
+	@Override
+	public PanGraph<Triangle, Arc, Node> createPanGraph(List<Point> points) {
+		return createAdapter(points).getPanGraph();
+	}
+
+	/**
+	 * Triangulates the <code>Point</code>s but waits to create the <code>PanGraph</code>
+	 * until the adapter is asked for it
+	 * @param points The <code>Point</code>s to triangulate
+	 * @return The adapter holding the compact triangulation
+	 */
+	public CompactPanGraphAdapter<R, S, T> createAdapter(List<Point> points) {
+		return new CompactPanGraphAdapter<R, S, T>(createCompactTriangulation(points), modelFactory);
+	}
+
+	/**
+	 * Triangulates the <code>Point</code>s into primitive arrays
+	 * @param points The <code>Point</code>s to triangulate
+	 * @return The compact triangulation, vertex i is <code>points.get(i)</code>
+	 */
+	public CompactTriangulation createCompactTriangulation(List<Point> points) {
+		double[] coordinates = new double[2 * points.size()];
+		for (int i = 0; i < points.size(); i++) {
+			coordinates[2 * i] = points.get(i).x;
+			coordinates[2 * i + 1] = points.get(i).y;
+		}
+		Sweep sweep = new Sweep(coordinates);
+		CompactTriangulation answer = sweep.run(points);
+		
+		// nearly collinear points can defeat the sweep, insertion handles anything
+		if (sweep.skipped) {
+			answer = new CompactDelaunayTriangulation<R, S, T>().createCompactTriangulation(points);
+		}
+		return answer;
+	}
+
+	/**
+	 * Used to inject a factory that creates custom model instances
+	 * @param modelFactory A custom factory to use for creating model instances
+	 */
+	public void setModelFactory(DelaunayModelFactory<R, S, T> modelFactory) {
+		this.modelFactory = modelFactory;
+	}
+
+	/**
+	 * Holds the working arrays for a single sweep.  Triangles are built clockwise 
+	 * while sweeping and turned counterclockwise when the sweep is done.
+	 */
+	private static class Sweep {
+
+		private final double[] coordinates;
+		
+		private final int[] triangles;
+		
+		private final int[] halfedges;
+		
+		private int trianglesLength;
+
+		/**
+		 * The next and previous vertex on the hull, a removed vertex points at itself
+		 */
+		private final int[] hullNext;
+		
+		private final int[] hullPrev;
+		
+		/**
+		 * The half-edge on the hull that starts at each hull vertex
+		 */
+		private final int[] hullTri;
+		
+		/**
+		 * Hull vertices bucketed by their angle around the seed circle's center
+		 */
+		private final int[] hullHash;
+		
+		private final int hashSize;
+		
+		private int hullStart;
+		
+		private double centerX;
+		
+		private double centerY;
+		
+		private int[] edgeStack = new int[512];
+		
+		/**
+		 * Whether a point that isn't a duplicate had to be left out
+		 */
+		private boolean skipped;
+
+		Sweep(double[] coordinates) {
+			this.coordinates = coordinates;
+			int n = coordinates.length / 2;
+			int maxTriangles = Math.max(2 * n - 5, 0);
+			triangles = new int[3 * maxTriangles];
+			halfedges = new int[3 * maxTriangles];
+			hullNext = new int[n];
+			hullPrev = new int[n];
+			hullTri = new int[n];
+			hashSize = (int) Math.ceil(Math.sqrt(n));
+			hullHash = new int[hashSize];
+		}
+
+		/**
+		 * Sweeps the vertices into triangles
+		 * @param points The <code>Point</code>s that are being triangulated
+		 * @return The finished triangulation
+		 */
+		CompactTriangulation run(List<Point> points) {
+			int n = coordinates.length / 2;
+			if (n < 3) {
+				return new CompactTriangulation(points, coordinates, new int[0], new int[0]);
+			}
+			
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			int[] ids = new int[n];
+			for (int i = 0; i < n; i++) {
+				double x = coordinates[2 * i];
+				double y = coordinates[2 * i + 1];
+				minX = Math.min(minX, x);
+				minY = Math.min(minY, y);
+				maxX = Math.max(maxX, x);
+				maxY = Math.max(maxY, y);
+				ids[i] = i;
+			}
+			double cx = (minX + maxX) / 2;
+			double cy = (minY + maxY) / 2;
+			
+			// seed with the point closest to the center, its closest neighbor, and 
+			// the third point that makes the smallest circumcircle with them
+			int i0 = 0;
+			int i1 = 0;
+			int i2 = 0;
+			double minDistance = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				double d = distance(cx, cy, coordinates[2 * i], coordinates[2 * i + 1]);
+				if (d < minDistance) {
+					i0 = i;
+					minDistance = d;
+				}
+			}
+			double i0x = coordinates[2 * i0];
+			double i0y = coordinates[2 * i0 + 1];
+			
+			minDistance = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				if (i == i0) {
+					continue;
+				}
+				double d = distance(i0x, i0y, coordinates[2 * i], coordinates[2 * i + 1]);
+				if (d < minDistance && d > 0) {
+					i1 = i;
+					minDistance = d;
+				}
+			}
+			double i1x = coordinates[2 * i1];
+			double i1y = coordinates[2 * i1 + 1];
+			
+			double minRadius = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				if (i == i0 || i == i1) {
+					continue;
+				}
+				double r = circumradius(i0x, i0y, i1x, i1y, coordinates[2 * i], coordinates[2 * i + 1]);
+				if (r < minRadius) {
+					i2 = i;
+					minRadius = r;
+				}
+			}
+			
+			// every point is on one line so there are no triangles
+			if (minRadius == Double.POSITIVE_INFINITY) {
+				return new CompactTriangulation(points, coordinates, new int[0], new int[0]);
+			}
+			double i2x = coordinates[2 * i2];
+			double i2y = coordinates[2 * i2 + 1];
+			
+			// the seed triangle is built clockwise like every other triangle in the sweep
+			if (orientation(i0x, i0y, i1x, i1y, i2x, i2y) < 0) {
+				int i = i1;
+				double x = i1x;
+				double y = i1y;
+				i1 = i2;
+				i1x = i2x;
+				i1y = i2y;
+				i2 = i;
+				i2x = x;
+				i2y = y;
+			}
+			
+			circumcenter(i0x, i0y, i1x, i1y, i2x, i2y);
+			double[] distances = new double[n];
+			for (int i = 0; i < n; i++) {
+				distances[i] = distance(coordinates[2 * i], coordinates[2 * i + 1], centerX, centerY);
+			}
+			
+			// sweep outwards from the seed circle
+			quicksort(ids, distances, 0, n - 1);
+			
+			hullStart = i0;
+			hullNext[i0] = hullPrev[i2] = i1;
+			hullNext[i1] = hullPrev[i0] = i2;
+			hullNext[i2] = hullPrev[i1] = i0;
+			hullTri[i0] = 0;
+			hullTri[i1] = 1;
+			hullTri[i2] = 2;
+			Arrays.fill(hullHash, -1);
+			hullHash[hashKey(i0x, i0y)] = i0;
+			hullHash[hashKey(i1x, i1y)] = i1;
+			hullHash[hashKey(i2x, i2y)] = i2;
+			
+			addTriangle(i0, i1, i2, -1, -1, -1);
+			
+			double xp = 0;
+			double yp = 0;
+			for (int k = 0; k < n; k++) {
+				int i = ids[k];
+				double x = coordinates[2 * i];
+				double y = coordinates[2 * i + 1];
+				
+				// skip duplicate points
+				if (k > 0 && x == xp && y == yp) {
+					continue;
+				}
+				xp = x;
+				yp = y;
+				
+				// skip the seed triangle's points
+				if (i == i0 || i == i1 || i == i2) {
+					continue;
+				}
+				
+				// find a visible edge on the convex hull using the hash
+				int start = 0;
+				int key = hashKey(x, y);
+				for (int j = 0; j < hashSize; j++) {
+					start = hullHash[(key + j) % hashSize];
+					if (start != -1 && start != hullNext[start]) {
+						break;
+					}
+				}
+				
+				start = hullPrev[start];
+				int e = start;
+				int q = hullNext[e];
+				while (orientation(x, y, coordinates[2 * e], coordinates[2 * e + 1], coordinates[2 * q], coordinates[2 * q + 1]) >= 0) {
+					e = q;
+					if (e == start) {
+						e = -1;
+						break;
+					}
+					q = hullNext[e];
+				}
+				
+				// a duplicate of a hull vertex, or the point is inside of the hull 
+				// because the distances to the seed were too close to sort
+				if (e == -1) {
+					if (!isOnHull(x, y)) {
+						skipped = true;
+					}
+					continue;
+				}
+				
+				// add the first triangle from the point
+				int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+				
+				// flip triangles from the point until they satisfy the Delaunay condition
+				hullTri[i] = legalize(t + 2);
+				hullTri[e] = t;
+				
+				// walk forward through the hull, adding more triangles and flipping
+				int next = hullNext[e];
+				q = hullNext[next];
+				while (orientation(x, y, coordinates[2 * next], coordinates[2 * next + 1], coordinates[2 * q], coordinates[2 * q + 1]) < 0) {
+					t = addTriangle(next, i, q, hullTri[i], -1, hullTri[next]);
+					hullTri[i] = legalize(t + 2);
+					hullNext[next] = next;
+					next = q;
+					q = hullNext[next];
+				}
+				
+				// walk backward from the other side, adding more triangles and flipping
+				if (e == start) {
+					q = hullPrev[e];
+					while (orientation(x, y, coordinates[2 * q], coordinates[2 * q + 1], coordinates[2 * e], coordinates[2 * e + 1]) < 0) {
+						t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+						legalize(t + 2);
+						hullTri[q] = t;
+						hullNext[e] = e;
+						e = q;
+						q = hullPrev[e];
+					}
+				}
+				
+				// update the hull
+				hullStart = hullPrev[i] = e;
+				hullNext[e] = hullPrev[next] = i;
+				hullNext[i] = next;
+				
+				// save the two new edges in the hash
+				hullHash[hashKey(x, y)] = i;
+				hullHash[hashKey(coordinates[2 * e], coordinates[2 * e + 1])] = e;
+			}
+			
+			return new CompactTriangulation(points, coordinates, counterclockwiseTriangles(), counterclockwiseHalfedges());
+		}
+
+		/**
+		 * Checks if the location is one of the hull's vertices
+		 */
+		private boolean isOnHull(double x, double y) {
+			int e = hullStart;
+			do {
+				if (coordinates[2 * e] == x && coordinates[2 * e + 1] == y) {
+					return true;
+				}
+				e = hullNext[e];
+			} while (e != hullStart);
+			return false;
+		}
+
+		/**
+		 * Flips edges from the new point until the triangles satisfy the Delaunay 
+		 * condition, using a stack instead of recursion
+		 * @param a The half-edge opposite the new point to start with
+		 * @return The half-edge of the last triangle checked that is on the hull side
+		 */
+		private int legalize(int a) {
+			int i = 0;
+			int ar;
+			
+			while (true) {
+				int b = halfedges[a];
+				int a0 = a - a % 3;
+				ar = a0 + (a + 2) % 3;
+				
+				if (b == -1) {
+					if (i == 0) {
+						break;
+					}
+					a = edgeStack[--i];
+					continue;
+				}
+				
+				int b0 = b - b % 3;
+				int al = a0 + (a + 1) % 3;
+				int bl = b0 + (b + 2) % 3;
+				
+				int p0 = triangles[ar];
+				int pr = triangles[a];
+				int pl = triangles[al];
+				int p1 = triangles[bl];
+				
+				if (isIllegal(p0, pr, pl, p1)) {
+					triangles[a] = p1;
+					triangles[b] = p0;
+					
+					int hbl = halfedges[bl];
+					
+					// the edge was swapped on the other side of the hull, fix the hull's reference
+					if (hbl == -1) {
+						int e = hullStart;
+						do {
+							if (hullTri[e] == bl) {
+								hullTri[e] = a;
+								break;
+							}
+							e = hullPrev[e];
+						} while (e != hullStart);
+					}
+					link(a, hbl);
+					link(b, halfedges[ar]);
+					link(ar, bl);
+					
+					int br = b0 + (b + 1) % 3;
+					if (i == edgeStack.length) {
+						edgeStack = Arrays.copyOf(edgeStack, 2 * edgeStack.length);
+					}
+					edgeStack[i++] = br;
+				} else {
+					if (i == 0) {
+						break;
+					}
+					a = edgeStack[--i];
+				}
+			}
+			
+			return ar;
+		}
+
+		private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+			int t = trianglesLength;
+			triangles[t] = i0;
+			triangles[t + 1] = i1;
+			triangles[t + 2] = i2;
+			link(t, a);
+			link(t + 1, b);
+			link(t + 2, c);
+			trianglesLength += 3;
+			return t;
+		}
+
+		private void link(int a, int b) {
+			halfedges[a] = b;
+			if (b != -1) {
+				halfedges[b] = a;
+			}
+		}
+
+		/**
+		 * Turns the clockwise triangles counterclockwise by swapping the first two 
+		 * vertices, which moves the half-edges in slots 1 and 2
+		 * @return The vertex each half-edge starts at
+		 */
+		private int[] counterclockwiseTriangles() {
+			int[] answer = new int[trianglesLength];
+			for (int t = 0; t < trianglesLength; t += 3) {
+				answer[t] = triangles[t + 1];
+				answer[t + 1] = triangles[t];
+				answer[t + 2] = triangles[t + 2];
+			}
+			return answer;
+		}
+
+		/**
+		 * Moves the twins to match <code>counterclockwiseTriangles</code>
+		 * @return The twin of each half-edge
+		 */
+		private int[] counterclockwiseHalfedges() {
+			int[] answer = new int[trianglesLength];
+			for (int e = 0; e < trianglesLength; e++) {
+				int twin = halfedges[swapSlot(e)];
+				answer[e] = twin == -1 ? -1 : swapSlot(twin);
+			}
+			return answer;
+		}
+
+		private int swapSlot(int e) {
+			int slot = e % 3;
+			return slot == 0 ? e : (slot == 1 ? e + 1 : e - 1);
+		}
+
+		/**
+		 * Buckets a location by its pseudo-angle around the seed circle's center
+		 */
+		private int hashKey(double x, double y) {
+			double dx = x - centerX;
+			double dy = y - centerY;
+			double p = dx / (Math.abs(dx) + Math.abs(dy));
+			double angle = (dy > 0 ? 3 - p : 1 + p) / 4;
+			return (int) (Math.floor(angle * hashSize) % hashSize);
+		}
+
+		/**
+		 * Positive when a, b, c are clockwise, the sweep's winding
+		 */
+		private double orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+			return -GeometricPredicates.orient2d(ax, ay, bx, by, cx, cy);
+		}
+
+		/**
+		 * True when p1 is inside the circle of the clockwise p0, pr, pl
+		 */
+		private boolean isIllegal(int p0, int pr, int pl, int p1) {
+			return GeometricPredicates.incircle(coordinates[2 * p0], coordinates[2 * p0 + 1], 
+					coordinates[2 * pr], coordinates[2 * pr + 1], 
+					coordinates[2 * pl], coordinates[2 * pl + 1], 
+					coordinates[2 * p1], coordinates[2 * p1 + 1]) < 0;
+		}
+
+		private void circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+			double dx = bx - ax;
+			double dy = by - ay;
+			double ex = cx - ax;
+			double ey = cy - ay;
+			double bl = dx * dx + dy * dy;
+			double cl = ex * ex + ey * ey;
+			double d = 0.5 / (dx * ey - dy * ex);
+			centerX = ax + (ey * bl - dy * cl) * d;
+			centerY = ay + (dx * cl - ex * bl) * d;
+		}
+
+		private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+			double dx = bx - ax;
+			double dy = by - ay;
+			double ex = cx - ax;
+			double ey = cy - ay;
+			double bl = dx * dx + dy * dy;
+			double cl = ex * ex + ey * ey;
+			double d = 0.5 / (dx * ey - dy * ex);
+			double x = (ey * bl - dy * cl) * d;
+			double y = (dx * cl - ex * bl) * d;
+			double r = x * x + y * y;
+			return Double.isNaN(r) ? Double.POSITIVE_INFINITY : r;
+		}
+
+		private static double distance(double ax, double ay, double bx, double by) {
+			double dx = ax - bx;
+			double dy = ay - by;
+			return dx * dx + dy * dy;
+		}
+
+		/**
+		 * Sorts the ids by their distances without boxing
+		 */
+		private static void quicksort(int[] ids, double[] distances, int left, int right) {
+			if (right - left <= 20) {
+				for (int i = left + 1; i <= right; i++) {
+					int temp = ids[i];
+					double tempDistance = distances[temp];
+					int j = i - 1;
+					while (j >= left && distances[ids[j]] > tempDistance) {
+						ids[j + 1] = ids[j--];
+					}
+					ids[j + 1] = temp;
+				}
+			} else {
+				int median = (left + right) >> 1;
+				int i = left + 1;
+				int j = right;
+				swap(ids, median, i);
+				if (distances[ids[left]] > distances[ids[right]]) {
+					swap(ids, left, right);
+				}
+				if (distances[ids[i]] > distances[ids[right]]) {
+					swap(ids, i, right);
+				}
+				if (distances[ids[left]] > distances[ids[i]]) {
+					swap(ids, left, i);
+				}
+				
+				int temp = ids[i];
+				double tempDistance = distances[temp];
+				while (true) {
+					do {
+						i++;
+					} while (distances[ids[i]] < tempDistance);
+					do {
+						j--;
+					} while (distances[ids[j]] > tempDistance);
+					if (j < i) {
+						break;
+					}
+					swap(ids, i, j);
+				}
+				ids[left + 1] = ids[j];
+				ids[j] = temp;
+				
+				if (right - i + 1 >= j - left) {
+					quicksort(ids, distances, i, right);
+					quicksort(ids, distances, left, j - 1);
+				} else {
+					quicksort(ids, distances, left, j - 1);
+					quicksort(ids, distances, i, right);
+				}
+			}
+		}
+
+		private static void swap(int[] ids, int i, int j) {
+			int tmp = ids[i];
+			ids[i] = ids[j];
+			ids[j] = tmp;
+		}
+		
+	}
+
+}
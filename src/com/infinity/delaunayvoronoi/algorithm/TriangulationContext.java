@@ -0,0 +1,150 @@
+package com.infinity.delaunayvoronoi.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.PanGraph;
+import com.infinity.delaunayvoronoi.model.Triangle;
+
+/**
+ * Holds everything a single run of <code>DelaunayTriangulation</code> works on so one
+ * factory can build many graphs at the same time without the runs seeing each other.
+ * Each thread keeps a context between runs and only clears its collections, so they
+ * don't have to grow again on every call.
+ */
+class TriangulationContext {
+
+	/**
+	 * The context each thread reuses between runs
+	 */
+	private static final ThreadLocal<TriangulationContext> POOL = new ThreadLocal<TriangulationContext>() {
+		@Override
+		protected TriangulationContext initialValue() {
+			return new TriangulationContext(null);
+		}
+	};
+
+	/**
+	 * The end of the last block of search numbers handed to a context, shared by every 
+	 * context so no two searches mark a triangle with the same number
+	 */
+	private static final AtomicLong VISITS = new AtomicLong();
+
+	/**
+	 * How many search numbers a context takes at once
+	 */
+	private static final long VISIT_BLOCK = 1 << 16;
+
+	/**
+	 * The <code>PanGraph</code> being built
+	 */
+	PanGraph<Triangle, Arc, Node> graph;
+
+	/**
+	 * Used to speed up the finding of <code>Node</code>s that represent a given <code>Point</code>
+	 */
+	final CoordinateNodeMap pointsToNodes = new CoordinateNodeMap();
+
+	/**
+	 * The last triangle made, where the next walk starts from
+	 */
+	Triangle lastTriangle;
+
+	/**
+	 * Whether the lists only consumers read are left for the end of the run
+	 */
+	boolean lazyTopology;
+
+	/**
+	 * Scratch list for the triangles in conflict with the <code>Point</code> being inserted
+	 */
+	final List<Triangle> cavity = new ArrayList<Triangle>();
+
+
+	/**
+	 * Scratch list for the edges of the cavity
+	 */
+	final List<Arc> edgeBuffer = new ArrayList<Arc>();
+
+	/**
+	 * Triangles taken out of the graph that go back to the model factory once the
+	 * current insertion no longer reads them
+	 */
+	final List<Triangle> freedTriangles = new ArrayList<Triangle>();
+
+	/**
+	 * <code>Arc</code>s taken out of the graph that go back to the model factory once 
+	 * the current insertion no longer reads them
+	 */
+	final List<Arc> freedArcs = new ArrayList<Arc>();
+
+	/**
+	 * Whether a run on this thread is using the context
+	 */
+	private boolean inUse;
+
+	/**
+	 * The last search number given out
+	 */
+	private long visit;
+
+	/**
+	 * The last search number in the context's current block
+	 */
+	private long lastVisit;
+
+	/**
+	 * Creates a context for the <code>PanGraph</code>
+	 * @param graph The <code>PanGraph</code> being built
+	 */
+	TriangulationContext(PanGraph<Triangle, Arc, Node> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Get the current thread's context ready for a new run
+	 * @param graph The <code>PanGraph</code> the run builds
+	 * @return The thread's context, or a new one if the thread's context is already in use
+	 */
+	static TriangulationContext acquire(PanGraph<Triangle, Arc, Node> graph) {
+		TriangulationContext context = POOL.get();
+		if (context.inUse) {
+			return new TriangulationContext(graph);
+		}
+		context.inUse = true;
+		context.graph = graph;
+		return context;
+	}
+
+	/**
+	 * Get a number for a new search to mark the triangles it reaches with, instead of 
+	 * clearing a set of them before each search
+	 * @return A number no earlier search on any context was given
+	 */
+	long nextVisit() {
+		if (visit == lastVisit) {
+			lastVisit = VISITS.addAndGet(VISIT_BLOCK);
+			visit = lastVisit - VISIT_BLOCK;
+		}
+		return ++visit;
+	}
+
+	/**
+	 * Hands the context back to its thread, dropping everything the run referenced
+	 */
+	void release() {
+		graph = null;
+		lastTriangle = null;
+		lazyTopology = false;
+		pointsToNodes.clear();
+		cavity.clear();
+		edgeBuffer.clear();
+		freedTriangles.clear();
+		freedArcs.clear();
+		inUse = false;
+	}
+
+}
@@ -1,23 +1,21 @@
 package com.infinity.delaunayvoronoi.algorithm;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.PriorityQueue;
-
-import javax.imageio.ImageIO;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine;
+import com.infinity.delaunayvoronoi.algorithm.voronoi.ConvexCell;
 import com.infinity.delaunayvoronoi.algorithm.voronoi.Edge;
 import com.infinity.delaunayvoronoi.algorithm.voronoi.Event;
+import com.infinity.delaunayvoronoi.algorithm.voronoi.EventQueue;
 import com.infinity.delaunayvoronoi.algorithm.voronoi.ListBeachLine;
 import com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola;
-import com.infinity.delaunayvoronoi.algorithm.voronoi.TreeHelper;
+import com.infinity.delaunayvoronoi.algorithm.voronoi.TreeBeachLine;
+import com.infinity.delaunayvoronoi.factory.BaseModelFactory;
 import com.infinity.delaunayvoronoi.model.Arc;
 import com.infinity.delaunayvoronoi.model.Node;
 import com.infinity.delaunayvoronoi.model.PanGraph;
@@ -25,6 +23,11 @@ import com.infinity.delaunayvoronoi.model.Point;
 import com.infinity.delaunayvoronoi.model.Polygon;
 
 /**
+ * Creates a <code>PanGraph</code> of the Voronoi cells of the <code>Point</code>s using
+ * Fortune's sweep.  Each site gets one <code>Polygon</code>, at the same index as its
+ * <code>Point</code> in the <code>List</code> given, the edges between cells become 
+ * <code>Arc</code>s, and the places cells meet become <code>Node</code>s.  Edges that
+ * never end are cut off where they leave the area.
  * See following sites for details
  * http://blog.ivank.net/fortunes-algorithm-and-implementation.html (code hidden and shown by links)
  * http://www.ams.org/samplings/feature-column/fcarc-voronoi
@@ -37,402 +40,516 @@ import com.infinity.delaunayvoronoi.model.Polygon;
 public class VoronoiGraphFactory<R extends Polygon, S extends Arc, T extends Node> implements PanGraphFactory<Polygon, Arc, Node> {
 
 	/**
-	 * The events that will be processed during the building of the graph
+	 * How far, relative to the size of the area, a circle event can be above the 
+	 * sweep line and still be handled, so <code>Point</code>s on one circle all meet
 	 */
-	private PriorityQueue<Event> queue;
-	
+	private static final double SWEEP_TOLERANCE = 1e-10;
+
 	/**
-	 * The arrangements of <code>Parabola</code>s that make the beach line
+	 * How far back along an edge, relative to its length, two edges can meet and still
+	 * count as meeting ahead of both
 	 */
-	private BeachLine beachLine = new ListBeachLine();
-	
+	private static final double MEETING_TOLERANCE = 1e-9;
+
 	/**
-	 * Keeps track of how far along the sweep line has gone through the area
+	 * How close, relative to the size of the area, two corners are before they are one <code>Node</code>
 	 */
-	// TODO: this was the sweep line
-	private double ly = 0;
-	
-	private List<Edge> edges = new ArrayList<Edge>();
-	
-	private List<Point> points = new ArrayList<Point>();
-	
-	private Parabola root;
+	private static final double CORNER_TOLERANCE = 1e-9;
+
+	/**
+	 * How far an edge that starts outside the area reaches when it is finished
+	 */
+	private static final double MINIMUM_REACH = 10;
 
 	private int width;
 
 	private int height;
 	
+	/**
+	 * Used to create new instances of the model objects
+	 */
+	private BaseModelFactory<R, S, T> modelFactory;
+	
+	/**
+	 * Whether the beach line is kept in a balanced tree instead of a list
+	 */
+	private boolean balancedBeachLine = true;
+	
+	/**
+	 * Whether every cell is clipped to the area so it comes out closed
+	 */
+	private boolean bounded;
+	
+	/**
+	 * The convex polygon the cells are clipped to, null to use the width by height rectangle
+	 */
+	private List<Point> clipPolygon;
+	
 	public VoronoiGraphFactory(int width, int height) {
 		this.width = width;
 		this.height = height;
+		this.modelFactory = new BaseModelFactory<R, S, T>();
 	}
 	
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.PanGraphFactory#createPanGraph(java.util.List)
+	 */
 	@Override
 	public PanGraph<Polygon, Arc, Node> createPanGraph(List<Point> points) {
-		PanGraph<Polygon, Arc, Node> graph = new PanGraph<Polygon, Arc, Node>();
-		
-		// ** Initialize the event queue Q with all site events, initialize an 
-		// ** empty status structure T and an empty doubly-connected edge list D.
-		
-		// set the queue to be ordered by y and then by x
-		queue = new PriorityQueue<Event>(points.size(), new Comparator<Event>() {
-			@Override
-			public int compare(Event e1, Event e2) {
-				Double y1 = e1.y;
-				Double y2 = e2.y;
-				
-				if (y1 == y2) {
-					Double x1 = e1.x;
-					Double x2 = e2.x;
-					return x1.compareTo(x2);
+		return new Sweep().run(points);
+	}
+
+	/**
+	 * Set the model factory that is used to create the <code>Polygon</code>s, <code>Arc</code>s and <code>Node</code>s
+	 * @param modelFactory The model factory to use
+	 */
+	public void setModelFactory(BaseModelFactory<R, S, T> modelFactory) {
+		this.modelFactory = modelFactory;
+	}
+
+	/**
+	 * Turns on keeping the beach line in a balanced tree, which finds the arc above 
+	 * each new site in logarithmic time.  The list is simpler but searches the whole
+	 * beach line for every change.  The resulting <code>PanGraph</code> is the same either way.
+	 * @param balancedBeachLine True to use a balanced tree, false to use a list
+	 */
+	public void setBalancedBeachLine(boolean balancedBeachLine) {
+		this.balancedBeachLine = balancedBeachLine;
+	}
+
+	/**
+	 * Turns on clipping every cell to the area, adding <code>Node</code>s and <code>Arc</code>s
+	 * along the edge of the area so each cell is a closed <code>Polygon</code> with its corners
+	 * in clockwise order.  The cells are clipped in parallel.  Without it the cells on the
+	 * outside are left open and the edges that never end stop a little past the area.
+	 * <p>
+	 * Either way there is one <code>Polygon</code> for each <code>Point</code> given, at the
+	 * same index.  Only the first <code>Point</code> at a location is swept, and any later
+	 * one at the same location gets a <code>Polygon</code> without corners.
+	 * @param bounded True to clip every cell to the area
+	 */
+	public void setBounded(boolean bounded) {
+		this.bounded = bounded;
+	}
+
+	/**
+	 * Set the convex polygon the cells are clipped to when they are bounded.  A site
+	 * outside of the polygon can still have a cell reaching into it, and a cell that
+	 * doesn't reach into it ends up without any corners.
+	 * @param clipPolygon The corners of the polygon in order, null to use the width by height rectangle
+	 */
+	public void setClipPolygon(List<Point> clipPolygon) {
+		this.clipPolygon = clipPolygon == null ? null : new ArrayList<Point>(clipPolygon);
+	}
+
+	/**
+	 * Everything one run of the sweep works on, made fresh for each call so
+	 * the factory can be used by many threads at once
+	 */
+	private class Sweep {
+
+		/**
+		 * The events that will be processed during the building of the graph
+		 */
+		private EventQueue queue;
+	
+		/**
+		 * The arrangements of <code>Parabola</code>s that make the beach line
+		 */
+		private BeachLine beachLine = balancedBeachLine ? new TreeBeachLine() : new ListBeachLine();
+	
+		/**
+		 * Keeps track of how far along the sweep line has gone through the area
+		 */
+		// TODO: this was the sweep line
+		private double ly = 0;
+	
+		private List<Edge> edges = new ArrayList<Edge>();
+
+		/**
+		 * Sweeps the sites into the graph
+		 * @param points The sites
+		 * @return The finished graph
+		 */
+		PanGraph<Polygon, Arc, Node> run(List<Point> points) {
+			// ** Initialize the event queue Q with all site events, initialize an 
+			// ** empty status structure T and an empty doubly-connected edge list D.
+		
+			queue = new EventQueue(points);
+		
+			// ** while Q is not empty
+			//  while queue is not empty
+			while (!queue.isEmpty()) {
+				// ** do Remove the event with largest y coordinate from Q
+			//  get the first event from the queue
+				Event event = queue.poll();
+
+				// update how far the sweep line has gone
+				ly = event.y;
+			
+				// ** if the event is site event occuring at the site p
+			//  add a parabola if it is a site event 
+				if (event.pe) {
+					// ** then HandleSiteEvent(p)
+					addParabola(event.point);
+				} else {
+					// ** else HandleCircleEvent(c),where c is the leaf of T representing the arc that will disappear
+					// remove a parabola if it is a circle event
+					removeParabola(event);
 				}
-				
-				return y1.compareTo(y2);
 			}
-		});
-		
-		// for each site
-		for (Point point : points) {
-		//  create a site event e, add add it to the queue
-			queue.offer(new Event(point, true));
-		}
-		
-		// ** while Q is not empty
-		//  while queue is not empty
-		int circleCount = 0;
-		while (!queue.isEmpty()) {
-			// ** do Remove the event with largest y coordinate from Q
-		//  get the first event from the queue
-			Event event = queue.poll();
-
-			// update how far the sweep line has gone
-			ly = event.y;
 			
-			// ** if the event is site event occuring at the site p
-		//  add a parabola if it is a site event 
-			if (event.pe) {
-				// ** then HandleSiteEvent(p)
-				addParabola(event.point);
-			} else {
-				System.out.println("circle # " + ++circleCount);
-				// ** else HandleCircleEvent(c),where c is the leaf of T representing the arc that will disappear
-				// remove a parabola if it is a circle event
-				removeParabola(event);
+			// the breakpoints left on the beach line are the edges that never end
+			finishEdges();
+			
+			// each pair of half edges that grew apart from one point becomes one edge
+			for (Edge edge : edges) {
+				if (edge.getNeighbor() != null) {
+					edge.setStart(edge.getNeighbor().getEnd());
+				}
 			}
+			
+			return bounded ? buildBoundedGraph(points, queue.getSites()) : buildGraph(points, queue.getSites());
 		}
-		//  done!!! 
-		
-		
-		
-		
-		// TODO: do we need to do this?
-//		FinishEdge(root);
-//
-//		for(Edges::iterator i = edges->begin(); i != edges->end(); ++i)
-//		{
-//			if( (*i)->neighbour) 
-//			{
-//				(*i)->start = (*i)->neighbour->end;
-//				delete (*i)->neighbour;
-//			}
-//		}
-		
-		
-		
-		
-		
-		
-		
-		
-		
-		
-		
-		BufferedImage bi = new BufferedImage(500, 500, BufferedImage.TYPE_INT_ARGB);
-		Graphics2D g = bi.createGraphics();
 
-		g.setColor(Color.BLUE);
-		for (Point point : points) {
-			g.fillOval((int)point.x, (int)point.y, 2, 2);
-		}
-		
-		g.setColor(Color.BLACK);
-		for (Edge edge : edges) {
-			if (edge.getEnd() != null) {
-				g.drawLine((int)edge.start.x, (int)edge.start.y, (int)edge.getEnd().x, (int)edge.getEnd().y);
+		private void addParabola(Point p) {
+			if(beachLine.isEmpty()) {
+				beachLine.addFirstParabola(new Parabola(p)); 
+				return;
 			}
-		}
-		
-		File file = new File("lines.png");
-		try {
-			ImageIO.write(bi, "png", file);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		
-		
-		
-		
-		
-		
-		
-		
-		
-		
-		return graph;
-	}
 
-	private void addParabola(Point p) {
-		if(root == null) {
-			root = new Parabola(p); 
-			return;
-		}
-
-		// degenerovan ppad - ob spodn msta ve stejn vce
-		if(root.isLeaf() && root.getSite().y - p.y < 1) {
-			Point fp = root.getSite();
-			root.setLeaf(false);
-			root.setLeft( new Parabola(fp));
-			root.setRight(new Parabola(p));
-			// zatek hrany uprosted mst
-			Point s = new Point((p.x + fp.x)/2, height); 
-			points.add(s);
-			if(p.x > fp.x) {
-				// rozhodnu, kter vlevo, kter vpravo
-				root.setEdge(new Edge(s, fp, p)); 
-			} else  {
-				root.setEdge(new Edge(s, p, fp));
+			// degenerovan ppad - ob spodn msta ve stejn vce
+			// only sites in the top row can land on an arc from a site at the same height,
+			// the edge between them comes straight down from above the area
+			Parabola par = beachLine.getArcUnderPoint(p);
+			if(par.getSite().y == p.y) {
+				Point fp = par.getSite();
+				// zatek hrany uprosted mst
+				Point s = new Point((p.x + fp.x)/2, Math.max(height, p.y)); 
+				Edge edge;
+				if(p.x > fp.x) {
+					// rozhodnu, kter vlevo, kter vpravo
+					edge = new Edge(s, fp, p);
+					beachLine.replaceParabola(par, new Parabola(fp), edge, new Parabola(p));
+				} else  {
+					edge = new Edge(s, p, fp);
+					beachLine.replaceParabola(par, new Parabola(p), edge, new Parabola(fp));
+				}
+				edges.add(edge);
+				return;
 			}
-			edges.add(root.getEdge());
-			return;
-		}
 
-		Parabola par = getParabolaByX(p.x);
-		
-		if (par.getCircleEvent() != null){
-			// TODO: fairly sure all I need to do is remove it from the queue
-//			deleted.insert(par->cEvent);
-			queue.remove(par.getCircleEvent());
-			par.setCircleEvent(null);
-		}
+			if (par.getCircleEvent() != null){
+				par.getCircleEvent().invalidate();
+				par.setCircleEvent(null);
+			}
 		
-		Point start = new Point(p.x, getY(par.getSite(), p.x));
-		points.add(start);
+			Point start = new Point(p.x, getY(par.getSite(), p.x));
 
-		Edge el = new Edge(start, par.getSite(), p);
-		Edge er = new Edge(start, p, par.getSite());
+			Edge el = new Edge(start, par.getSite(), p);
+			Edge er = new Edge(start, p, par.getSite());
 
-		el.setNeighbor(er);
-		edges.add(el);
+			el.setNeighbor(er);
+			edges.add(el);
 
-		// pestavuju strom .. vkldm novou parabolu
-		par.setEdge(er);
-		par.setLeaf(false);
+			// split the arc around the new one
+			Parabola p0 = new Parabola(par.getSite());
+			Parabola p1 = new Parabola(p);
+			Parabola p2 = new Parabola(par.getSite());
+			beachLine.replaceParabola(par, p0, el, p1, er, p2);
+		
+			checkCircleEvent(p0);
+			checkCircleEvent(p2);
+		}
 
-		Parabola p0 = new Parabola(par.getSite());
-		Parabola p1 = new Parabola(p);
-		Parabola p2 = new Parabola(par.getSite());
+		private void removeParabola(Event e) {
+			Parabola p1 = e.getArch();
 
-		par.setRight(p2);
-		par.setLeft(new Parabola());
-		par.getLeft().setEdge(el);
+			Edge xl = beachLine.getEdgeLeftOfParabola(p1);
+			Edge xr = beachLine.getEdgeRightOfParabola(p1);
 
-		par.getLeft().setLeft(p0);
-		par.getLeft().setRight(p1);
-		
-		checkCircleEvent(p0);
-		checkCircleEvent(p2);
-	}
+			Parabola p0 = beachLine.getParabolaLeftOfParabola(p1);
+			Parabola p2 = beachLine.getParabolaRightOfParabola(p1);
 
-	private void removeParabola(Event e) {
-		Parabola p1 = e.getArch();
+	//		if(p0 == p2) std::cout << "chyba - prav a lev parabola m stejn ohnisko!\n";
 
-		Parabola xl = TreeHelper.getLeftParent(p1);
-		Parabola xr = TreeHelper.getRightParent(p1);
+			if(p0.getCircleEvent() != null){
+				p0.getCircleEvent().invalidate();
+				p0.setCircleEvent(null);
+			}
+			if(p2.getCircleEvent() != null){ 
+				p2.getCircleEvent().invalidate();
+				p2.setCircleEvent(null);
+			}
 
-		Parabola p0 = TreeHelper.getLeftChild(xl);
-		Parabola p2 = TreeHelper.getRightChild(xr);
+			// the center is where the edges met, working it out again from the
+			// vanishing parabola loses precision when its site is near the sweep line
+			Point p = e.getCenter();
 
-//		if(p0 == p2) std::cout << "chyba - prav a lev parabola m stejn ohnisko!\n";
+			xl.setEnd(p);
+			xr.setEnd(p);
+		
+			Edge edge = new Edge(p, p0.getSite(), p2.getSite());
+			edges.add(edge);
+			beachLine.replaceSequenceWithEdge(p0, p1, p2, edge);
 
-		if(p0.getCircleEvent() != null){
-//			deleted.insert(p0->cEvent);
-			queue.remove(p0.getCircleEvent());
-//			p0->cEvent = 0; 
-			p0.setCircleEvent(null);
-		}
-		if(p2.getCircleEvent() != null){ 
-//			deleted.insert(p2->cEvent);
-			queue.remove(p2.getCircleEvent());
-//			p2->cEvent = 0; 
-			p2.setCircleEvent(null);
+			checkCircleEvent(p0);
+			checkCircleEvent(p2);
 		}
 
-		Point p = new Point(e.point.x, getY(p1.getSite(), e.point.x));
-		points.add(p);
+		private void checkCircleEvent(Parabola b) {
+			Parabola a = beachLine.getParabolaLeftOfParabola(b);
+			Parabola c = beachLine.getParabolaRightOfParabola(b);
 
-		xl.getEdge().setEnd(p);
-		xr.getEdge().setEnd(p);
-		
-		Parabola higher = null;
-		Parabola par = p1;
-		while(par != root) {
-			par = par.getParent();
-			if(par == xl) {
-				higher = xl;
-			}
-			if(par == xr) {
-				higher = xr;
+			if(a == null || c == null || a.getSite() == c.getSite()) {
+				return;
 			}
-		}
-		higher.setEdge(new Edge(p, p0.getSite(), p2.getSite()));
-		edges.add(higher.getEdge());
 
-		Parabola gparent = p1.getParent().getParent();
-		if(p1.getParent().getLeft() == p1) {
-			if(gparent.getLeft() == p1.getParent()) {
-				gparent.setLeft(p1.getParent().getRight());
-			}
-			if(gparent.getRight() == p1.getParent()) {
-				gparent.setRight(p1.getParent().getRight());
-			}
-		} else {
-			if(gparent.getLeft() == p1.getParent()) {
-				gparent.setLeft(p1.getParent().getLeft());
+			Point s = null;
+			s = getEdgeIntersection(beachLine.getEdgeLeftOfParabola(b), beachLine.getEdgeRightOfParabola(b));
+			if(s == null) {
+				return;
 			}
-			if(gparent.getRight() == p1.getParent()) {
-				gparent.setRight(p1.getParent().getLeft());
-			}
-		}
 
-		checkCircleEvent(p0);
-		checkCircleEvent(p2);
-	}
+			double dx = a.getSite().x - s.x;
+			double dy = a.getSite().y - s.y;
 
-	private void checkCircleEvent(Parabola b) {
-		Parabola lp = TreeHelper.getLeftParent(b);
-		Parabola rp = TreeHelper.getRightParent(b);
+			double d = Math.sqrt( (dx * dx) + (dy * dy) );
 
-		Parabola a = TreeHelper.getLeftChild(lp);
-		Parabola c = TreeHelper.getRightChild(rp);
-
-		if(a == null || c == null || a.getSite() == c.getSite()) {
-			return;
-		}
+			// a circle that ends on the sweep line is still ahead of it, so sites
+			// on one circle all meet at its center
+			if(s.y - d > ly + SWEEP_TOLERANCE * Math.max(width, height)) { 
+				return;
+			}
 
-		Point s = null;
-		s = getEdgeIntersection(lp.getEdge(), rp.getEdge());
-		if(s == null) {
-			return;
+			Event e = new Event(new Point(s.x, s.y - d), false);
+			b.setCircleEvent(e);
+			e.setArch(b);
+			e.setCenter(s);
+			queue.addCircleEvent(e);
 		}
 
-		double dx = a.getSite().x - s.x;
-		double dy = a.getSite().y - s.y;
+		/**
+		 * Finds where two edges meet if both are growing towards that place.  The 
+		 * edges are followed along their directions rather than their slopes so
+		 * the vertical edges between sites at the same height work too.
+		 * @param a The first edge
+		 * @param b The second edge
+		 * @return Where the edges meet or null if they never do
+		 */
+		private Point getEdgeIntersection(Edge a, Edge b) {
+			Point da = a.direction;
+			Point db = b.direction;
+			double denominator = da.x * db.y - da.y * db.x;
+			if (denominator == 0) {
+				return null;
+			}
 
-		double d = Math.sqrt( (dx * dx) + (dy * dy) );
+			double sx = b.getStart().x - a.getStart().x;
+			double sy = b.getStart().y - a.getStart().y;
+			double alongA = (sx * db.y - sy * db.x) / denominator;
+			double alongB = (sx * da.y - sy * da.x) / denominator;
+			if (alongA < -MEETING_TOLERANCE || alongB < -MEETING_TOLERANCE) {
+				return null;
+			}
 
-		if(s.y - d >= ly) { 
-			return;
+			return new Point(a.getStart().x + alongA * da.x, a.getStart().y + alongA * da.y);
 		}
-
-		Event e = new Event(new Point(s.x, s.y - d), false);
-		points.add(e.point);
-		b.setCircleEvent(e);
-		e.setArch(b);
-		queue.offer(e);
-	}
-
-	private Point getEdgeIntersection(Edge a, Edge b) {
-//		double x = (b->g-a->g) / (a->f - b->f);
-		double x = (b.g-a.g) / (a.f - b.f);
-//		double y = a->f * x + a->g;
-		double y = a.f * x + a.g;
-
-//		if((x - a->start->x)/a->direction->x < 0) return 0;
-		if((x - a.start.x)/a.direction.x < 0) return null;
-//		if((y - a->start->y)/a->direction->y < 0) return 0;
-		if((y - a.start.y)/a.direction.y < 0) return null;
-			
-//		if((x - b->start->x)/b->direction->x < 0) return 0;
-		if((x - b.start.x)/b.direction.x < 0) return null;
-//		if((y - b->start->y)/b->direction->y < 0) return 0;
-		if((y - b.start.y)/b.direction.y < 0) return null;	
-
-		Point p = new Point(x, y);
-		points.add(p);
-		return p;
-	}
 	
-	private Point findMidPoint(Edge leftEdge /* a */, Edge rightEdge /* b */) {
-		double x = (rightEdge.g - leftEdge.g) / (leftEdge.f - rightEdge.f);
-		double y = leftEdge.f * x + leftEdge.g;
+		/**
+		 * Ends the edges of the breakpoints still on the beach line where they leave the area
+		 */
+		private void finishEdges() {
+			for (Edge edge : beachLine.getEdges()) {
+				finishEdge(edge);
+			}
+		}
 
-		if((x - leftEdge.start.x) / leftEdge.direction.x < 0) return null;
-		if((y - leftEdge.start.y) / leftEdge.direction.y < 0) return null;
+		/**
+		 * Ends the edge where it leaves the area, or a short way past its start 
+		 * if it starts outside the area and heads away from it
+		 * @param edge The edge that never ended
+		 */
+		private void finishEdge(Edge edge) {
+			Point start = edge.getStart();
+			Point direction = edge.direction;
 			
-		if((x - rightEdge.start.x) / rightEdge.direction.x < 0) return null;
-		if((y - rightEdge.start.y) / rightEdge.direction.y < 0) return null;	
-
-		Point point = new Point(x, y);		
-		return point;
-	}
-	
-	private double getY(Point p, double x) {
-		double dp = 2 * (p.y - ly);
-		double a1 = 1 / dp;
-		double b1 = -2 * p.x / dp;
-		double c1 = ly + dp / 4 + p.x * p.x / dp;
-		
-		return(a1*x*x + b1*x + c1);
-	}
-
-	private Parabola getParabolaByX(double xx) {
-		Parabola par = root;
-		double x = 0.0;
-
-		// projdu stromem dokud nenarazm na vhodn list
-		while(!par.isLeaf()) { 
-			x = getXOfEdge(par, ly);
-			if(x > xx) {
-				par = par.getLeft();
-			} else {
-				par = par.getRight();				
+			double reach = Double.POSITIVE_INFINITY;
+			if (direction.x > 0) {
+				reach = Math.min(reach, (width - start.x) / direction.x);
+			} else if (direction.x < 0) {
+				reach = Math.min(reach, -start.x / direction.x);
+			}
+			if (direction.y > 0) {
+				reach = Math.min(reach, (height - start.y) / direction.y);
+			} else if (direction.y < 0) {
+				reach = Math.min(reach, -start.y / direction.y);
 			}
+			double length = Math.sqrt(direction.x * direction.x + direction.y * direction.y);
+			reach = Math.max(reach, MINIMUM_REACH / length);
+			
+			edge.setEnd(new Point(start.x + reach * direction.x, start.y + reach * direction.y));
 		}
-		return par;
-	}
-	
-	private double getXOfEdge(Parabola par, double y) {
-		Parabola left = TreeHelper.getLeftChild(par);
-		Parabola right= TreeHelper.getRightChild(par);
-
-		Point p = left.getSite();
-		Point r = right.getSite();
 
-		double dp = 2.0 * (p.y - y);
-		double a1 = 1.0 / dp;
-		double b1 = -2.0 * p.x / dp;
-		double c1 = y + dp / 4 + p.x * p.x / dp;
-				
-		dp = 2.0 * (r.y - y);
-		double a2 = 1.0 / dp;
-		double b2 = -2.0 * r.x/dp;
-		double c2 = ly + dp / 4 + r.x * r.x / dp;
+		/**
+		 * Turns the finished edges into the cells of the graph
+		 * @param points The <code>Point</code>s given, one cell is made for each in the same order
+		 * @param sites The sites that were swept, the first <code>Point</code> at each location
+		 * @return The graph of the cells
+		 */
+		private PanGraph<Polygon, Arc, Node> buildGraph(List<Point> points, List<Point> sites) {
+			PanGraph<Polygon, Arc, Node> graph = new PanGraph<Polygon, Arc, Node>();
+			
+			// the sweep kept the first Point at each location, a later one gets an empty cell
+			Map<Point, Polygon> cells = new IdentityHashMap<Point, Polygon>(sites.size() * 2);
+			Map<Polygon, List<Node>> cellCorners = new IdentityHashMap<Polygon, List<Node>>();
+			for (Point site : sites) {
+				cells.put(site, null);
+			}
+			for (Point point : points) {
+				Polygon cell = modelFactory.polygon();
+				graph.addPolygon(cell);
+				if (cells.containsKey(point) && cells.get(point) == null) {
+					cells.put(point, cell);
+					cellCorners.put(cell, new ArrayList<Node>());
+				}
+			}
+			
+			// the edges from every circle event at one place all end on the same corner
+			CoordinateNodeMap corners = new CoordinateNodeMap();
+			corners.setTolerance(CORNER_TOLERANCE * Math.max(width, height));
+			
+			for (Edge edge : edges) {
+				Node one = getCorner(graph, corners, edge.getStart());
+				Node two = getCorner(graph, corners, edge.getEnd());
+				if (one == two) {
+					// sites on one circle leave edges with no length
+					continue;
+				}
 				
-		double a = a1 - a2;
-		double b = b1 - b2;
-		double c = c1 - c2;
+				Arc arc = modelFactory.arc(one, two);
+				graph.addArc(arc);
+				one.addProtrudingArc(arc);
+				two.addProtrudingArc(arc);
+				one.addAdjacentNode(two);
+				two.addAdjacentNode(one);
 				
-		double disc = b*b - 4 * a * c;
-		double x1 = (-b + Math.sqrt(disc)) / (2*a);
-		double x2 = (-b - Math.sqrt(disc)) / (2*a);
-
-		double ry;
-		if(p.y < r.y ) {
-			ry =  Math.max(x1, x2);
-		} else {
-			ry = Math.min(x1, x2);
+				Polygon left = cells.get(edge.getLeft());
+				Polygon right = cells.get(edge.getRight());
+				for (Polygon cell : new Polygon[] { left, right }) {
+					cell.addBorder(arc);
+					arc.addBorderingPolygon(cell);
+					List<Node> cellNodes = cellCorners.get(cell);
+					if (!cellNodes.contains(one)) {
+						cellNodes.add(one);
+					}
+					if (!cellNodes.contains(two)) {
+						cellNodes.add(two);
+					}
+				}
+				left.addNeighboringPolygon(right);
+				right.addNeighboringPolygon(left);
+			}
+			
+			// put each cell's corners in order around it
+			for (Point site : sites) {
+				Polygon cell = cells.get(site);
+				List<Node> cellNodes = cellCorners.get(cell);
+				if (cellNodes.size() > 2) {
+					Collections.sort(cellNodes, new ClockwisePointComparator(cellNodes));
+				}
+				for (Node node : cellNodes) {
+					cell.addCorner(node);
+					node.addTouchingPolygon(cell);
+				}
+			}
+			
+			return graph;
 		}
 
-		return ry;
+		/**
+		 * Clips the area down to each site's cell, cutting away the side of the bisector with
+		 * each site it shares an edge with, and turns the closed cells into the graph
+		 * @param points The <code>Point</code>s given, one cell is made for each in the same order
+		 * @param sites The sites that were swept, the first <code>Point</code> at each location
+		 * @return The graph of the cells
+		 */
+		private PanGraph<Polygon, Arc, Node> buildBoundedGraph(List<Point> points, final List<Point> sites) {
+			Map<Point, Integer> indexes = new IdentityHashMap<Point, Integer>(sites.size() * 2);
+			for (int i = 0; i < sites.size(); i++) {
+				indexes.put(sites.get(i), i);
+			}
+			
+			// gather each site's neighbors into one array, in a block per site
+			int[] lefts = new int[edges.size()];
+			int[] rights = new int[edges.size()];
+			final int[] starts = new int[sites.size() + 1];
+			for (int e = 0; e < lefts.length; e++) {
+				lefts[e] = indexes.get(edges.get(e).getLeft());
+				rights[e] = indexes.get(edges.get(e).getRight());
+				starts[lefts[e] + 1]++;
+				starts[rights[e] + 1]++;
+			}
+			for (int i = 0; i < sites.size(); i++) {
+				starts[i + 1] += starts[i];
+			}
+			final int[] neighbors = new int[starts[sites.size()]];
+			int[] filled = new int[sites.size()];
+			for (int e = 0; e < lefts.length; e++) {
+				neighbors[starts[lefts[e]] + filled[lefts[e]]++] = rights[e];
+				neighbors[starts[rights[e]] + filled[rights[e]]++] = lefts[e];
+			}
+			
+			final ConvexCell area = clipPolygon == null ? new ConvexCell(0, 0, width, height) : new ConvexCell(clipPolygon);
+			final ConvexCell[] siteCells = new ConvexCell[sites.size()];
+			IntStream.range(0, siteCells.length).parallel().forEach(i -> {
+				ConvexCell cell = new ConvexCell(area);
+				for (int n = starts[i]; n < starts[i + 1]; n++) {
+					cell.clipToBisector(sites.get(i), sites.get(neighbors[n]));
+				}
+				siteCells[i] = cell;
+			});
+			
+			// put the cells back in the order given, a Point the sweep dropped gets an empty cell
+			ConvexCell[] cells = new ConvexCell[points.size()];
+			boolean[] placed = new boolean[sites.size()];
+			for (int i = 0; i < cells.length; i++) {
+				Integer site = indexes.get(points.get(i));
+				if (site != null && !placed[site]) {
+					placed[site] = true;
+					cells[i] = siteCells[site];
+				} else {
+					cells[i] = new ConvexCell(new ArrayList<Point>());
+				}
+			}
+			
+			return new CellGraphBuilder<R, S, T>(modelFactory, CORNER_TOLERANCE * Math.max(width, height)).build(cells);
+		}
+
+		/**
+		 * Get the <code>Node</code> at the location, making it if there isn't one yet
+		 * @param graph The graph being built
+		 * @param corners The <code>Node</code>s already made
+		 * @param point The location of the corner
+		 * @return The <code>Node</code> at the location
+		 */
+		private Node getCorner(PanGraph<Polygon, Arc, Node> graph, CoordinateNodeMap corners, Point point) {
+			Node node = corners.get(point);
+			if (node == null) {
+				node = modelFactory.node(point);
+				corners.put(point, node);
+				graph.addNode(node);
+			}
+			return node;
+		}
+	
+		private double getY(Point p, double x) {
+			double dp = 2 * (p.y - ly);
+			double a1 = 1 / dp;
+			double b1 = -2 * p.x / dp;
+			double c1 = ly + dp / 4 + p.x * p.x / dp;
+		
+			return(a1*x*x + b1*x + c1);
+		}
 	}
 }
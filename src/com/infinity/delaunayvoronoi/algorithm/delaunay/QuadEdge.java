@@ -0,0 +1,180 @@
+package com.infinity.delaunayvoronoi.algorithm.delaunay;
+
+/**
+ * One of the four directed edges in a Guibas-Stolfi quad-edge record.  Every edge
+ * knows its rotated dual and the next edge counterclockwise around its origin, 
+ * which is enough to walk both the triangulation and its dual.
+ * See Guibas and Stolfi, "Primitives for the manipulation of general subdivisions 
+ * and the computation of Voronoi diagrams".
+ */
+public class QuadEdge {
+
+	/**
+	 * The vertex this edge starts at, -1 for the dual edges
+	 */
+	private int origin = -1;
+	
+	/**
+	 * The dual edge rotated 90 degrees counterclockwise
+	 */
+	private QuadEdge rot;
+	
+	/**
+	 * The next edge counterclockwise around the origin
+	 */
+	private QuadEdge onext;
+	
+	/**
+	 * Scratch space for traversals
+	 */
+	private int mark;
+
+	/**
+	 * Use <code>makeEdge</code> to create the four edges together
+	 */
+	private QuadEdge() {
+	}
+
+	/**
+	 * Creates a new edge that isn't connected to anything
+	 * @param origin The vertex the edge starts at
+	 * @param destination The vertex the edge ends at
+	 * @return The edge from origin to destination
+	 */
+	public static QuadEdge makeEdge(int origin, int destination) {
+		QuadEdge q0 = new QuadEdge();
+		QuadEdge q1 = new QuadEdge();
+		QuadEdge q2 = new QuadEdge();
+		QuadEdge q3 = new QuadEdge();
+		
+		q0.rot = q1;
+		q1.rot = q2;
+		q2.rot = q3;
+		q3.rot = q0;
+		
+		q0.onext = q0;
+		q1.onext = q3;
+		q2.onext = q2;
+		q3.onext = q1;
+		
+		q0.origin = origin;
+		q2.origin = destination;
+		return q0;
+	}
+
+	/**
+	 * Joins or separates the rings of edges around the origins of a and b
+	 * @param a The first edge
+	 * @param b The second edge
+	 */
+	public static void splice(QuadEdge a, QuadEdge b) {
+		QuadEdge alpha = a.onext.rot;
+		QuadEdge beta = b.onext.rot;
+		
+		QuadEdge t1 = b.onext;
+		QuadEdge t2 = a.onext;
+		QuadEdge t3 = beta.onext;
+		QuadEdge t4 = alpha.onext;
+		
+		a.onext = t1;
+		b.onext = t2;
+		alpha.onext = t3;
+		beta.onext = t4;
+	}
+
+	/**
+	 * Adds a new edge from the destination of a to the origin of b so that
+	 * all three edges share the same left face
+	 * @param a The edge the new one starts after
+	 * @param b The edge the new one ends before
+	 * @return The new edge
+	 */
+	public static QuadEdge connect(QuadEdge a, QuadEdge b) {
+		QuadEdge e = makeEdge(a.destination(), b.origin);
+		splice(e, a.lnext());
+		splice(e.sym(), b);
+		return e;
+	}
+
+	/**
+	 * Disconnects the edge from the rest of the subdivision
+	 * @param e The edge to delete
+	 */
+	public static void deleteEdge(QuadEdge e) {
+		splice(e, e.oprev());
+		splice(e.sym(), e.sym().oprev());
+	}
+
+	/**
+	 * Get the vertex this edge starts at
+	 * @return The origin vertex
+	 */
+	public int origin() {
+		return origin;
+	}
+
+	/**
+	 * Get the vertex this edge ends at
+	 * @return The destination vertex
+	 */
+	public int destination() {
+		return sym().origin;
+	}
+
+	/**
+	 * Get the same edge pointing the other way
+	 * @return The symmetric edge
+	 */
+	public QuadEdge sym() {
+		return rot.rot;
+	}
+
+	/**
+	 * Get the next edge counterclockwise around the origin
+	 * @return The next edge around the origin
+	 */
+	public QuadEdge onext() {
+		return onext;
+	}
+
+	/**
+	 * Get the next edge clockwise around the origin
+	 * @return The previous edge around the origin
+	 */
+	public QuadEdge oprev() {
+		return rot.onext.rot;
+	}
+
+	/**
+	 * Get the next edge counterclockwise around the left face
+	 * @return The next edge around the left face
+	 */
+	public QuadEdge lnext() {
+		return rot.rot.rot.onext.rot;
+	}
+
+	/**
+	 * Get the next edge clockwise around the right face
+	 * @return The previous edge around the right face
+	 */
+	public QuadEdge rprev() {
+		return sym().onext;
+	}
+
+	/**
+	 * Get the traversal scratch value
+	 * @return The mark
+	 */
+	public int getMark() {
+		return mark;
+	}
+
+	/**
+	 * Set the traversal scratch value
+	 * @param mark The mark
+	 */
+	public void setMark(int mark) {
+		this.mark = mark;
+	}
+	
+}
@@ -0,0 +1,107 @@
+package com.infinity.delaunayvoronoi.algorithm.order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.infinity.delaunayvoronoi.model.Point;
+
+/**
+ * Biased randomized insertion order.  The <code>Point</code>s are shuffled and split 
+ * into rounds that double in size, the last round holding half of the <code>Point</code>s.  
+ * Each round is then sorted along a space filling curve.  The randomness between rounds 
+ * keeps the triangulation balanced while the curve inside each round keeps insertion local.
+ * See Amenta, Choi and Rote, "Incremental constructions con BRIO".
+ */
+public class BrioInsertionOrder implements InsertionOrder {
+
+	/**
+	 * The default size of the first round
+	 */
+	public static final int DEFAULT_MINIMUM_ROUND_SIZE = 64;
+
+	/**
+	 * Sorts the <code>Point</code>s inside of each round
+	 */
+	private final CurveInsertionOrder curve;
+
+	/**
+	 * Seed for shuffling the <code>Point</code>s so runs are repeatable
+	 */
+	private final long seed;
+
+	/**
+	 * Rounds are not split any smaller than this
+	 */
+	private final int minimumRoundSize;
+
+	/**
+	 * Creates a new <code>BrioInsertionOrder</code> that sorts each round along a Hilbert curve
+	 * @param parallel True to sort the rounds in parallel
+	 */
+	public BrioInsertionOrder(boolean parallel) {
+		this(new HilbertInsertionOrder(parallel), 121794L, DEFAULT_MINIMUM_ROUND_SIZE);
+	}
+
+	/**
+	 * Creates a new <code>BrioInsertionOrder</code>
+	 * @param curve Sorts the <code>Point</code>s inside of each round
+	 * @param seed Seed for shuffling the <code>Point</code>s
+	 * @param minimumRoundSize Rounds are not split any smaller than this
+	 */
+	public BrioInsertionOrder(CurveInsertionOrder curve, long seed, int minimumRoundSize) {
+		this.curve = curve;
+		this.seed = seed;
+		this.minimumRoundSize = Math.max(1, minimumRoundSize);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.order.InsertionOrder#order(java.util.List)
+	 */
+	@Override
+	public List<Point> order(List<Point> points) {
+		int[] indexes = orderIndexes(points);
+		List<Point> ordered = new ArrayList<Point>(indexes.length);
+		for (int index : indexes) {
+			ordered.add(points.get(index));
+		}
+		return ordered;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.order.InsertionOrder#orderIndexes(java.util.List)
+	 */
+	@Override
+	public int[] orderIndexes(List<Point> points) {
+		int[] indexes = new int[points.size()];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = i;
+		}
+		
+		// shuffle everything so the rounds are random samples
+		Random random = new Random(seed);
+		for (int i = indexes.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = indexes[i];
+			indexes[i] = indexes[j];
+			indexes[j] = tmp;
+		}
+		
+		// every round shares the same curve so they line up with each other
+		double[] bounds = curve.findBounds(points);
+		
+		// the last round has half the points, the one before it a quarter and so on
+		int end = indexes.length;
+		while (end > 0) {
+			int start = end / 2;
+			if (start < minimumRoundSize) {
+				start = 0;
+			}
+			curve.sort(points, indexes, start, end, bounds);
+			end = start;
+		}
+		
+		return indexes;
+	}
+
+}
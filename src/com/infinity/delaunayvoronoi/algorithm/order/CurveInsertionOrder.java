@@ -0,0 +1,142 @@
+package com.infinity.delaunayvoronoi.algorithm.order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.util.SpaceFillingCurve;
+
+/**
+ * Orders <code>Point</code>s along a space filling curve laid over their bounding box.
+ * The curve position and the <code>Point</code>'s index are packed into a single 
+ * <code>long</code> so the sort runs over a primitive array.
+ */
+public abstract class CurveInsertionOrder implements InsertionOrder {
+
+	/**
+	 * Whether the curve positions are calculated and sorted in parallel
+	 */
+	private final boolean parallel;
+
+	/**
+	 * Creates a new <code>CurveInsertionOrder</code>
+	 * @param parallel True to calculate and sort the curve positions in parallel
+	 */
+	protected CurveInsertionOrder(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Calculates the position of a grid cell along the curve
+	 * @param x The column of the cell
+	 * @param y The row of the cell
+	 * @return The position along the curve, must fit in 32 bits
+	 */
+	protected abstract long curveIndex(int x, int y);
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.order.InsertionOrder#order(java.util.List)
+	 */
+	@Override
+	public List<Point> order(List<Point> points) {
+		int[] indexes = orderIndexes(points);
+		List<Point> ordered = new ArrayList<Point>(indexes.length);
+		for (int index : indexes) {
+			ordered.add(points.get(index));
+		}
+		return ordered;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.order.InsertionOrder#orderIndexes(java.util.List)
+	 */
+	@Override
+	public int[] orderIndexes(List<Point> points) {
+		int[] indexes = new int[points.size()];
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = i;
+		}
+		sort(points, indexes, 0, indexes.length, findBounds(points));
+		return indexes;
+	}
+
+	/**
+	 * Sorts a range of <code>Point</code> indexes along the curve
+	 * @param points The <code>Point</code>s the indexes refer to
+	 * @param indexes The indexes to sort in place
+	 * @param from The first index to sort, inclusive
+	 * @param to The last index to sort, exclusive
+	 * @param bounds The minimum x, minimum y, maximum x and maximum y of the area the curve covers
+	 */
+	protected void sort(final List<Point> points, int[] indexes, int from, int to, double[] bounds) {
+		int size = to - from;
+		if (size < 2) {
+			return;
+		}
+		
+		final double minX = bounds[0];
+		final double minY = bounds[1];
+		final double scaleX = scale(bounds[0], bounds[2]);
+		final double scaleY = scale(bounds[1], bounds[3]);
+		
+		// the curve position goes in the upper half and the index in the lower, with the
+		// sign bit flipped so the signed sort puts positions past 2^31 last instead of first
+		final long[] keys = new long[size];
+		final int[] copy = Arrays.copyOfRange(indexes, from, to);
+		IntStream positions = IntStream.range(0, size);
+		if (parallel) {
+			positions = positions.parallel();
+		}
+		positions.forEach(i -> {
+			Point point = points.get(copy[i]);
+			int x = SpaceFillingCurve.toGrid(point.x, minX, scaleX);
+			int y = SpaceFillingCurve.toGrid(point.y, minY, scaleY);
+			keys[i] = ((curveIndex(x, y) << 32) | i) ^ Long.MIN_VALUE;
+		});
+		
+		if (parallel) {
+			Arrays.parallelSort(keys);
+		} else {
+			Arrays.sort(keys);
+		}
+		
+		for (int i = 0; i < size; i++) {
+			indexes[from + i] = copy[(int) keys[i]];
+		}
+	}
+
+	/**
+	 * Find the bounding box of the <code>Point</code>s
+	 * @param points The <code>Point</code>s to find the bounding box of
+	 * @return The minimum x, minimum y, maximum x and maximum y
+	 */
+	protected double[] findBounds(List<Point> points) {
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		
+		for (Point p : points) {
+			minX = Math.min(minX, p.x);
+			minY = Math.min(minY, p.y);
+			maxX = Math.max(maxX, p.x);
+			maxY = Math.max(maxY, p.y);
+		}
+		
+		return new double[] { minX, minY, maxX, maxY };
+	}
+
+	/**
+	 * Get the number of grid cells per unit along one axis
+	 * @param min The smallest coordinate
+	 * @param max The largest coordinate
+	 * @return The number of cells per unit
+	 */
+	private double scale(double min, double max) {
+		double extent = max - min;
+		return extent > 0 ? (SpaceFillingCurve.SIZE - 1) / extent : 0;
+	}
+	
+}
@@ -0,0 +1,33 @@
+package com.infinity.delaunayvoronoi.algorithm.order;
+
+import com.infinity.delaunayvoronoi.util.SpaceFillingCurve;
+
+/**
+ * Orders <code>Point</code>s along a Hilbert curve
+ */
+public class HilbertInsertionOrder extends CurveInsertionOrder {
+
+	/**
+	 * Creates a new sequential <code>HilbertInsertionOrder</code>
+	 */
+	public HilbertInsertionOrder() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new <code>HilbertInsertionOrder</code>
+	 * @param parallel True to calculate and sort the curve positions in parallel
+	 */
+	public HilbertInsertionOrder(boolean parallel) {
+		super(parallel);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.order.CurveInsertionOrder#curveIndex(int, int)
+	 */
+	@Override
+	protected long curveIndex(int x, int y) {
+		return SpaceFillingCurve.hilbertIndex(x, y);
+	}
+
+}
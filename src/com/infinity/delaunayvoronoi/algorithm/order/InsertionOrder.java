@@ -0,0 +1,28 @@
+package com.infinity.delaunayvoronoi.algorithm.order;
+
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.model.Point;
+
+/**
+ * Decides the order <code>Point</code>s are inserted into an incremental triangulation.
+ * Inserting nearby <code>Point</code>s one after another keeps walks short and
+ * keeps the touched triangles in the CPU caches.
+ */
+public interface InsertionOrder {
+
+	/**
+	 * Orders the <code>Point</code>s for insertion
+	 * @param points The <code>Point</code>s in the caller's order, they are not modified
+	 * @return A new <code>List</code> of the same <code>Point</code>s in insertion order
+	 */
+	List<Point> order(List<Point> points);
+	
+	/**
+	 * Orders the <code>Point</code>s for insertion by their position in the <code>List</code>
+	 * @param points The <code>Point</code>s in the caller's order, they are not modified
+	 * @return The indexes of the <code>Point</code>s in insertion order
+	 */
+	int[] orderIndexes(List<Point> points);
+	
+}
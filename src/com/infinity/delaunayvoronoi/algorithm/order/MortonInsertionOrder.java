@@ -0,0 +1,34 @@
+package com.infinity.delaunayvoronoi.algorithm.order;
+
+import com.infinity.delaunayvoronoi.util.SpaceFillingCurve;
+
+/**
+ * Orders <code>Point</code>s along a Morton (Z-order) curve.  Cheaper to calculate 
+ * than the Hilbert curve but with larger jumps between quadrants.
+ */
+public class MortonInsertionOrder extends CurveInsertionOrder {
+
+	/**
+	 * Creates a new sequential <code>MortonInsertionOrder</code>
+	 */
+	public MortonInsertionOrder() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new <code>MortonInsertionOrder</code>
+	 * @param parallel True to calculate and sort the curve positions in parallel
+	 */
+	public MortonInsertionOrder(boolean parallel) {
+		super(parallel);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.order.CurveInsertionOrder#curveIndex(int, int)
+	 */
+	@Override
+	protected long curveIndex(int x, int y) {
+		return SpaceFillingCurve.mortonIndex(x, y);
+	}
+
+}
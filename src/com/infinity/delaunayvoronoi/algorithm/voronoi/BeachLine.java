@@ -1,27 +1,95 @@
 package com.infinity.delaunayvoronoi.algorithm.voronoi;
 
+import java.util.List;
+
 import com.infinity.delaunayvoronoi.model.Point;
 
+/**
+ * The <code>Parabola</code>s of the sites above the sweep line in order from left
+ * to right, with the <code>Edge</code> traced by each breakpoint between them
+ */
 public interface BeachLine {
 
+	/**
+	 * Finds the <code>Parabola</code> directly above a new site while the sweep line is at the site
+	 * @param insertedPoint The new site
+	 * @return The <code>Parabola</code> above the site or null if the beach line is empty
+	 */
 	Parabola getArcUnderPoint(Point insertedPoint);
 
+	/**
+	 * Splits a <code>Parabola</code> around a new one
+	 * @param replaceMe The <code>Parabola</code> being split
+	 * @param a The left piece of the split <code>Parabola</code>
+	 * @param leftEdge The <code>Edge</code> between the left piece and the new <code>Parabola</code>
+	 * @param b The new <code>Parabola</code>
+	 * @param rightEdge The <code>Edge</code> between the new <code>Parabola</code> and the right piece
+	 * @param c The right piece of the split <code>Parabola</code>
+	 */
 	void replaceParabola(Parabola replaceMe, Parabola a, Edge leftEdge, Parabola b, Edge rightEdge, Parabola c);
 
+	/**
+	 * Puts two <code>Parabola</code>s in the place of one, used when sites share the top row
+	 * @param replaceMe The <code>Parabola</code> being replaced
+	 * @param a The <code>Parabola</code> on the left
+	 * @param edge The <code>Edge</code> between the two <code>Parabola</code>s
+	 * @param b The <code>Parabola</code> on the right
+	 */
+	void replaceParabola(Parabola replaceMe, Parabola a, Edge edge, Parabola b);
+
+	/**
+	 * Get the <code>Parabola</code> to the left
+	 * @param parabola The <code>Parabola</code> on the beach line
+	 * @return The <code>Parabola</code> to its left or null if it is the first
+	 */
 	Parabola getParabolaLeftOfParabola(Parabola parabola);
 
+	/**
+	 * Get the <code>Parabola</code> to the right
+	 * @param parabola The <code>Parabola</code> on the beach line
+	 * @return The <code>Parabola</code> to its right or null if it is the last
+	 */
 	Parabola getParabolaRightOfParabola(Parabola parabola);
 
+	/**
+	 * Takes out a <code>Parabola</code> that shrank away and joins its neighbors with a new <code>Edge</code>
+	 * @param leftArc The <code>Parabola</code> to the left of the one disappearing
+	 * @param removingParabola The <code>Parabola</code> that is disappearing
+	 * @param rightArc The <code>Parabola</code> to the right of the one disappearing
+	 * @param newEdge The <code>Edge</code> between the left and right <code>Parabola</code>s
+	 */
 	void replaceSequenceWithEdge(Parabola leftArc, Parabola removingParabola, Parabola rightArc, Edge newEdge);
 
+	/**
+	 * Get the <code>Edge</code> to the left
+	 * @param parabola The <code>Parabola</code> on the beach line
+	 * @return The <code>Edge</code> to its left or null if it is the first
+	 */
 	Edge getEdgeLeftOfParabola(Parabola parabola);
 
+	/**
+	 * Get the <code>Edge</code> to the right
+	 * @param parabola The <code>Parabola</code> on the beach line
+	 * @return The <code>Edge</code> to its right or null if it is the last
+	 */
 	Edge getEdgeRightOfParabola(Parabola parabola);
 
+	/**
+	 * Starts the beach line
+	 * @param parabola The <code>Parabola</code> of the first site
+	 */
 	void addFirstParabola(Parabola parabola);
 
+	/**
+	 * Determines if any <code>Parabola</code>s are on the beach line
+	 * @return True if the beach line is empty
+	 */
 	boolean isEmpty();
 
-	void removeParabola(Parabola parabola);
+	/**
+	 * Get the <code>Edge</code>s still on the beach line, which are the ones that never end
+	 * @return The <code>Edge</code>s from left to right
+	 */
+	List<Edge> getEdges();
 
 }
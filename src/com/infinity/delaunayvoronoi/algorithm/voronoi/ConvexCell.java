@@ -0,0 +1,290 @@
+package com.infinity.delaunayvoronoi.algorithm.voronoi;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.model.Point;
+
+/**
+ * A convex polygon that is cut down one half-plane at a time, which is how a closed
+ * cell is made: start with the area the cells are kept in and cut away everything
+ * closer to each neighboring site.  The corners are kept counterclockwise in plain
+ * arrays that are reused from cut to cut, so cutting doesn't allocate once the arrays
+ * are big enough.
+ * <p>
+ * A cell is only ever worked on by one thread, but different cells can be cut at the
+ * same time.
+ */
+public class ConvexCell {
+
+	/**
+	 * How many corners a new cell has room for before its arrays grow
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The x value of each corner
+	 */
+	private double[] xs;
+
+	/**
+	 * The y value of each corner
+	 */
+	private double[] ys;
+
+	/**
+	 * Where the corners are written during a cut, swapped with the corners after
+	 */
+	private double[] nextXs;
+
+	/**
+	 * Where the corners are written during a cut, swapped with the corners after
+	 */
+	private double[] nextYs;
+
+	/**
+	 * How many corners there are
+	 */
+	private int size;
+
+	/**
+	 * Creates a cell covering a convex polygon
+	 * @param corners The corners of the polygon in order, either clockwise or counterclockwise
+	 */
+	public ConvexCell(List<Point> corners) {
+		allocate(Math.max(INITIAL_CAPACITY, 2 * corners.size()));
+		for (Point corner : corners) {
+			xs[size] = corner.x;
+			ys[size] = corner.y;
+			size++;
+		}
+		if (getSignedArea() < 0) {
+			reverse();
+		}
+	}
+
+	/**
+	 * Creates a cell covering a rectangle
+	 * @param minX The left side of the rectangle
+	 * @param minY The bottom of the rectangle
+	 * @param maxX The right side of the rectangle
+	 * @param maxY The top of the rectangle
+	 */
+	public ConvexCell(double minX, double minY, double maxX, double maxY) {
+		allocate(INITIAL_CAPACITY);
+		double[][] corners = { { minX, minY }, { maxX, minY }, { maxX, maxY }, { minX, maxY } };
+		for (double[] corner : corners) {
+			xs[size] = corner[0];
+			ys[size] = corner[1];
+			size++;
+		}
+	}
+
+	/**
+	 * Creates a copy of another cell
+	 * @param other The cell to copy
+	 */
+	public ConvexCell(ConvexCell other) {
+		allocate(Math.max(INITIAL_CAPACITY, other.xs.length));
+		System.arraycopy(other.xs, 0, xs, 0, other.size);
+		System.arraycopy(other.ys, 0, ys, 0, other.size);
+		size = other.size;
+	}
+
+	/**
+	 * Get how many corners the cell has
+	 * @return The number of corners, zero if everything was cut away
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determines if everything was cut away
+	 * @return True if the cell has no area left
+	 */
+	public boolean isEmpty() {
+		return size < 3;
+	}
+
+	/**
+	 * Get the x value of a corner
+	 * @param index The corner, counting counterclockwise
+	 * @return The x value
+	 */
+	public double getX(int index) {
+		return xs[index];
+	}
+
+	/**
+	 * Get the y value of a corner
+	 * @param index The corner, counting counterclockwise
+	 * @return The y value
+	 */
+	public double getY(int index) {
+		return ys[index];
+	}
+
+	/**
+	 * Get the area the cell covers
+	 * @return The area, zero if everything was cut away
+	 */
+	public double getArea() {
+		return isEmpty() ? 0 : getSignedArea() / 2;
+	}
+
+	/**
+	 * Get the center of mass of the cell.  The corners are measured from the first
+	 * one so cells far from the origin don't lose precision.
+	 * @return The centroid, or null if everything was cut away
+	 */
+	public Point getCentroid() {
+		if (isEmpty()) {
+			return null;
+		}
+
+		double area = 0;
+		double x = 0;
+		double y = 0;
+		for (int i = 1; i < size - 1; i++) {
+			double x1 = xs[i] - xs[0];
+			double y1 = ys[i] - ys[0];
+			double x2 = xs[i + 1] - xs[0];
+			double y2 = ys[i + 1] - ys[0];
+			double cross = x1 * y2 - x2 * y1;
+			area += cross;
+			x += (x1 + x2) * cross;
+			y += (y1 + y2) * cross;
+		}
+		if (area <= 0) {
+			// squeezed down to a line, so there is no area to balance
+			return null;
+		}
+		return new Point(xs[0] + x / (3 * area), ys[0] + y / (3 * area));
+	}
+
+	/**
+	 * Cuts away everything closer to the other site than to the cell's site
+	 * @param site The site the cell belongs to
+	 * @param other A neighboring site
+	 */
+	public void clipToBisector(Point site, Point other) {
+		clip(other.x - site.x, other.y - site.y, (site.x + other.x) / 2, (site.y + other.y) / 2);
+	}
+
+	/**
+	 * Cuts away everything the other site is closer to by power distance, which is the
+	 * squared distance less the site's weight.  The line between them is their radical
+	 * axis, which moves away from the heavier site.
+	 * @param site The site the cell belongs to
+	 * @param siteWeight The weight of the cell's site
+	 * @param other A neighboring site at a different location
+	 * @param otherWeight The weight of the neighboring site
+	 */
+	public void clipToRadicalAxis(Point site, double siteWeight, Point other, double otherWeight) {
+		double dx = other.x - site.x;
+		double dy = other.y - site.y;
+		double t = 0.5 + (siteWeight - otherWeight) / (2 * (dx * dx + dy * dy));
+		clip(dx, dy, site.x + t * dx, site.y + t * dy);
+	}
+
+	/**
+	 * Cuts away the side of a line the normal points to.  The corners where the line
+	 * crosses the cell's edges are added, and an edge on the line is kept.
+	 * @param normalX The x value of the normal pointing to the side cut away
+	 * @param normalY The y value of the normal pointing to the side cut away
+	 * @param lineX The x value of any <code>Point</code> on the line
+	 * @param lineY The y value of any <code>Point</code> on the line
+	 */
+	public void clip(double normalX, double normalY, double lineX, double lineY) {
+		if (size == 0) {
+			return;
+		}
+
+		// leave the cell alone when every corner is on the kept side
+		boolean cut = false;
+		for (int i = 0; i < size && !cut; i++) {
+			cut = normalX * (xs[i] - lineX) + normalY * (ys[i] - lineY) > 0;
+		}
+		if (!cut) {
+			return;
+		}
+
+		if (nextXs.length < size + 1) {
+			int capacity = 2 * (size + 1);
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+			nextXs = new double[capacity];
+			nextYs = new double[capacity];
+		}
+
+		// keep the corners on the kept side and add one where each edge crosses the line
+		int count = 0;
+		double previousX = xs[size - 1];
+		double previousY = ys[size - 1];
+		double previousSide = normalX * (previousX - lineX) + normalY * (previousY - lineY);
+		for (int i = 0; i < size; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			double side = normalX * (x - lineX) + normalY * (y - lineY);
+			if ((previousSide > 0) != (side > 0) && previousSide != 0 && side != 0) {
+				double t = previousSide / (previousSide - side);
+				nextXs[count] = previousX + t * (x - previousX);
+				nextYs[count] = previousY + t * (y - previousY);
+				count++;
+			}
+			if (side <= 0) {
+				nextXs[count] = x;
+				nextYs[count] = y;
+				count++;
+			}
+			previousX = x;
+			previousY = y;
+			previousSide = side;
+		}
+
+		double[] swap = xs;
+		xs = nextXs;
+		nextXs = swap;
+		swap = ys;
+		ys = nextYs;
+		nextYs = swap;
+		size = count;
+	}
+
+	/**
+	 * Get twice the area with the sign of the corners' turning direction
+	 */
+	private double getSignedArea() {
+		double area = 0;
+		for (int i = 0, j = size - 1; i < size; j = i++) {
+			area += xs[j] * ys[i] - xs[i] * ys[j];
+		}
+		return area;
+	}
+
+	/**
+	 * Turns the order of the corners around
+	 */
+	private void reverse() {
+		for (int i = 0, j = size - 1; i < j; i++, j--) {
+			double x = xs[i];
+			xs[i] = xs[j];
+			xs[j] = x;
+			double y = ys[i];
+			ys[i] = ys[j];
+			ys[j] = y;
+		}
+	}
+
+	/**
+	 * Makes the corner arrays
+	 */
+	private void allocate(int capacity) {
+		xs = new double[capacity];
+		ys = new double[capacity];
+		nextXs = new double[capacity];
+		nextYs = new double[capacity];
+	}
+
+}
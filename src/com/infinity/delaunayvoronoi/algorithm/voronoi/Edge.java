@@ -4,7 +4,7 @@ import com.infinity.delaunayvoronoi.model.Point;
 
 public class Edge implements BeachEntry {
 
-	public final Point start;
+	private Point start;
 	private Point end;
 	public final Point direction;
 	private final Point left;
@@ -38,6 +38,20 @@ public class Edge implements BeachEntry {
 		direction = new Point(b.y - a.y, -(b.x - a.x));
 	}
 	
+	/**
+	 * @return the start
+	 */
+	public Point getStart() {
+		return start;
+	}
+
+	/**
+	 * @param start the start to set
+	 */
+	public void setStart(Point start) {
+		this.start = start;
+	}
+
 	/**
 	 * @return the end
 	 */
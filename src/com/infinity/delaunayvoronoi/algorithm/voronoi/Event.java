@@ -22,6 +22,16 @@ public class Event {
 	
 	private Parabola arch;
 
+	/**
+	 * Where the edges meet for a circle event, the center of the circle
+	 */
+	private Point center;
+
+	/**
+	 * Whether the circle event no longer happens, the <code>EventQueue</code> skips it
+	 */
+	private boolean invalid;
+
 	/**
 	 * Something needs to be taken care of at a certain location
 	 * @param location Where the event occured
@@ -43,5 +53,29 @@ public class Event {
 		this.arch = arch;
 	}
 
+	public Point getCenter() {
+		return center;
+	}
+
+	public void setCenter(Point center) {
+		this.center = center;
+	}
+
+	/**
+	 * Marks the circle event as one that no longer happens, which is much cheaper
+	 * than taking it out of the <code>EventQueue</code>
+	 */
+	public void invalidate() {
+		this.invalid = true;
+	}
+
+	/**
+	 * Determines if the circle event was marked as no longer happening
+	 * @return True if the event is to be skipped
+	 */
+	public boolean isInvalid() {
+		return invalid;
+	}
+
 	
 }
@@ -0,0 +1,226 @@
+package com.infinity.delaunayvoronoi.algorithm.voronoi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.model.Point;
+
+/**
+ * Hands out the events of Fortune's sweep from the highest y to the lowest, and left
+ * to right on the same y.  The site events are all known up front, so they are sorted
+ * once into plain arrays and read in order.  The circle events come and go while
+ * sweeping and are kept in a heap on their coordinates next to the sites.
+ * <p>
+ * A circle event that no longer happens is not taken out of the heap, it is marked
+ * with <code>Event.invalidate()</code> and skipped when it comes to the top.
+ */
+public class EventQueue {
+
+	/**
+	 * Orders the sites from the highest y to the lowest, and left to right on the same y
+	 */
+	private static final Comparator<Point> SITE_ORDER = new Comparator<Point>() {
+		@Override
+		public int compare(Point p1, Point p2) {
+			int order = Double.compare(p2.y, p1.y);
+			if (order == 0) {
+				order = Double.compare(p1.x, p2.x);
+			}
+			return order;
+		}
+	};
+
+	/**
+	 * How many circle events the heap starts with room for
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The sites in the order they are swept
+	 */
+	private final Point[] sites;
+
+	/**
+	 * The x of each site
+	 */
+	private final double[] siteXs;
+
+	/**
+	 * The y of each site
+	 */
+	private final double[] siteYs;
+
+	/**
+	 * The next site to hand out
+	 */
+	private int nextSite;
+
+	/**
+	 * The circle events in heap order
+	 */
+	private Event[] circles = new Event[INITIAL_CAPACITY];
+
+	/**
+	 * The x of each circle event in the heap
+	 */
+	private double[] circleXs = new double[INITIAL_CAPACITY];
+
+	/**
+	 * The y of each circle event in the heap
+	 */
+	private double[] circleYs = new double[INITIAL_CAPACITY];
+
+	/**
+	 * How many circle events are in the heap, including ones marked invalid
+	 */
+	private int circleCount;
+
+	/**
+	 * Creates a queue holding a site event for each location, any <code>Point</code>
+	 * at a location already taken is dropped since an arc can't be split at its own site
+	 * @param points The sites to sweep
+	 */
+	public EventQueue(List<Point> points) {
+		Point[] sorted = points.toArray(new Point[points.size()]);
+		Arrays.sort(sorted, SITE_ORDER);
+
+		int count = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (count == 0 || sorted[i].x != sorted[count - 1].x || sorted[i].y != sorted[count - 1].y) {
+				sorted[count++] = sorted[i];
+			}
+		}
+
+		sites = Arrays.copyOf(sorted, count);
+		siteXs = new double[count];
+		siteYs = new double[count];
+		for (int i = 0; i < count; i++) {
+			siteXs[i] = sites[i].x;
+			siteYs[i] = sites[i].y;
+		}
+	}
+
+	/**
+	 * Get the sites that are swept, without the dropped ones
+	 * @return An unmodifiable <code>List</code> of the sites in the order they are swept
+	 */
+	public List<Point> getSites() {
+		return Collections.unmodifiableList(Arrays.asList(sites));
+	}
+
+	/**
+	 * Adds a circle event to the queue
+	 * @param event The circle event
+	 */
+	public void addCircleEvent(Event event) {
+		if (circleCount == circles.length) {
+			int capacity = circleCount * 2;
+			circles = Arrays.copyOf(circles, capacity);
+			circleXs = Arrays.copyOf(circleXs, capacity);
+			circleYs = Arrays.copyOf(circleYs, capacity);
+		}
+
+		// move parents down until the event's spot is found
+		int i = circleCount++;
+		double x = event.x;
+		double y = event.y;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!isBefore(x, y, circleXs[parent], circleYs[parent])) {
+				break;
+			}
+			set(i, circles[parent], circleXs[parent], circleYs[parent]);
+			i = parent;
+		}
+		set(i, event, x, y);
+	}
+
+	/**
+	 * Determines if there are any events left to handle
+	 * @return True if every site and every circle event still happening has been handed out
+	 */
+	public boolean isEmpty() {
+		dropInvalidCircleEvents();
+		return nextSite == sites.length && circleCount == 0;
+	}
+
+	/**
+	 * Takes the next event off the queue
+	 * @return The event with the highest y, or null if the queue is empty
+	 */
+	public Event poll() {
+		dropInvalidCircleEvents();
+		boolean siteLeft = nextSite < sites.length;
+		if (circleCount == 0 && !siteLeft) {
+			return null;
+		}
+
+		// a site goes first when it is at the same place as a circle event
+		if (siteLeft && (circleCount == 0 || !isBefore(circleXs[0], circleYs[0], siteXs[nextSite], siteYs[nextSite]))) {
+			return new Event(sites[nextSite++], true);
+		}
+		return removeFirstCircleEvent();
+	}
+
+	/**
+	 * Throws away the circle events at the top of the heap that no longer happen
+	 */
+	private void dropInvalidCircleEvents() {
+		while (circleCount > 0 && circles[0].isInvalid()) {
+			removeFirstCircleEvent();
+		}
+	}
+
+	/**
+	 * Takes the top of the heap off and fills the gap
+	 * @return The circle event that was at the top
+	 */
+	private Event removeFirstCircleEvent() {
+		Event first = circles[0];
+		int last = --circleCount;
+		Event event = circles[last];
+		double x = circleXs[last];
+		double y = circleYs[last];
+		circles[last] = null;
+
+		// move children up until the last event's spot is found
+		int i = 0;
+		int half = circleCount >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			int right = child + 1;
+			if (right < circleCount && isBefore(circleXs[right], circleYs[right], circleXs[child], circleYs[child])) {
+				child = right;
+			}
+			if (!isBefore(circleXs[child], circleYs[child], x, y)) {
+				break;
+			}
+			set(i, circles[child], circleXs[child], circleYs[child]);
+			i = child;
+		}
+		if (circleCount > 0) {
+			set(i, event, x, y);
+		}
+		return first;
+	}
+
+	/**
+	 * Puts a circle event in a spot in the heap
+	 */
+	private void set(int i, Event event, double x, double y) {
+		circles[i] = event;
+		circleXs[i] = x;
+		circleYs[i] = y;
+	}
+
+	/**
+	 * Determines if the first place is swept before the second
+	 */
+	private static boolean isBefore(double x1, double y1, double x2, double y2) {
+		return y1 > y2 || (y1 == y2 && x1 < x2);
+	}
+
+}
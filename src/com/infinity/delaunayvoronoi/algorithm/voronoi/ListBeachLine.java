@@ -5,46 +5,36 @@ import java.util.List;
 
 import com.infinity.delaunayvoronoi.model.Point;
 
+/**
+ * Keeps the beach line in a single list that goes <code>Parabola</code>, <code>Edge</code>,
+ * <code>Parabola</code> and so on.  Simple to follow but every change searches the list.
+ */
 public class ListBeachLine implements BeachLine {
 	
 	private List<BeachEntry> beachLine = new ArrayList<BeachEntry>();
 
 	@Override
 	public Parabola getArcUnderPoint(Point point) {
-		Parabola closest = null;
-		// we aren't using the the square root because we 
-		// can be more efficient without it
-		double distance = Double.MAX_VALUE;
+		if (beachLine.isEmpty()) {
+			return null;
+		}
 		
-		for (int i = 0; i < beachLine.size(); i++) {
-			BeachEntry entry = beachLine.get(i);
-			if (entry instanceof Parabola) {
-				Parabola p = (Parabola) entry;
-				if (closest == null) {
-					closest = p;
-					double x = p.getSite().x - point.x;
-					double y = p.getSite().y - point.y;
-					distance = x*x + y*y;
-				} else {
-					double x = p.getSite().x - point.x;
-					double y = p.getSite().y - point.y;
-					double tmpDistance = x*x + y*y;
-					if (tmpDistance < distance) {
-						distance = tmpDistance;
-						closest = p;
-					}
-				}
+		// the point is under the first parabola whose right breakpoint is past it
+		for (int i = 0; i + 2 < beachLine.size(); i += 2) {
+			Parabola arc = (Parabola) beachLine.get(i);
+			Parabola next = (Parabola) beachLine.get(i + 2);
+			if (point.x < Parabola.getBreakpoint(arc.getSite(), next.getSite(), point.y)) {
+				return arc;
 			}
 		}
 		
-		return closest;
+		return (Parabola) beachLine.get(beachLine.size() - 1);
 	}
 
 	@Override
 	public void replaceParabola(Parabola replaceMe, Parabola a, Edge leftEdge, Parabola b, Edge rightEdge, Parabola c) {
 		int index = beachLine.indexOf(replaceMe);
 		// don't forget to remove the old parabola
-		// TODO: is it possible that there are multiple entries for this parabola?
 		beachLine.remove(index);
 
 		// add them in reverse order and they get shifted over one by one
@@ -55,98 +45,45 @@ public class ListBeachLine implements BeachLine {
 		beachLine.add(index, a);
 	}
 
+	@Override
+	public void replaceParabola(Parabola replaceMe, Parabola a, Edge edge, Parabola b) {
+		int index = beachLine.indexOf(replaceMe);
+		beachLine.set(index, b);
+		beachLine.add(index, edge);
+		beachLine.add(index, a);
+	}
+
 	@Override
 	public Parabola getParabolaLeftOfParabola(Parabola parabola) {
-		int index = beachLine.indexOf(parabola) - 1;
-		// keep going backwards through the list until we find a parabola
-		while (index >= 0) {
-			BeachEntry entry = beachLine.get(index--);
-			// we found a parabola but make sure it isn't the one we started with
-			if (entry instanceof Parabola && parabola != entry) {
-				return (Parabola) entry;
-			}
-		}
-		return null;
+		return (Parabola) getEntry(beachLine.indexOf(parabola) - 2);
 	}
 
 	@Override
 	public Parabola getParabolaRightOfParabola(Parabola parabola) {
-		int index = beachLine.indexOf(parabola) + 1;
-		// keep going forwards through the list until we find a parabola
-		while (index < beachLine.size()) {
-			BeachEntry entry = beachLine.get(index++);
-			// we found a parabola but make sure it isn't the one we started with
-			if (entry instanceof Parabola && entry != parabola) {
-				return (Parabola) entry;
-			}
-		}
-		return null;
+		return (Parabola) getEntry(beachLine.indexOf(parabola) + 2);
 	}
 
 	@Override
 	public void replaceSequenceWithEdge(Parabola leftArc, Parabola removingParabola, Parabola rightArc, Edge newEdge) {
-		int index = -1;
-		int tmpIndex = 0;
-		
-		// find the first parabola
-		Parabola one = null;
-		for (int i = 0; i < beachLine.size() && one == null; i++) {
-			BeachEntry entry = beachLine.get(i);
-			if (entry instanceof Parabola) {
-				one = (Parabola) entry;
-			}
+		int index = beachLine.indexOf(removingParabola);
+		if (getEntry(index - 2) != leftArc || getEntry(index + 2) != rightArc) {
+			throw new IllegalStateException("The parabolas are not next to each other on the beach line");
 		}
 		
-		// loop through the list until we find the sequence
-		while (index < 0 && tmpIndex+2 < beachLine.size()) {
-			Parabola two = getParabolaRightOfParabola(one);
-			Parabola three = getParabolaRightOfParabola(two);
-			if (one == leftArc && 
-				two == removingParabola &&
-				three == rightArc) {
-				index = tmpIndex;
-			} else {
-				tmpIndex++;
-				one = two;
-			}
-		}
-		
-		// get rid of the sequence
-		beachLine.remove(index + 4);
-		beachLine.remove(index + 3);
-		beachLine.remove(index + 2);
+		// the parabola and the edges on either side of it become the new edge
 		beachLine.remove(index + 1);
 		beachLine.remove(index);
-		
-		// add the new edge
-		beachLine.add(index, newEdge);
+		beachLine.set(index - 1, newEdge);
 	}
 
 	@Override
 	public Edge getEdgeLeftOfParabola(Parabola parabola) {
-		int index = beachLine.indexOf(parabola) - 1;
-		// keep going backwards through the list until we find an edge
-		while (index >= 0) {
-			BeachEntry entry = beachLine.get(index--);
-			if (entry instanceof Edge) {
-				return (Edge) entry;
-			}
-		}
-		return null;
+		return (Edge) getEntry(beachLine.indexOf(parabola) - 1);
 	}
 
 	@Override
 	public Edge getEdgeRightOfParabola(Parabola parabola) {
-		int index = beachLine.indexOf(parabola) + 1;
-		// keep going forwards through the list until we find a parabola
-		while (index < beachLine.size()) {
-			BeachEntry entry = beachLine.get(index++);
-			// we found a parabola but make sure it isn't the one we started with
-			if (entry instanceof Edge) {
-				return (Edge) entry;
-			}
-		}
-		return null;
+		return (Edge) getEntry(beachLine.indexOf(parabola) + 1);
 	}
 
 	@Override
@@ -166,10 +103,24 @@ public class ListBeachLine implements BeachLine {
 	}
 
 	@Override
-	public void removeParabola(Parabola parabola) {
-		// TODO Auto-generated method stub
-		
+	public List<Edge> getEdges() {
+		List<Edge> edges = new ArrayList<Edge>();
+		for (int i = 1; i < beachLine.size(); i += 2) {
+			edges.add((Edge) beachLine.get(i));
+		}
+		return edges;
 	}
 
+	/**
+	 * Get the entry at the index
+	 * @param index Where the entry is in the list
+	 * @return The entry or null if the index is off either end of the list
+	 */
+	private BeachEntry getEntry(int index) {
+		if (index < 0 || index >= beachLine.size()) {
+			return null;
+		}
+		return beachLine.get(index);
+	}
 
 }
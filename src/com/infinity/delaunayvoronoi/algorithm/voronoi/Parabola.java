@@ -7,8 +7,6 @@ import com.infinity.delaunayvoronoi.model.Point;
  * @author Jeffrey.Richley
  */
 public class Parabola implements BeachEntry {
-	
-	private boolean isLeaf;
 
 	/**
 	 * The top of the <code>Parabola</code>
@@ -20,19 +18,40 @@ public class Parabola implements BeachEntry {
 	 */
 	private Event cEvent;
 	
-	private Edge edge;
+	/**
+	 * The <code>Parabola</code> above this one in a <code>TreeBeachLine</code>
+	 */
+	Parabola parent;
 	
-	private Parabola parent;
+	/**
+	 * The <code>Parabola</code>s before this one in a <code>TreeBeachLine</code>
+	 */
+	Parabola left;
 	
-	private Parabola left;
+	/**
+	 * The <code>Parabola</code>s after this one in a <code>TreeBeachLine</code>
+	 */
+	Parabola right;
 	
-	private Parabola right;
+	/**
+	 * The <code>Parabola</code> just before this one in a <code>TreeBeachLine</code>
+	 */
+	Parabola previous;
 	
+	/**
+	 * The <code>Parabola</code> just after this one in a <code>TreeBeachLine</code>
+	 */
+	Parabola next;
 	
-	public Parabola() {
-		this.site = null;
-		this.isLeaf = false;
-	}
+	/**
+	 * Keeps a <code>TreeBeachLine</code> balanced, higher priorities are kept above lower ones
+	 */
+	int priority;
+	
+	/**
+	 * The <code>Edge</code> between this <code>Parabola</code> and the next one in a <code>TreeBeachLine</code>
+	 */
+	Edge rightEdge;
 	
 	/**
 	 * Creates a new VerticalParabola
@@ -40,25 +59,6 @@ public class Parabola implements BeachEntry {
 	 */
 	public Parabola(Point site) {
 		this.site = site;
-		this.isLeaf = true;
-	}
-
-	public void setLeft(Parabola p) {
-		this.left = p;
-		p.setParent(this);
-	}
-	
-	public void setRight(Parabola p) {
-		this.right = p;
-		p.setParent(this);
-	}
-	
-	public Parabola getLeft() {
-		return left;
-	}
-	
-	public Parabola getRight() {
-		return right;
 	}
 
 	/**
@@ -87,38 +87,48 @@ public class Parabola implements BeachEntry {
 		this.cEvent = circleEvent;
 	}
 
-
-	/**
-	 * @return the edge
-	 */
-	public Edge getEdge() {
-		return edge;
-	}
-
-
 	/**
-	 * @param edge the edge to set
+	 * Finds the x value where the <code>Parabola</code>s of two sites meet on the beach line
+	 * @param left The site of the <code>Parabola</code> on the left
+	 * @param right The site of the <code>Parabola</code> on the right
+	 * @param y Where the sweep line is
+	 * @return The x value of the breakpoint between the two <code>Parabola</code>s
 	 */
-	public void setEdge(Edge edge) {
-		this.edge = edge;
-	}
-
-
-	public Parabola getParent() {
-		return parent;
-	}
-
-
-	public void setParent(Parabola parent) {
-		this.parent = parent;
-	}
-
-	public boolean isLeaf() {
-		return isLeaf;
-	}
-
-	public void setLeaf(boolean isLeaf) {
-		this.isLeaf = isLeaf;
+	public static double getBreakpoint(Point left, Point right, double y) {
+		// sites at the same height meet halfway between them, and a parabola 
+		// whose site is on the sweep line is still a vertical line
+		if (left.y == right.y) {
+			return (left.x + right.x) / 2;
+		}
+		if (left.y == y) {
+			return left.x;
+		}
+		if (right.y == y) {
+			return right.x;
+		}
+		
+		double dp = 2.0 * (left.y - y);
+		double a1 = 1.0 / dp;
+		double b1 = -2.0 * left.x / dp;
+		double c1 = y + dp / 4 + left.x * left.x / dp;
+			
+		dp = 2.0 * (right.y - y);
+		double a2 = 1.0 / dp;
+		double b2 = -2.0 * right.x / dp;
+		double c2 = y + dp / 4 + right.x * right.x / dp;
+			
+		double a = a1 - a2;
+		double b = b1 - b2;
+		double c = c1 - c2;
+			
+		double disc = b*b - 4 * a * c;
+		double x1 = (-b + Math.sqrt(disc)) / (2*a);
+		double x2 = (-b - Math.sqrt(disc)) / (2*a);
+
+		if (left.y < right.y) {
+			return Math.max(x1, x2);
+		}
+		return Math.min(x1, x2);
 	}
 	
 }
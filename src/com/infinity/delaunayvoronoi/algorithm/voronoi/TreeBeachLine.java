@@ -0,0 +1,303 @@
+package com.infinity.delaunayvoronoi.algorithm.voronoi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.model.Point;
+
+/**
+ * Keeps the beach line in a treap whose in order walk is the <code>Parabola</code>s from
+ * left to right.  Nothing is keyed, the breakpoints are worked out at the sweep line
+ * while walking down, so finding the <code>Parabola</code> above a site takes expected
+ * logarithmic time.  Each <code>Parabola</code> is its own tree node and is also linked
+ * to its neighbors, so the neighbors and the <code>Edge</code>s between them are found
+ * right away.
+ */
+public class TreeBeachLine implements BeachLine {
+
+	/**
+	 * The <code>Parabola</code> at the top of the tree
+	 */
+	private Parabola root;
+
+	/**
+	 * Drives the random priorities, fixed so every run builds the same tree
+	 */
+	private int seed = 0x2545F491;
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#getArcUnderPoint(com.infinity.delaunayvoronoi.model.Point)
+	 */
+	@Override
+	public Parabola getArcUnderPoint(Point point) {
+		Parabola arc = root;
+		while (arc != null) {
+			if (arc.previous != null && point.x < Parabola.getBreakpoint(arc.previous.getSite(), arc.getSite(), point.y)) {
+				arc = arc.left;
+			} else if (arc.next != null && point.x > Parabola.getBreakpoint(arc.getSite(), arc.next.getSite(), point.y)) {
+				arc = arc.right;
+			} else {
+				return arc;
+			}
+		}
+		return null;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#replaceParabola(com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola, com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola, com.infinity.delaunayvoronoi.algorithm.voronoi.Edge, com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola, com.infinity.delaunayvoronoi.algorithm.voronoi.Edge, com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola)
+	 */
+	@Override
+	public void replaceParabola(Parabola replaceMe, Parabola a, Edge leftEdge, Parabola b, Edge rightEdge, Parabola c) {
+		Edge outerEdge = replaceMe.rightEdge;
+		substitute(replaceMe, a);
+		a.rightEdge = leftEdge;
+		insertAfter(a, b);
+		b.rightEdge = rightEdge;
+		insertAfter(b, c);
+		c.rightEdge = outerEdge;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#replaceParabola(com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola, com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola, com.infinity.delaunayvoronoi.algorithm.voronoi.Edge, com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola)
+	 */
+	@Override
+	public void replaceParabola(Parabola replaceMe, Parabola a, Edge edge, Parabola b) {
+		Edge outerEdge = replaceMe.rightEdge;
+		substitute(replaceMe, a);
+		a.rightEdge = edge;
+		insertAfter(a, b);
+		b.rightEdge = outerEdge;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#getParabolaLeftOfParabola(com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola)
+	 */
+	@Override
+	public Parabola getParabolaLeftOfParabola(Parabola parabola) {
+		return parabola.previous;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#getParabolaRightOfParabola(com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola)
+	 */
+	@Override
+	public Parabola getParabolaRightOfParabola(Parabola parabola) {
+		return parabola.next;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#replaceSequenceWithEdge(com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola, com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola, com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola, com.infinity.delaunayvoronoi.algorithm.voronoi.Edge)
+	 */
+	@Override
+	public void replaceSequenceWithEdge(Parabola leftArc, Parabola removingParabola, Parabola rightArc, Edge newEdge) {
+		if (removingParabola.previous != leftArc || removingParabola.next != rightArc) {
+			throw new IllegalStateException("The parabolas are not next to each other on the beach line");
+		}
+		remove(removingParabola);
+		leftArc.rightEdge = newEdge;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#getEdgeLeftOfParabola(com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola)
+	 */
+	@Override
+	public Edge getEdgeLeftOfParabola(Parabola parabola) {
+		return parabola.previous == null ? null : parabola.previous.rightEdge;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#getEdgeRightOfParabola(com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola)
+	 */
+	@Override
+	public Edge getEdgeRightOfParabola(Parabola parabola) {
+		return parabola.next == null ? null : parabola.rightEdge;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#addFirstParabola(com.infinity.delaunayvoronoi.algorithm.voronoi.Parabola)
+	 */
+	@Override
+	public void addFirstParabola(Parabola parabola) {
+		if (root != null) {
+			throw new IllegalStateException("Unable to add Parabola, the beach line wasn't empty");
+		}
+		unlink(parabola);
+		parabola.priority = nextPriority();
+		root = parabola;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.algorithm.voronoi.BeachLine#getEdges()
+	 */
+	@Override
+	public List<Edge> getEdges() {
+		List<Edge> edges = new ArrayList<Edge>();
+		if (root == null) {
+			return edges;
+		}
+
+		Parabola arc = root;
+		while (arc.left != null) {
+			arc = arc.left;
+		}
+		for (; arc.next != null; arc = arc.next) {
+			edges.add(arc.rightEdge);
+		}
+		return edges;
+	}
+
+	/**
+	 * Puts the new <code>Parabola</code> in the old one's place in the tree and between its neighbors
+	 * @param old The <code>Parabola</code> leaving the beach line
+	 * @param replacement The <code>Parabola</code> taking its place
+	 */
+	private void substitute(Parabola old, Parabola replacement) {
+		replacement.parent = old.parent;
+		replacement.left = old.left;
+		replacement.right = old.right;
+		replacement.previous = old.previous;
+		replacement.next = old.next;
+		replacement.priority = old.priority;
+
+		replaceChild(old.parent, old, replacement);
+		if (old.left != null) {
+			old.left.parent = replacement;
+		}
+		if (old.right != null) {
+			old.right.parent = replacement;
+		}
+		if (old.previous != null) {
+			old.previous.next = replacement;
+		}
+		if (old.next != null) {
+			old.next.previous = replacement;
+		}
+		unlink(old);
+	}
+
+	/**
+	 * Adds a <code>Parabola</code> just after another one
+	 * @param arc The <code>Parabola</code> already on the beach line
+	 * @param added The <code>Parabola</code> to add to its right
+	 */
+	private void insertAfter(Parabola arc, Parabola added) {
+		unlink(added);
+		added.priority = nextPriority();
+
+		// the spot just after the arc is its empty right child, or else
+		// the empty left child of the first parabola in its right subtree
+		if (arc.right == null) {
+			arc.right = added;
+			added.parent = arc;
+		} else {
+			arc.next.left = added;
+			added.parent = arc.next;
+		}
+
+		added.previous = arc;
+		added.next = arc.next;
+		if (arc.next != null) {
+			arc.next.previous = added;
+		}
+		arc.next = added;
+
+		while (added.parent != null && added.priority > added.parent.priority) {
+			rotateUp(added);
+		}
+	}
+
+	/**
+	 * Takes the <code>Parabola</code> off the beach line by rotating it down to a leaf
+	 * @param arc The <code>Parabola</code> to remove
+	 */
+	private void remove(Parabola arc) {
+		while (arc.left != null || arc.right != null) {
+			Parabola child;
+			if (arc.left == null) {
+				child = arc.right;
+			} else if (arc.right == null) {
+				child = arc.left;
+			} else {
+				child = arc.left.priority > arc.right.priority ? arc.left : arc.right;
+			}
+			rotateUp(child);
+		}
+		replaceChild(arc.parent, arc, null);
+
+		if (arc.previous != null) {
+			arc.previous.next = arc.next;
+		}
+		if (arc.next != null) {
+			arc.next.previous = arc.previous;
+		}
+		unlink(arc);
+	}
+
+	/**
+	 * Swaps the <code>Parabola</code> with its parent without changing the order
+	 * @param arc The <code>Parabola</code> to move up
+	 */
+	private void rotateUp(Parabola arc) {
+		Parabola parent = arc.parent;
+		Parabola grandparent = parent.parent;
+		if (parent.left == arc) {
+			parent.left = arc.right;
+			if (arc.right != null) {
+				arc.right.parent = parent;
+			}
+			arc.right = parent;
+		} else {
+			parent.right = arc.left;
+			if (arc.left != null) {
+				arc.left.parent = parent;
+			}
+			arc.left = parent;
+		}
+		parent.parent = arc;
+		arc.parent = grandparent;
+		replaceChild(grandparent, parent, arc);
+	}
+
+	/**
+	 * Points the parent, or the root if there is no parent, at a new child
+	 */
+	private void replaceChild(Parabola parent, Parabola oldChild, Parabola newChild) {
+		if (parent == null) {
+			root = newChild;
+		} else if (parent.left == oldChild) {
+			parent.left = newChild;
+		} else {
+			parent.right = newChild;
+		}
+	}
+
+	/**
+	 * Clears the <code>Parabola</code>'s tree and neighbor links
+	 */
+	private void unlink(Parabola arc) {
+		arc.parent = null;
+		arc.left = null;
+		arc.right = null;
+		arc.previous = null;
+		arc.next = null;
+	}
+
+	/**
+	 * Get the next random priority from an xorshift generator
+	 */
+	private int nextPriority() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		return seed;
+	}
+
+}
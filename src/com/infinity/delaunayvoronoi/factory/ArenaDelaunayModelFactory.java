@@ -0,0 +1,176 @@
+package com.infinity.delaunayvoronoi.factory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.model.Arc;
+import com.infinity.delaunayvoronoi.model.Node;
+import com.infinity.delaunayvoronoi.model.Point;
+import com.infinity.delaunayvoronoi.model.Polygon;
+import com.infinity.delaunayvoronoi.model.Triangle;
+
+/**
+ * A <code>DelaunayModelFactory</code> that keeps every object it makes.  Triangles and
+ * <code>Arc</code>s handed back while triangulating are given out again, and
+ * <code>Node</code>s are made a chunk at a time.  Calling <code>reset()</code> makes
+ * everything the factory ever made available again, so a long running service can
+ * build graph after graph without feeding the garbage collector.
+ * <p>
+ * The factory is not safe to share between threads, give each thread its own
+ * factory and triangulation.
+ */
+public class ArenaDelaunayModelFactory<R extends Triangle, S extends Arc, T extends Node> extends DelaunayModelFactory<R, S, T> {
+
+	/**
+	 * How many <code>Node</code>s are made at a time when none are left
+	 */
+	private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+	/**
+	 * How many <code>Node</code>s are made at a time when none are left
+	 */
+	private final int chunkSize;
+
+	/**
+	 * Every triangle the factory has made
+	 */
+	private final List<Triangle> triangles = new ArrayList<Triangle>();
+
+	/**
+	 * How many of the triangles have been handed out since the last reset
+	 */
+	private int trianglesUsed;
+
+	/**
+	 * Triangles handed back that can be given out again
+	 */
+	private final List<Triangle> freeTriangles = new ArrayList<Triangle>();
+
+	/**
+	 * Every <code>Arc</code> the factory has made
+	 */
+	private final List<Arc> arcs = new ArrayList<Arc>();
+
+	/**
+	 * How many of the <code>Arc</code>s have been handed out since the last reset
+	 */
+	private int arcsUsed;
+
+	/**
+	 * <code>Arc</code>s handed back that can be given out again
+	 */
+	private final List<Arc> freeArcs = new ArrayList<Arc>();
+
+	/**
+	 * Every <code>Node</code> the factory has made
+	 */
+	private final List<Node> nodes = new ArrayList<Node>();
+
+	/**
+	 * How many of the <code>Node</code>s have been handed out since the last reset
+	 */
+	private int nodesUsed;
+
+	/**
+	 * Creates an empty arena that makes <code>Node</code>s in chunks of the default size
+	 */
+	public ArenaDelaunayModelFactory() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates an empty arena
+	 * @param chunkSize How many <code>Node</code>s to make at a time when none are left
+	 */
+	public ArenaDelaunayModelFactory(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be at least one: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.factory.DelaunayModelFactory#polygon()
+	 */
+	@Override
+	public Triangle polygon() {
+		Triangle triangle;
+		if (!freeTriangles.isEmpty()) {
+			triangle = freeTriangles.remove(freeTriangles.size() - 1);
+		} else if (trianglesUsed < triangles.size()) {
+			triangle = triangles.get(trianglesUsed++);
+		} else {
+			triangle = new Triangle();
+			triangles.add(triangle);
+			trianglesUsed++;
+			return triangle;
+		}
+		triangle.reset();
+		return triangle;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.factory.BaseModelFactory#arc(com.infinity.delaunayvoronoi.model.Node, com.infinity.delaunayvoronoi.model.Node)
+	 */
+	@Override
+	public Arc arc(Node one, Node two) {
+		Arc arc;
+		if (!freeArcs.isEmpty()) {
+			arc = freeArcs.remove(freeArcs.size() - 1);
+		} else if (arcsUsed < arcs.size()) {
+			arc = arcs.get(arcsUsed++);
+		} else {
+			arc = new Arc(one, two);
+			arcs.add(arc);
+			arcsUsed++;
+			return arc;
+		}
+		arc.reset(one, two);
+		return arc;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.factory.BaseModelFactory#node(com.infinity.delaunayvoronoi.model.Point)
+	 */
+	@Override
+	public Node node(Point point) {
+		if (nodesUsed == nodes.size()) {
+			for (int i = 0; i < chunkSize; i++) {
+				nodes.add(new Node(null));
+			}
+		}
+		Node node = nodes.get(nodesUsed++);
+		node.reset(point);
+		return node;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.factory.BaseModelFactory#recyclePolygon(com.infinity.delaunayvoronoi.model.Polygon)
+	 */
+	@Override
+	public void recyclePolygon(Polygon polygon) {
+		freeTriangles.add((Triangle) polygon);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.factory.BaseModelFactory#recycleArc(com.infinity.delaunayvoronoi.model.Arc)
+	 */
+	@Override
+	public void recycleArc(Arc arc) {
+		freeArcs.add(arc);
+	}
+
+	/**
+	 * Makes every object the factory has made available again.  Any graph built
+	 * with the factory before the reset must no longer be used, its pieces will
+	 * be handed out again.
+	 */
+	public void reset() {
+		freeTriangles.clear();
+		freeArcs.clear();
+		trianglesUsed = 0;
+		arcsUsed = 0;
+		nodesUsed = 0;
+	}
+
+}
@@ -39,4 +39,20 @@ public class BaseModelFactory<R extends Polygon, S extends Arc, T extends Node>
 		return new Node(point);
 	}
 
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.factory.ModelFactory#recyclePolygon(com.infinity.delaunayvoronoi.model.Polygon)
+	 */
+	@Override
+	public void recyclePolygon(Polygon polygon) {
+		// nothing is reused, the garbage collector takes it
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.factory.ModelFactory#recycleArc(com.infinity.delaunayvoronoi.model.Arc)
+	 */
+	@Override
+	public void recycleArc(Arc arc) {
+		// nothing is reused, the garbage collector takes it
+	}
+
 }
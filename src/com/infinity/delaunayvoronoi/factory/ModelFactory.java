@@ -34,4 +34,18 @@ public interface ModelFactory<R extends Polygon, S extends Arc, T extends Node>
 	 */
 	T node(Point point);
 	
+	/**
+	 * Hands back a <code>Polygon</code> that was removed from its graph and is no 
+	 * longer referenced, so the factory may give it out again
+	 * @param polygon The <code>Polygon</code> that is no longer used
+	 */
+	void recyclePolygon(R polygon);
+	
+	/**
+	 * Hands back an <code>Arc</code> that was removed from its graph and is no 
+	 * longer referenced, so the factory may give it out again
+	 * @param arc The <code>Arc</code> that is no longer used
+	 */
+	void recycleArc(S arc);
+	
 }
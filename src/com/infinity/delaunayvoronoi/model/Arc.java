@@ -12,6 +12,11 @@ import java.util.List;
  */
 public class Arc {
 
+	/**
+	 * Where this is kept in its <code>PanGraph</code>, -1 when it isn't in one
+	 */
+	int graphSlot = -1;
+
 	/**
 	 * The two end points
 	 */
@@ -41,6 +46,20 @@ public class Arc {
 		endPoints.add(nodeOne);
 		endPoints.add(nodeTwo);
 	}
+
+	/**
+	 * Drops every connection and gives the <code>Arc</code> new end points so 
+	 * the object can be handed out again as if it were new
+	 * @param nodeOne The first end point
+	 * @param nodeTwo The second end point
+	 */
+	public void reset(Node nodeOne, Node nodeTwo) {
+		graphSlot = -1;
+		borderingPolygons.clear();
+		endPoints.clear();
+		endPoints.add(nodeOne);
+		endPoints.add(nodeTwo);
+	}
 	
 	/**
 	 * Get the two end points
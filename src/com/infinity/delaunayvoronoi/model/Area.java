@@ -1,6 +1,7 @@
 package com.infinity.delaunayvoronoi.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Area {
@@ -12,6 +13,11 @@ public class Area {
 	
 	private final List<Point> points = new ArrayList<>();
 	
+	/**
+	 * Where each of the <code>Point</code>s is in the list the root area was built from
+	 */
+	private int[] indexes = new int[16];
+	
 	private final List<Area> childAreas = new ArrayList<>();
 	
 	public Area(double upperX, double upperY, double lowerX, double lowerY) {
@@ -21,7 +27,24 @@ public class Area {
 		this.lowerY = lowerY;
 	}
 
+	/**
+	 * Adds a <code>Point</code>, indexed by the order the points were added
+	 * @param point The <code>Point</code> to add
+	 */
 	public void addPoint(Point point) {
+		addPoint(point, points.size());
+	}
+
+	/**
+	 * Adds a <code>Point</code> that is at the given index of the original list
+	 * @param point The <code>Point</code> to add
+	 * @param index Where the <code>Point</code> is in the original list
+	 */
+	public void addPoint(Point point, int index) {
+		if (points.size() == indexes.length) {
+			indexes = Arrays.copyOf(indexes, 2 * indexes.length);
+		}
+		indexes[points.size()] = index;
 		points.add(point);
 	}
 	
@@ -55,6 +78,11 @@ public class Area {
 		double midY = upperY + height/2;
 		double midX = upperX + width/2;
 		
+		// stacked points can't be separated, so stop once neither side can shrink
+		if (!(upperX < midX && midX < lowerX) && !(upperY < midY && midY < lowerY)) {
+			return;
+		}
+		
 		areaOne = new Area(upperX, upperY, midX, midY);
 		areaTwo = new Area(midX, upperY, lowerX, midY);
 		areaThree = new Area(upperX, midY, midX, lowerY);
@@ -65,11 +93,14 @@ public class Area {
 		childAreas.add(areaThree);
 		childAreas.add(areaFour);
 		
-		// now lets take the points and distribute them to the new areas
-		for (Point point : points) {
+		// now lets take the points and distribute them to the new areas, a point 
+		// on a shared border only goes to the first area that contains it
+		for (int i = 0; i < points.size(); i++) {
+			Point point = points.get(i);
 			for (Area childArea : childAreas) {
 				if (childArea.contains(point)) {
-					childArea.addPoint(point);
+					childArea.addPoint(point, indexes[i]);
+					break;
 				}
 			}
 		}
@@ -86,6 +117,47 @@ public class Area {
 		return points;
 	}
 
+	/**
+	 * @return Where each of the <code>Point</code>s is in the original list
+	 */
+	public int[] getIndexes() {
+		return Arrays.copyOf(indexes, points.size());
+	}
+
+	/**
+	 * Collects the areas that have not been split
+	 * @param leaves Where to put the leaf areas
+	 */
+	public void collectLeaves(List<Area> leaves) {
+		if (childAreas.isEmpty()) {
+			leaves.add(this);
+		} else {
+			for (Area childArea : childAreas) {
+				childArea.collectLeaves(leaves);
+			}
+		}
+	}
+
+	public List<Area> getChildAreas() {
+		return childAreas;
+	}
+
+	public double getUpperX() {
+		return upperX;
+	}
+
+	public double getUpperY() {
+		return upperY;
+	}
+
+	public double getLowerX() {
+		return lowerX;
+	}
+
+	public double getLowerY() {
+		return lowerY;
+	}
+
 	public boolean isValid(int maxPoints) {
 		boolean answer = true;
 		
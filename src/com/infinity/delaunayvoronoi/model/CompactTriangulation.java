@@ -0,0 +1,206 @@
+package com.infinity.delaunayvoronoi.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A triangulation stored in primitive arrays instead of <code>Polygon</code>, 
+ * <code>Arc</code> and <code>Node</code> instances.  Each triangle owns three 
+ * consecutive half-edges, half-edge <code>e</code> belongs to triangle <code>e / 3</code> 
+ * and starts at vertex <code>triangles[e]</code>.  Triangles are counterclockwise so 
+ * the next half-edge is found by arithmetic instead of being stored.
+ */
+public class CompactTriangulation {
+
+	/**
+	 * The <code>Point</code>s that were triangulated, vertex i is <code>points.get(i)</code>
+	 */
+	private final List<Point> points;
+	
+	/**
+	 * The x, y coordinates of each vertex
+	 */
+	private final double[] coordinates;
+	
+	/**
+	 * The vertex each half-edge starts at
+	 */
+	private final int[] triangles;
+	
+	/**
+	 * The twin of each half-edge in the neighboring triangle or -1 on the hull
+	 */
+	private final int[] halfedges;
+
+	/**
+	 * Creates a new <code>CompactTriangulation</code>
+	 * @param points The <code>Point</code>s that were triangulated
+	 * @param coordinates The x, y coordinates of each vertex
+	 * @param triangles The vertex each half-edge starts at, three per triangle
+	 * @param halfedges The twin of each half-edge or -1 on the hull
+	 */
+	public CompactTriangulation(List<Point> points, double[] coordinates, int[] triangles, int[] halfedges) {
+		this.points = points;
+		this.coordinates = coordinates;
+		this.triangles = triangles;
+		this.halfedges = halfedges;
+	}
+
+	/**
+	 * Creates a <code>CompactTriangulation</code> from counterclockwise triangles by finding 
+	 * the twin of every half-edge
+	 * @param points The <code>Point</code>s that were triangulated
+	 * @param coordinates The x, y coordinates of each vertex
+	 * @param triangles The vertex each half-edge starts at, three per triangle
+	 * @return The linked triangulation
+	 */
+	public static CompactTriangulation fromTriangles(List<Point> points, double[] coordinates, int[] triangles) {
+		int[] halfedges = new int[triangles.length];
+		
+		// open addressing table from each half-edge's start and end vertex to the half-edge
+		int capacity = Integer.highestOneBit(Math.max(2 * triangles.length, 2)) << 1;
+		long[] keys = new long[capacity];
+		int[] values = new int[capacity];
+		Arrays.fill(values, -1);
+		
+		for (int e = 0; e < triangles.length; e++) {
+			halfedges[e] = -1;
+			long key = edgeKey(triangles[e], triangles[next(e)]);
+			int slot = (int) (mix(key) & (capacity - 1));
+			while (values[slot] != -1) {
+				slot = (slot + 1) & (capacity - 1);
+			}
+			keys[slot] = key;
+			values[slot] = e;
+		}
+		
+		for (int e = 0; e < triangles.length; e++) {
+			long twinKey = edgeKey(triangles[next(e)], triangles[e]);
+			int slot = (int) (mix(twinKey) & (capacity - 1));
+			while (values[slot] != -1) {
+				if (keys[slot] == twinKey) {
+					halfedges[e] = values[slot];
+					break;
+				}
+				slot = (slot + 1) & (capacity - 1);
+			}
+		}
+		
+		return new CompactTriangulation(points, coordinates, triangles, halfedges);
+	}
+
+	private static long edgeKey(int from, int to) {
+		return ((long) from << 32) | (to & 0xFFFFFFFFL);
+	}
+
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	/**
+	 * Get the half-edge after the given one in the same triangle
+	 * @param edge The half-edge
+	 * @return The next half-edge counterclockwise
+	 */
+	public static int next(int edge) {
+		return edge % 3 == 2 ? edge - 2 : edge + 1;
+	}
+
+	/**
+	 * Get the half-edge before the given one in the same triangle
+	 * @param edge The half-edge
+	 * @return The previous half-edge counterclockwise
+	 */
+	public static int prev(int edge) {
+		return edge % 3 == 0 ? edge + 2 : edge - 1;
+	}
+
+	/**
+	 * Get the <code>Point</code>s that were triangulated
+	 * @return An unmodifiable <code>List</code> of the <code>Point</code>s, indexed by vertex
+	 */
+	public List<Point> getPoints() {
+		return Collections.unmodifiableList(points);
+	}
+
+	/**
+	 * Get the number of vertices
+	 * @return The number of vertices
+	 */
+	public int getVertexCount() {
+		return coordinates.length / 2;
+	}
+
+	/**
+	 * Get the number of triangles
+	 * @return The number of triangles
+	 */
+	public int getTriangleCount() {
+		return triangles.length / 3;
+	}
+
+	/**
+	 * Get the x coordinate of a vertex
+	 * @param vertex The vertex
+	 * @return The x coordinate
+	 */
+	public double getX(int vertex) {
+		return coordinates[2 * vertex];
+	}
+
+	/**
+	 * Get the y coordinate of a vertex
+	 * @param vertex The vertex
+	 * @return The y coordinate
+	 */
+	public double getY(int vertex) {
+		return coordinates[2 * vertex + 1];
+	}
+
+	/**
+	 * Get the vertex a half-edge starts at
+	 * @param edge The half-edge
+	 * @return The vertex the half-edge starts at
+	 */
+	public int getVertex(int edge) {
+		return triangles[edge];
+	}
+
+	/**
+	 * Get the twin of a half-edge
+	 * @param edge The half-edge
+	 * @return The twin in the neighboring triangle or -1 if the half-edge is on the hull
+	 */
+	public int getTwin(int edge) {
+		return halfedges[edge];
+	}
+
+	/**
+	 * Get the raw coordinate array, x and y for each vertex.  Not copied for speed, do not modify.
+	 * @return The coordinates
+	 */
+	public double[] getCoordinates() {
+		return coordinates;
+	}
+
+	/**
+	 * Get the raw vertex array, one entry per half-edge.  Not copied for speed, do not modify.
+	 * @return The vertex each half-edge starts at
+	 */
+	public int[] getTriangles() {
+		return triangles;
+	}
+
+	/**
+	 * Get the raw twin array, one entry per half-edge.  Not copied for speed, do not modify.
+	 * @return The twin of each half-edge
+	 */
+	public int[] getHalfedges() {
+		return halfedges;
+	}
+	
+}
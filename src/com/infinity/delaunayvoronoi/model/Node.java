@@ -13,6 +13,11 @@ import java.util.List;
  */
 public class Node {
 
+	/**
+	 * Where this is kept in its <code>PanGraph</code>, -1 when it isn't in one
+	 */
+	int graphSlot = -1;
+
 	/**
 	 * All <code>Polygon</code>s that have this <code>Node</code> as a corner
 	 */
@@ -31,7 +36,7 @@ public class Node {
 	/**
 	 * The location of this <code>Node</code>
 	 */
-	private final Point point;
+	private Point point;
 	
 	/**
 	 * Creates a new <code>Node</code> 
@@ -42,6 +47,19 @@ public class Node {
 		this.point = point;
 	}
 
+	/**
+	 * Drops every connection and gives the <code>Node</code> a new location so 
+	 * the object can be handed out again as if it were new
+	 * @param point The new location of this <code>Node</code>
+	 */
+	public void reset(Point point) {
+		graphSlot = -1;
+		touchingPolygons.clear();
+		protrudingArcs.clear();
+		adjacentNodes.clear();
+		this.point = point;
+	}
+
 	/**
 	 * Get the list of all <code>Polygon</code> that touch this <code>Nodes</code>
 	 * @return An unmodifiable <code>List</code> of the <code>Polygon</code>s that touch this <code>Node</code>
@@ -74,6 +92,14 @@ public class Node {
 		return point;
 	}
 
+	/**
+	 * Set the location of this <code>Node</code>
+	 * @param point The new location of this <code>Node</code>
+	 */
+	public void setPoint(Point point) {
+		this.point = point;
+	}
+
 	/**
 	 * Add a <code>Polygon</code> that touches this <code>Node</code>
 	 * @param polygon
@@ -104,6 +130,14 @@ public class Node {
 		}
 	}
 
+	/**
+	 * Remove the <code>Node</code> from the adjacent list
+	 * @param other The <code>Node</code> that is no longer reachable from this one
+	 */
+	public void removeAdjacentNode(Node other) {
+		adjacentNodes.remove(other);
+	}
+
 	/**
 	 * Remove the <code>Arc</code> from the protruding list
 	 * @param arc The <code>Arc</code> to remove
@@ -1,11 +1,12 @@
 package com.infinity.delaunayvoronoi.model;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
- * Holds references to all of the components of the graph
+ * Holds references to all of the components of the graph.  Every component
+ * remembers its slot in the graph so adding and removing take constant time;
+ * removing moves the last component of the same kind into the empty slot.
+ * A component can only be in one graph at a time.
  * 
  * @author jeffreyrichley
  */
@@ -14,34 +15,84 @@ public class PanGraph<R extends Polygon, S extends Arc, T extends Node> {
 	/**
 	 * All <code>Polygon</code>s in the graph
 	 */
-	private List<R> polygons = new ArrayList<R>();
+	private SlotList<R> polygons = new SlotList<R>() {
+		@Override
+		int getSlot(R element) {
+			return element.graphSlot;
+		}
+
+		@Override
+		void setSlot(R element, int slot) {
+			element.graphSlot = slot;
+		}
+	};
 	
 	/**
 	 * All <code>Arc</code>s in the graph
 	 */
-	private List<S> arcs = new ArrayList<S>();
+	private SlotList<S> arcs = new SlotList<S>() {
+		@Override
+		int getSlot(S element) {
+			return element.graphSlot;
+		}
+
+		@Override
+		void setSlot(S element, int slot) {
+			element.graphSlot = slot;
+		}
+	};
 	
 	/**
 	 * All <code>Node</code>s in the graph
 	 */
-	private List<T> nodes = new ArrayList<T>();
+	private SlotList<T> nodes = new SlotList<T>() {
+		@Override
+		int getSlot(T element) {
+			return element.graphSlot;
+		}
+
+		@Override
+		void setSlot(T element, int slot) {
+			element.graphSlot = slot;
+		}
+	};
 
 	/**
 	 * Get the list of all <code>Polygon</code>s
 	 * @return An unmodifiable <code>List</code> of all the <code>Polygon</code>s
 	 */
 	public List<R> getPolygons() {
-		return Collections.unmodifiableList(polygons);
+		return polygons.view();
 	}
 
 	/**
 	 * Add a <code>Polygon</code> to the graph
 	 * @param polygon The <code>Polygon</code> to add
+	 * @throws IllegalArgumentException If the <code>Polygon</code> is already in a graph
 	 */
 	public void addPolygon(R polygon) {
 		polygons.add(polygon);
 	}
 
+	/**
+	 * Determines if the <code>Polygon</code> is in the graph
+	 * @param polygon The <code>Polygon</code> to look for
+	 * @return True if the <code>Polygon</code> is in the graph
+	 */
+	public boolean containsPolygon(R polygon) {
+		return polygons.contains(polygon);
+	}
+
+	/**
+	 * Get where the <code>Polygon</code> is in the list of all <code>Polygon</code>s, which
+	 * changes when anything of the same kind is removed
+	 * @param polygon The <code>Polygon</code> to look for
+	 * @return The index of the <code>Polygon</code> or -1 if it isn't in the graph
+	 */
+	public int indexOfPolygon(R polygon) {
+		return polygons.indexOf(polygon);
+	}
+
 	/**
 	 * Removes the <code>Polygon</code> from the graph 
 	 * @param polygon The <code>Polygon</code> to remove
@@ -55,17 +106,37 @@ public class PanGraph<R extends Polygon, S extends Arc, T extends Node> {
 	 * @return An unmodifiable <code>List</code> of all the <code>Arc</code>s
 	 */
 	public List<S> getArcs() {
-		return Collections.unmodifiableList(arcs);
+		return arcs.view();
 	}
 
 	/**
 	 * Add a <code>Arc</code> to the graph
 	 * @param arc The <code>Arc</code> to add
+	 * @throws IllegalArgumentException If the <code>Arc</code> is already in a graph
 	 */
 	public void addArc(S arc) {
 		arcs.add(arc);
 	}
 
+	/**
+	 * Determines if the <code>Arc</code> is in the graph
+	 * @param arc The <code>Arc</code> to look for
+	 * @return True if the <code>Arc</code> is in the graph
+	 */
+	public boolean containsArc(S arc) {
+		return arcs.contains(arc);
+	}
+
+	/**
+	 * Get where the <code>Arc</code> is in the list of all <code>Arc</code>s, which
+	 * changes when anything of the same kind is removed
+	 * @param arc The <code>Arc</code> to look for
+	 * @return The index of the <code>Arc</code> or -1 if it isn't in the graph
+	 */
+	public int indexOfArc(S arc) {
+		return arcs.indexOf(arc);
+	}
+
 	/**
 	 * Removes the <code>Arc</code> from the graph
 	 * @param arc The <code>Arc</code> to remove
@@ -79,17 +150,37 @@ public class PanGraph<R extends Polygon, S extends Arc, T extends Node> {
 	 * @return An unmodifiable <code>List</code> of all the <code>Node</code>s
 	 */
 	public List<T> getNodes() {
-		return Collections.unmodifiableList(nodes);
+		return nodes.view();
 	}
 
 	/**
 	 * Add a <code>Node</code> to the graph
 	 * @param node The <code>Node</code> to add
+	 * @throws IllegalArgumentException If the <code>Node</code> is already in a graph
 	 */
 	public void addNode(T node) {
 		nodes.add(node);
 	}
 
+	/**
+	 * Determines if the <code>Node</code> is in the graph
+	 * @param node The <code>Node</code> to look for
+	 * @return True if the <code>Node</code> is in the graph
+	 */
+	public boolean containsNode(T node) {
+		return nodes.contains(node);
+	}
+
+	/**
+	 * Get where the <code>Node</code> is in the list of all <code>Node</code>s, which
+	 * changes when anything of the same kind is removed
+	 * @param node The <code>Node</code> to look for
+	 * @return The index of the <code>Node</code> or -1 if it isn't in the graph
+	 */
+	public int indexOfNode(T node) {
+		return nodes.indexOf(node);
+	}
+
 	/**
 	 * Removes the <code>Node</code> from the graph 
 	 * @param node The <code>Node</code> to remove
@@ -12,25 +12,34 @@ import java.util.List;
 public class Polygon {
 
 	/**
-	 * Adjacent <code>Polygon</code>s
+	 * Where this is kept in its <code>PanGraph</code>, -1 when it isn't in one
 	 */
-	private List<Polygon> neighbors = new ArrayList<Polygon>();
+	int graphSlot = -1;
 
 	/**
-	 * Bordering <code>Arc</code>s
+	 * Adjacent <code>Polygon</code>s, made on first use so subclasses with
+	 * their own storage don't pay for it
 	 */
-	private List<Arc> borders = new ArrayList<Arc>();
+	private List<Polygon> neighbors;
 
 	/**
-	 * Corners of this <code>Polygon</code>
+	 * Bordering <code>Arc</code>s, made on first use
 	 */
-	private List<Node> corners = new ArrayList<Node>();
+	private List<Arc> borders;
+
+	/**
+	 * Corners of this <code>Polygon</code>, made on first use
+	 */
+	private List<Node> corners;
 
 	/**
 	 * Get the <code>Polygon</code>s that neighbor this <code>Polygon</code>
 	 * @return An unmodifiable <code>List</code> of the <code>Polygon</code>s that neighbor this <code>Polygon</code>
 	 */
 	public List<Polygon> getNeighbors() {
+		if (neighbors == null) {
+			return Collections.emptyList();
+		}
 		return Collections.unmodifiableList(neighbors);
 	}
 
@@ -39,6 +48,9 @@ public class Polygon {
 	 * @return An unmodifiable <code>List</code> of the bordering <code>Arc</code>s of this <code>Polygon</code>
 	 */
 	public List<Arc> getBorders() {
+		if (borders == null) {
+			return Collections.emptyList();
+		}
 		return Collections.unmodifiableList(borders);
 	}
 
@@ -47,6 +59,9 @@ public class Polygon {
 	 * @return An unmodifiable <code>List</code> of the corner <code>Node</code>s of this <code>Polygon</code>
 	 */
 	public List<Node> getCorners() {
+		if (corners == null) {
+			return Collections.emptyList();
+		}
 		return Collections.unmodifiableList(corners);
 	}
 
@@ -55,6 +70,9 @@ public class Polygon {
 	 * @param arc The <code>Arc</code> to add to the borders
 	 */
 	public void addBorder(Arc arc) {
+		if (borders == null) {
+			borders = new ArrayList<Arc>();
+		}
 		if (!borders.contains(arc)) {
 			borders.add(arc);
 		}
@@ -65,6 +83,9 @@ public class Polygon {
 	 * @param node The <code>Node</code> to add as a corner
 	 */
 	public void addCorner(Node node) {
+		if (corners == null) {
+			corners = new ArrayList<Node>();
+		}
 		if (!corners.contains(node)) {
 			corners.add(node);
 		}
@@ -75,11 +96,35 @@ public class Polygon {
 	 * @param other The neighboring <code>Polygon</code>
 	 */
 	public void addNeighboringPolygon(Polygon other) {
+		if (neighbors == null) {
+			neighbors = new ArrayList<Polygon>();
+		}
 		if (this != other && !neighbors.contains(other)) {
 			neighbors.add(other);
 		}
 	}
 
+	/**
+	 * Drops every corner, border and neighbor so the object can be handed out
+	 * again as if it were new
+	 */
+	public void reset() {
+		graphSlot = -1;
+		neighbors = null;
+		borders = null;
+		corners = null;
+	}
+
+	/**
+	 * Remove a neighboring <code>Polygon</code>
+	 * @param other The <code>Polygon</code> that no longer neighbors this one
+	 */
+	public void removeNeighboringPolygon(Polygon other) {
+		if (neighbors != null) {
+			neighbors.remove(other);
+		}
+	}
+
 	/**
 	 * Given a <code>List</code> of <code>Point</code>s, do any 
 	 * of them make up the corners of this <code>Polygon</code>
@@ -88,7 +133,7 @@ public class Polygon {
 	 */
 	public boolean sharesNode(List<Point> otherCorners) {
 		for (Point point : otherCorners) {
-			for (Node node : corners) {
+			for (Node node : getCorners()) {
 				if (point == node.getPoint()) {
 					return true;
 				}
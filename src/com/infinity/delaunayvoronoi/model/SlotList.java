@@ -0,0 +1,113 @@
+package com.infinity.delaunayvoronoi.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A list that remembers where each element is kept so an element can be removed
+ * in constant time by moving the last element into its slot.  The order of the
+ * elements changes when something is removed.  Each element tracks a single slot,
+ * so it can only be in one list of a given kind at a time and has to be removed
+ * from that one before it is added to another.
+ *
+ * @param <E> The kind of element kept
+ */
+abstract class SlotList<E> {
+
+	/**
+	 * The elements in their slots
+	 */
+	private final List<E> elements = new ArrayList<E>();
+
+	/**
+	 * The read only view handed out to callers
+	 */
+	private final List<E> view = Collections.unmodifiableList(elements);
+
+	/**
+	 * Get the slot the element says it is in
+	 * @param element The element to look up
+	 * @return The element's slot or -1 if it isn't in a list
+	 */
+	abstract int getSlot(E element);
+
+	/**
+	 * Tell the element which slot it is in
+	 * @param element The element that moved
+	 * @param slot The element's new slot or -1 if it was removed
+	 */
+	abstract void setSlot(E element, int slot);
+
+	/**
+	 * Get the elements
+	 * @return An unmodifiable <code>List</code> of the elements
+	 */
+	List<E> view() {
+		return view;
+	}
+
+	/**
+	 * Puts the element in the last slot
+	 * @param element The element to add
+	 * @throws IllegalArgumentException If the element is already in a list
+	 */
+	void add(E element) {
+		if (getSlot(element) >= 0) {
+			throw new IllegalArgumentException("Element is already in a graph, remove it from that one first");
+		}
+		setSlot(element, elements.size());
+		elements.add(element);
+	}
+
+	/**
+	 * Removes the element by moving the last element into its slot
+	 * @param element The element to remove
+	 */
+	void remove(E element) {
+		int slot = find(element);
+		if (slot < 0) {
+			return;
+		}
+
+		int last = elements.size() - 1;
+		E moved = elements.remove(last);
+		if (slot != last) {
+			elements.set(slot, moved);
+			setSlot(moved, slot);
+		}
+		setSlot(element, -1);
+	}
+
+	/**
+	 * Determines if the element is in the list
+	 * @param element The element to look for
+	 * @return True if the element is in the list
+	 */
+	boolean contains(E element) {
+		return find(element) >= 0;
+	}
+
+	/**
+	 * Get the slot the element is in
+	 * @param element The element to look for
+	 * @return The element's slot or -1 if it isn't in the list
+	 */
+	int indexOf(E element) {
+		return find(element);
+	}
+
+	/**
+	 * Finds the element's slot, which is only this list's when the element in that slot is it
+	 * @param element The element to look for
+	 * @return The element's slot or -1 if it isn't in the list
+	 */
+	private int find(E element) {
+		int slot = getSlot(element);
+		if (slot >= 0 && slot < elements.size() && elements.get(slot) == element) {
+			return slot;
+		}
+		return -1;
+	}
+
+}
@@ -1,27 +1,66 @@
 package com.infinity.delaunayvoronoi.model;
 
+import java.util.AbstractList;
+import java.util.List;
+
+import com.infinity.delaunayvoronoi.util.GeometricPredicates;
+
 /**
- * Adds information about the Triangle's circumcircle to a Polygon
+ * Adds information about the Triangle's circumcircle to a Polygon.  A triangle 
+ * always has three corners, so they are kept in fixed slots instead of lists: once
+ * all three corners are in they are put in counterclockwise order, border i is the
+ * <code>Arc</code> across from corner i, and neighbor i is the <code>Polygon</code>
+ * on the other side of border i, or null if there isn't one.
  * @author jeffreyrichley
  */
 public class Triangle extends Polygon {
 
 	/**
-	 * The center of the circumcircle 
+	 * The corners, counterclockwise once all three are in
+	 */
+	private final Node[] corners = new Node[3];
+
+	/**
+	 * The borders, each across from the corner in the same slot
+	 */
+	private final Arc[] borders = new Arc[3];
+
+	/**
+	 * The neighbors, each across the border in the same slot
+	 */
+	private final Polygon[] neighbors = new Polygon[3];
+
+	/**
+	 * How many corners have been added
+	 */
+	private int cornerCount;
+
+	/**
+	 * The x value of the circumcircle's center
 	 */
-	private Point circumCircleCenter;
-	
+	private double circumCircleX;
+
 	/**
-	 * The radius of the circumcircle
+	 * The y value of the circumcircle's center
 	 */
-	private double circumCircleRadius;
+	private double circumCircleY;
 
 	/**
-	 * Get the center of the circumcircle
+	 * The circumcircle's radius squared, kept squared so containment checks don't need a square root
+	 */
+	private double circumCircleRadiusSquared;
+
+	/**
+	 * The last search that reached this triangle
+	 */
+	private long visit;
+
+	/**
+	 * Get the center of the circumcircle, a new <code>Point</code> is made on each call
 	 * @return The center of the circumcircle
 	 */
 	public Point getCircumCircleCenter() {
-		return circumCircleCenter;
+		return new Point(circumCircleX, circumCircleY);
 	}
 
 	/**
@@ -29,7 +68,8 @@ public class Triangle extends Polygon {
 	 * @param circumCircleCenter The center of the circumcircle
 	 */
 	public void setCircumCircleCenter(Point circumCircleCenter) {
-		this.circumCircleCenter = circumCircleCenter;
+		this.circumCircleX = circumCircleCenter.x;
+		this.circumCircleY = circumCircleCenter.y;
 	}
 
 	/**
@@ -37,7 +77,7 @@ public class Triangle extends Polygon {
 	 * @return The radius of the circumcircle
 	 */
 	public double getCircumCircleRadius() {
-		return circumCircleRadius;
+		return Math.sqrt(circumCircleRadiusSquared);
 	}
 
 	/**
@@ -45,8 +85,334 @@ public class Triangle extends Polygon {
 	 * @param circumCircleRadius The circumcircle's radius
 	 */
 	public void setCircumCircleRadius(double circumCircleRadius) {
-		this.circumCircleRadius = circumCircleRadius;
+		this.circumCircleRadiusSquared = circumCircleRadius * circumCircleRadius;
+	}
+
+	/**
+	 * Get the x value of the circumcircle's center
+	 * @return The x value of the circumcircle's center
+	 */
+	public double getCircumCircleX() {
+		return circumCircleX;
+	}
+
+	/**
+	 * Get the y value of the circumcircle's center
+	 * @return The y value of the circumcircle's center
+	 */
+	public double getCircumCircleY() {
+		return circumCircleY;
+	}
+
+	/**
+	 * Get the circumcircle's radius squared
+	 * @return The circumcircle's radius squared
+	 */
+	public double getCircumCircleRadiusSquared() {
+		return circumCircleRadiusSquared;
+	}
+
+	/**
+	 * Set the whole circumcircle at once
+	 * @param x The x value of the circumcircle's center
+	 * @param y The y value of the circumcircle's center
+	 * @param radiusSquared The circumcircle's radius squared
+	 */
+	public void setCircumCircle(double x, double y, double radiusSquared) {
+		this.circumCircleX = x;
+		this.circumCircleY = y;
+		this.circumCircleRadiusSquared = radiusSquared;
+	}
+
+	/**
+	 * Marks the triangle as reached by a search, so a search can tell which triangles
+	 * it has already seen without keeping a set of them
+	 * @param visit The search, a number no other search uses
+	 * @return True if the search hadn't reached the triangle before
+	 */
+	public boolean markVisited(long visit) {
+		if (this.visit == visit) {
+			return false;
+		}
+		this.visit = visit;
+		return true;
 	}
-	
-	
+
+	/**
+	 * Get a corner
+	 * @param index The slot of the corner, 0 to 2
+	 * @return The corner or null if it hasn't been added
+	 */
+	public Node getCorner(int index) {
+		return corners[index];
+	}
+
+	/**
+	 * Get the border across from a corner
+	 * @param index The slot of the corner, 0 to 2
+	 * @return The <code>Arc</code> across from the corner or null if it hasn't been added
+	 */
+	public Arc getBorder(int index) {
+		return borders[index];
+	}
+
+	/**
+	 * Get the neighbor across from a corner
+	 * @param index The slot of the corner, 0 to 2
+	 * @return The <code>Polygon</code> across from the corner or null if there isn't one
+	 */
+	public Polygon getNeighbor(int index) {
+		return neighbors[index];
+	}
+
+	/**
+	 * Find the slot of a corner
+	 * @param node The <code>Node</code> to look for
+	 * @return The slot of the corner or -1 if the <code>Node</code> isn't a corner
+	 */
+	public int indexOf(Node node) {
+		for (int i = 0; i < 3; i++) {
+			if (corners[i] == node) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Find the slot of a border
+	 * @param arc The <code>Arc</code> to look for
+	 * @return The slot of the corner across from the border or -1 if the <code>Arc</code> isn't a border
+	 */
+	public int indexOf(Arc arc) {
+		for (int i = 0; i < 3; i++) {
+			if (borders[i] == arc) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#getNeighbors()
+	 */
+	@Override
+	public List<Polygon> getNeighbors() {
+		return new SlotView<Polygon>(neighbors);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#getBorders()
+	 */
+	@Override
+	public List<Arc> getBorders() {
+		return new SlotView<Arc>(borders);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#getCorners()
+	 */
+	@Override
+	public List<Node> getCorners() {
+		return new SlotView<Node>(corners);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#addCorner(com.infinity.delaunayvoronoi.model.Node)
+	 */
+	@Override
+	public void addCorner(Node node) {
+		if (cornerCount == 3 || indexOf(node) >= 0) {
+			return;
+		}
+		corners[cornerCount++] = node;
+		if (cornerCount < 3) {
+			return;
+		}
+
+		// turn the corners counterclockwise and put anything added early in its slot
+		if (GeometricPredicates.orient2d(corners[0].getPoint(), corners[1].getPoint(), corners[2].getPoint()) < 0) {
+			Node swap = corners[1];
+			corners[1] = corners[2];
+			corners[2] = swap;
+		}
+		Arc[] earlyBorders = borders.clone();
+		Polygon[] earlyNeighbors = neighbors.clone();
+		for (int i = 0; i < 3; i++) {
+			borders[i] = null;
+			neighbors[i] = null;
+		}
+		for (Arc arc : earlyBorders) {
+			if (arc != null) {
+				addBorder(arc);
+			}
+		}
+		for (Polygon polygon : earlyNeighbors) {
+			if (polygon != null) {
+				addNeighboringPolygon(polygon);
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#addBorder(com.infinity.delaunayvoronoi.model.Arc)
+	 */
+	@Override
+	public void addBorder(Arc arc) {
+		if (indexOf(arc) >= 0) {
+			return;
+		}
+		int slot = -1;
+		if (cornerCount == 3) {
+			List<Node> ends = arc.getEndPoints();
+			for (int i = 0; i < 3 && slot < 0; i++) {
+				if (!ends.contains(corners[i])) {
+					slot = i;
+				}
+			}
+		}
+		place(borders, arc, slot);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#addNeighboringPolygon(com.infinity.delaunayvoronoi.model.Polygon)
+	 */
+	@Override
+	public void addNeighboringPolygon(Polygon other) {
+		if (this == other) {
+			return;
+		}
+		for (Polygon neighbor : neighbors) {
+			if (neighbor == other) {
+				return;
+			}
+		}
+		int slot = -1;
+		if (cornerCount == 3) {
+			// the neighbor shares the two corners on either side of the slot
+			List<Node> otherCorners = other.getCorners();
+			for (int i = 0; i < 3 && slot < 0; i++) {
+				if (otherCorners.contains(corners[(i + 1) % 3]) && otherCorners.contains(corners[(i + 2) % 3])) {
+					slot = i;
+				}
+			}
+			// or borders the same arc
+			for (int i = 0; i < 3 && slot < 0; i++) {
+				if (borders[i] != null && borders[i].getBorderingPolygons().contains(other)) {
+					slot = i;
+				}
+			}
+		}
+		place(neighbors, other, slot);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#removeNeighboringPolygon(com.infinity.delaunayvoronoi.model.Polygon)
+	 */
+	@Override
+	public void removeNeighboringPolygon(Polygon other) {
+		for (int i = 0; i < 3; i++) {
+			if (neighbors[i] == other) {
+				neighbors[i] = null;
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#reset()
+	 */
+	@Override
+	public void reset() {
+		super.reset();
+		for (int i = 0; i < 3; i++) {
+			corners[i] = null;
+			borders[i] = null;
+			neighbors[i] = null;
+		}
+		cornerCount = 0;
+		setCircumCircle(0, 0, 0);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.infinity.delaunayvoronoi.model.Polygon#sharesNode(java.util.List)
+	 */
+	@Override
+	public boolean sharesNode(List<Point> otherCorners) {
+		for (Point point : otherCorners) {
+			for (Node node : corners) {
+				if (node != null && point == node.getPoint()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Puts the element in its slot, or the first open one if its slot isn't known
+	 * @param slots The slots to put the element in
+	 * @param element The element to add
+	 * @param slot The element's slot or -1 if it isn't known
+	 */
+	private static <E> void place(E[] slots, E element, int slot) {
+		if (slot < 0 || slots[slot] != null) {
+			for (slot = 0; slot < 3 && slots[slot] != null; slot++) {
+				// looking for an open slot
+			}
+			if (slot == 3) {
+				return;
+			}
+		}
+		slots[slot] = element;
+	}
+
+	/**
+	 * A read only view of the filled slots
+	 * @param <E> The kind of element in the slots
+	 */
+	private static final class SlotView<E> extends AbstractList<E> {
+
+		/**
+		 * The slots being viewed
+		 */
+		private final E[] slots;
+
+		/**
+		 * Creates a view of the slots
+		 * @param slots The slots being viewed
+		 */
+		SlotView(E[] slots) {
+			this.slots = slots;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.AbstractList#get(int)
+		 */
+		@Override
+		public E get(int index) {
+			int seen = -1;
+			for (E element : slots) {
+				if (element != null && ++seen == index) {
+					return element;
+				}
+			}
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.AbstractCollection#size()
+		 */
+		@Override
+		public int size() {
+			int size = 0;
+			for (E element : slots) {
+				if (element != null) {
+					size++;
+				}
+			}
+			return size;
+		}
+
+	}
+
 }
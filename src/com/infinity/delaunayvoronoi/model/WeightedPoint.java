@@ -0,0 +1,36 @@
+package com.infinity.delaunayvoronoi.model;
+
+/**
+ * A <code>Point</code> with a weight, used for power diagrams and regular triangulations.
+ * A site's power distance to a location is the squared distance less its weight, so a
+ * heavier site claims more of the area around it.  A plain <code>Point</code> is the
+ * same as a <code>WeightedPoint</code> with a weight of 0.
+ */
+public class WeightedPoint extends Point {
+
+	/**
+	 * How much the squared distance to this <code>Point</code> is reduced by
+	 */
+	public final double weight;
+
+	/**
+	 * Constructs a new <code>WeightedPoint</code>
+	 * @param x The x component of this <code>Point</code>
+	 * @param y The y component of this <code>Point</code>
+	 * @param weight The weight of this <code>Point</code>
+	 */
+	public WeightedPoint(double x, double y, double weight) {
+		super(x, y);
+		this.weight = weight;
+	}
+
+	/**
+	 * Get the weight of any <code>Point</code>
+	 * @param point The <code>Point</code> to get the weight of
+	 * @return The weight of a <code>WeightedPoint</code>, or 0 for a plain <code>Point</code>
+	 */
+	public static double weightOf(Point point) {
+		return point instanceof WeightedPoint ? ((WeightedPoint) point).weight : 0;
+	}
+
+}
@@ -0,0 +1,250 @@
+package com.infinity.delaunayvoronoi.util;
+
+import java.math.BigDecimal;
+
+import com.infinity.delaunayvoronoi.model.Point;
+
+/**
+ * Orientation, incircle and power tests that always give the right sign.  The determinants 
+ * are first evaluated with doubles, and only when the answer is closer to 0 than the 
+ * rounding error could account for are they evaluated again with exact arithmetic.
+ * The error bounds are the ones from Shewchuk, "Adaptive Precision Floating-Point 
+ * Arithmetic and Fast Robust Geometric Predicates".
+ */
+public class GeometricPredicates {
+
+	/**
+	 * Half of the distance between 1 and the next double, the most a single 
+	 * operation can be off by relative to its result
+	 */
+	public static final double EPSILON = Math.ulp(1.0) / 2;
+	
+	/**
+	 * Bounds the rounding error of the double orientation determinant
+	 */
+	private static final double ORIENTATION_BOUND = (3.0 + 16.0 * EPSILON) * EPSILON;
+	
+	/**
+	 * Bounds the rounding error of the double incircle determinant
+	 */
+	private static final double INCIRCLE_BOUND = (10.0 + 96.0 * EPSILON) * EPSILON;
+	
+	/**
+	 * Bounds the rounding error of the double power determinant, the incircle bound 
+	 * widened for the two extra roundings taking the weights off of the lifts
+	 */
+	private static final double POWER_BOUND = (12.0 + 128.0 * EPSILON) * EPSILON;
+
+	/**
+	 * Calculates which side of the line through the first two <code>Point</code>s the
+	 * third <code>Point</code> is on
+	 * @param a The first <code>Point</code> on the line
+	 * @param b The second <code>Point</code> on the line
+	 * @param c The <code>Point</code> to check
+	 * @return Positive if the <code>Point</code>s are counterclockwise, negative if they are
+	 * clockwise, and 0 if they are collinear
+	 */
+	public static double orient2d(Point a, Point b, Point c) {
+		return orient2d(a.x, a.y, b.x, b.y, c.x, c.y);
+	}
+
+	/**
+	 * Calculates which side of the line through a and b the location c is on.  Only 
+	 * the sign is exact, the magnitude is twice the area of the triangle when it is
+	 * big enough to trust.
+	 * @return Positive if a, b, c are counterclockwise, negative if they are
+	 * clockwise, and 0 if they are collinear
+	 */
+	public static double orient2d(double ax, double ay, double bx, double by, double cx, double cy) {
+		double detLeft = (ax - cx) * (by - cy);
+		double detRight = (ay - cy) * (bx - cx);
+		double det = detLeft - detRight;
+		double detSum;
+		
+		// when the two products have different signs there can't be any cancellation
+		if (detLeft > 0) {
+			if (detRight <= 0) {
+				return det;
+			}
+			detSum = detLeft + detRight;
+		} else if (detLeft < 0) {
+			if (detRight >= 0) {
+				return det;
+			}
+			detSum = -detLeft - detRight;
+		} else {
+			return det;
+		}
+		
+		if (det >= ORIENTATION_BOUND * detSum || -det >= ORIENTATION_BOUND * detSum) {
+			return det;
+		}
+		
+		return orient2dExact(ax, ay, bx, by, cx, cy);
+	}
+
+	/**
+	 * Calculates if the <code>Point</code> d is inside the circle through a, b and c
+	 * @return Positive if d is inside the circle of the counterclockwise a, b, c, 
+	 * negative if it is outside, and 0 if it is on the circle
+	 */
+	public static double incircle(Point a, Point b, Point c, Point d) {
+		return incircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y);
+	}
+
+	/**
+	 * Calculates if location d is inside the circle through a, b and c.  Only the sign
+	 * is exact.
+	 * @return Positive if d is inside the circle of the counterclockwise a, b, c, 
+	 * negative if it is outside, and 0 if it is on the circle
+	 */
+	public static double incircle(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy) {
+		double adx = ax - dx;
+		double ady = ay - dy;
+		double bdx = bx - dx;
+		double bdy = by - dy;
+		double cdx = cx - dx;
+		double cdy = cy - dy;
+		
+		double bdxcdy = bdx * cdy;
+		double cdxbdy = cdx * bdy;
+		double aLift = adx * adx + ady * ady;
+		
+		double cdxady = cdx * ady;
+		double adxcdy = adx * cdy;
+		double bLift = bdx * bdx + bdy * bdy;
+		
+		double adxbdy = adx * bdy;
+		double bdxady = bdx * ady;
+		double cLift = cdx * cdx + cdy * cdy;
+		
+		double det = aLift * (bdxcdy - cdxbdy) 
+				   + bLift * (cdxady - adxcdy) 
+				   + cLift * (adxbdy - bdxady);
+		
+		double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * aLift
+						 + (Math.abs(cdxady) + Math.abs(adxcdy)) * bLift
+						 + (Math.abs(adxbdy) + Math.abs(bdxady)) * cLift;
+		double errorBound = INCIRCLE_BOUND * permanent;
+		if (det > errorBound || -det > errorBound) {
+			return det;
+		}
+		
+		return incircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+	}
+
+	/**
+	 * Calculates if weighted location d is closer, by power distance, to the circle 
+	 * orthogonal to the weighted locations a, b and c than they are.  Each location is
+	 * lifted to x * x + y * y - weight, so with every weight the same this is the 
+	 * incircle test.  Only the sign is exact.
+	 * @return Positive if d is in conflict with the counterclockwise a, b, c, negative if
+	 * it isn't, and 0 if it is on the orthogonal circle
+	 */
+	public static double power(double ax, double ay, double aw, double bx, double by, double bw, 
+			double cx, double cy, double cw, double dx, double dy, double dw) {
+		double adx = ax - dx;
+		double ady = ay - dy;
+		double bdx = bx - dx;
+		double bdy = by - dy;
+		double cdx = cx - dx;
+		double cdy = cy - dy;
+		double adw = aw - dw;
+		double bdw = bw - dw;
+		double cdw = cw - dw;
+		
+		double bdxcdy = bdx * cdy;
+		double cdxbdy = cdx * bdy;
+		double aSquares = adx * adx + ady * ady;
+		double aLift = aSquares - adw;
+		
+		double cdxady = cdx * ady;
+		double adxcdy = adx * cdy;
+		double bSquares = bdx * bdx + bdy * bdy;
+		double bLift = bSquares - bdw;
+		
+		double adxbdy = adx * bdy;
+		double bdxady = bdx * ady;
+		double cSquares = cdx * cdx + cdy * cdy;
+		double cLift = cSquares - cdw;
+		
+		double det = aLift * (bdxcdy - cdxbdy) 
+				   + bLift * (cdxady - adxcdy) 
+				   + cLift * (adxbdy - bdxady);
+		
+		double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * (aSquares + Math.abs(adw))
+						 + (Math.abs(cdxady) + Math.abs(adxcdy)) * (bSquares + Math.abs(bdw))
+						 + (Math.abs(adxbdy) + Math.abs(bdxady)) * (cSquares + Math.abs(cdw));
+		double errorBound = POWER_BOUND * permanent;
+		if (det > errorBound || -det > errorBound) {
+			return det;
+		}
+		
+		return powerExact(ax, ay, aw, bx, by, bw, cx, cy, cw, dx, dy, dw);
+	}
+
+	/**
+	 * Evaluates the orientation determinant without any rounding
+	 * @return The sign of the determinant
+	 */
+	private static double orient2dExact(double ax, double ay, double bx, double by, double cx, double cy) {
+		BigDecimal acx = subtract(ax, cx);
+		BigDecimal bcx = subtract(bx, cx);
+		BigDecimal acy = subtract(ay, cy);
+		BigDecimal bcy = subtract(by, cy);
+		
+		return acx.multiply(bcy).subtract(acy.multiply(bcx)).signum();
+	}
+
+	/**
+	 * Evaluates the incircle determinant without any rounding
+	 * @return The sign of the determinant
+	 */
+	private static double incircleExact(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy) {
+		BigDecimal adx = subtract(ax, dx);
+		BigDecimal ady = subtract(ay, dy);
+		BigDecimal bdx = subtract(bx, dx);
+		BigDecimal bdy = subtract(by, dy);
+		BigDecimal cdx = subtract(cx, dx);
+		BigDecimal cdy = subtract(cy, dy);
+		
+		BigDecimal aLift = adx.multiply(adx).add(ady.multiply(ady));
+		BigDecimal bLift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+		BigDecimal cLift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+		
+		BigDecimal det = aLift.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+				.add(bLift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+				.add(cLift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))));
+		
+		return det.signum();
+	}
+
+	/**
+	 * Evaluates the power determinant without any rounding
+	 * @return The sign of the determinant
+	 */
+	private static double powerExact(double ax, double ay, double aw, double bx, double by, double bw, 
+			double cx, double cy, double cw, double dx, double dy, double dw) {
+		BigDecimal adx = subtract(ax, dx);
+		BigDecimal ady = subtract(ay, dy);
+		BigDecimal bdx = subtract(bx, dx);
+		BigDecimal bdy = subtract(by, dy);
+		BigDecimal cdx = subtract(cx, dx);
+		BigDecimal cdy = subtract(cy, dy);
+		
+		BigDecimal aLift = adx.multiply(adx).add(ady.multiply(ady)).subtract(subtract(aw, dw));
+		BigDecimal bLift = bdx.multiply(bdx).add(bdy.multiply(bdy)).subtract(subtract(bw, dw));
+		BigDecimal cLift = cdx.multiply(cdx).add(cdy.multiply(cdy)).subtract(subtract(cw, dw));
+		
+		BigDecimal det = aLift.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+				.add(bLift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+				.add(cLift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))));
+		
+		return det.signum();
+	}
+
+	private static BigDecimal subtract(double a, double b) {
+		return new BigDecimal(a).subtract(new BigDecimal(b));
+	}
+	
+}
@@ -43,44 +43,92 @@ public class MathUtil {
 	 */
 	public static Circle calculateCircumCircle(Point p1, Point p2, Point p3) {
 		
-		double m1, m2, mx1, mx2, my1, my2;
+		// work relative to the first point so the big coordinates cancel out
+		double dx = p2.x - p1.x;
+		double dy = p2.y - p1.y;
+		double ex = p3.x - p1.x;
+		double ey = p3.y - p1.y;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
 		
-		double x = -1;
-		double y = -1;
-		
-		if (Math.abs(p2.y - p1.y) < EPSILON) {
-			m2 = -(p3.x - p2.x) / (p3.y - p2.y);
-			mx2 = (p2.x + p3.x) / 2.0f;
-			my2 = (p2.y + p3.y) / 2.0f;
-			x = (p2.x + p1.x) / 2.0f;
-			y = m2 * (x - mx2) + my2;
-		} else if (Math.abs(p3.y - p2.y) < EPSILON) {
-			m1 = -(p2.x - p1.x) / (p2.y - p1.y);
-			mx1 = (p1.x + p2.x) / 2.0f;
-			my1 = (p1.y + p2.y) / 2.0f;
-			x = (p3.x + p2.x) / 2.0f;
-			y = m1 * (x - mx1) + my1;
-		} else {
-			m1 = -(p2.x - p1.x) / (p2.y - p1.y);
-			m2 = -(p3.x - p2.x) / (p3.y - p2.y);
-			mx1 = (p1.x + p2.x) / 2.0f;
-			mx2 = (p2.x + p3.x) / 2.0f;
-			my1 = (p1.y + p2.y) / 2.0f;
-			my2 = (p2.y + p3.y) / 2.0f;
-			x = (m1 * mx1 - m2 * mx2 + my2 - my1) / (m1 - m2);
-			y = m1 * (x - mx1) + my1;
+		// collinear points give a circle with an infinite radius
+		double d = 2 * (dx * ey - dy * ex);
+		if (d == 0) {
+			return new Circle(new Point(Double.NaN, Double.NaN), Double.POSITIVE_INFINITY);
 		}
-
-		Point center = new Point(x, y);
 		
-		double dx = p1.x - center.x;
-		double dy = p1.y - center.y;
-		double rsqr = dx * dx + dy * dy;
+		double x = (ey * bl - dy * cl) / d;
+		double y = (dx * cl - ex * bl) / d;
 
-		double radius = Math.sqrt(rsqr);
+		Point center = new Point(p1.x + x, p1.y + y);
+
+		double radius = Math.sqrt(x * x + y * y);
 		
 		return new Circle(center, radius);
 	}
+
+	/**
+	 * Calculates the circumcircle of the <code>Triangle</code>'s corners and stores it in
+	 * the <code>Triangle</code> without making any objects
+	 * @param triangle The <code>Triangle</code> to calculate and store the circumcircle for
+	 */
+	public static void updateCircumCircle(Triangle triangle) {
+		Point p1 = triangle.getCorner(0).getPoint();
+		Point p2 = triangle.getCorner(1).getPoint();
+		Point p3 = triangle.getCorner(2).getPoint();
+		
+		double dx = p2.x - p1.x;
+		double dy = p2.y - p1.y;
+		double ex = p3.x - p1.x;
+		double ey = p3.y - p1.y;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		
+		double d = 2 * (dx * ey - dy * ex);
+		if (d == 0) {
+			triangle.setCircumCircle(Double.NaN, Double.NaN, Double.POSITIVE_INFINITY);
+			return;
+		}
+		
+		double x = (ey * bl - dy * cl) / d;
+		double y = (dx * cl - ex * bl) / d;
+		triangle.setCircumCircle(p1.x + x, p1.y + y, x * x + y * y);
+	}
+
+	/**
+	 * Calculates the circumcircle of three locations without making any objects
+	 * @param ax The first x value
+	 * @param ay The first y value
+	 * @param bx The second x value
+	 * @param by The second y value
+	 * @param cx The third x value
+	 * @param cy The third y value
+	 * @param answer Gets the center's x value, the center's y value, and the squared radius, 
+	 * or NaN, NaN, and infinity if the locations are on one line
+	 * @param offset Where in the answer to start writing
+	 */
+	public static void calculateCircumCircle(double ax, double ay, double bx, double by, double cx, double cy, double[] answer, int offset) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double ex = cx - ax;
+		double ey = cy - ay;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		
+		double d = 2 * (dx * ey - dy * ex);
+		if (d == 0) {
+			answer[offset] = Double.NaN;
+			answer[offset + 1] = Double.NaN;
+			answer[offset + 2] = Double.POSITIVE_INFINITY;
+			return;
+		}
+		
+		double x = (ey * bl - dy * cl) / d;
+		double y = (dx * cl - ex * bl) / d;
+		answer[offset] = ax + x;
+		answer[offset + 1] = ay + y;
+		answer[offset + 2] = x * x + y * y;
+	}
 	
 	/**
 	 * Calculate the distance between two <code>Point</code>s
@@ -93,5 +141,30 @@ public class MathUtil {
 		double y = firstPoint.y - secondPoint.y;
 		return Math.sqrt(x*x + y*y);
 	}
+
+	/**
+	 * Calculate the squared distance between two <code>Point</code>s, which orders
+	 * the same as the distance without needing a square root
+	 * @param firstPoint The first <code>Point</code>
+	 * @param secondPoint The second <code>Point</code>
+	 * @return The squared distance between the first point and second point
+	 */
+	public static double calculateDistanceSquared(Point firstPoint, Point secondPoint) {
+		return calculateDistanceSquared(firstPoint.x, firstPoint.y, secondPoint.x, secondPoint.y);
+	}
+
+	/**
+	 * Calculate the squared distance between two locations
+	 * @param x1 The first x value
+	 * @param y1 The first y value
+	 * @param x2 The second x value
+	 * @param y2 The second y value
+	 * @return The squared distance between the locations
+	 */
+	public static double calculateDistanceSquared(double x1, double y1, double x2, double y2) {
+		double x = x1 - x2;
+		double y = y1 - y2;
+		return x * x + y * y;
+	}
 	
 }
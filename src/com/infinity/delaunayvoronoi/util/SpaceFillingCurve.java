@@ -0,0 +1,85 @@
+package com.infinity.delaunayvoronoi.util;
+
+/**
+ * Maps grid cells onto positions along space filling curves.  Cells that are
+ * close along a curve are close in the plane, so sorting by curve position
+ * keeps consecutive work spatially coherent.
+ */
+public class SpaceFillingCurve {
+
+	/**
+	 * The number of bits used for each of the x and y grid coordinates
+	 */
+	public static final int BITS = 16;
+
+	/**
+	 * The number of cells along each side of the grid
+	 */
+	public static final int SIZE = 1 << BITS;
+
+	/**
+	 * Calculates the position of a grid cell along the Hilbert curve.
+	 * See https://en.wikipedia.org/wiki/Hilbert_curve for the algorithm used.
+	 * @param x The column of the cell, between 0 and <code>SIZE - 1</code>
+	 * @param y The row of the cell, between 0 and <code>SIZE - 1</code>
+	 * @return The position of the cell along the curve
+	 */
+	public static long hilbertIndex(int x, int y) {
+		long d = 0;
+		for (int s = SIZE / 2; s > 0; s /= 2) {
+			int rx = (x & s) > 0 ? 1 : 0;
+			int ry = (y & s) > 0 ? 1 : 0;
+			d += (long) s * s * ((3 * rx) ^ ry);
+			
+			// rotate the quadrant so the curve stays continuous
+			if (ry == 0) {
+				if (rx == 1) {
+					x = SIZE - 1 - x;
+					y = SIZE - 1 - y;
+				}
+				int t = x;
+				x = y;
+				y = t;
+			}
+		}
+		return d;
+	}
+
+	/**
+	 * Calculates the position of a grid cell along the Morton (Z-order) curve
+	 * by interleaving the bits of the coordinates
+	 * @param x The column of the cell, between 0 and <code>SIZE - 1</code>
+	 * @param y The row of the cell, between 0 and <code>SIZE - 1</code>
+	 * @return The position of the cell along the curve
+	 */
+	public static long mortonIndex(int x, int y) {
+		return spreadBits(x) | (spreadBits(y) << 1);
+	}
+
+	/**
+	 * Spreads the lower 16 bits of the value out so there is an empty bit between each
+	 * @param value The value to spread
+	 * @return The spread value
+	 */
+	private static long spreadBits(int value) {
+		long v = value & 0xFFFFL;
+		v = (v | (v << 8)) & 0x00FF00FFL;
+		v = (v | (v << 4)) & 0x0F0F0F0FL;
+		v = (v | (v << 2)) & 0x33333333L;
+		v = (v | (v << 1)) & 0x55555555L;
+		return v;
+	}
+
+	/**
+	 * Scales a coordinate into a grid column or row
+	 * @param value The coordinate to scale
+	 * @param min The smallest coordinate of the area
+	 * @param scale The number of cells per unit
+	 * @return The column or row, clamped to the grid
+	 */
+	public static int toGrid(double value, double min, double scale) {
+		int cell = (int) ((value - min) * scale);
+		return Math.max(0, Math.min(SIZE - 1, cell));
+	}
+	
+}